@@ -0,0 +1,174 @@
+package com.uday.apigateway.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Caches successful GET responses of the configured routes for a short TTL
+ * and tags every response with an ETag derived from its body. A request whose
+ * If-None-Match carries the current ETag gets a bodiless 304, whether the body
+ * came from the cache or from the service. Entries are dropped early when a
+ * service publishes the route's tag (see EdgeCacheInvalidationListener).
+ *
+ * Clients may send Cache-Control: no-cache to skip the cached copy.
+ */
+@Component
+public class EdgeCacheFilter implements GlobalFilter, Ordered {
+
+    public static final String CACHE_HEADER = "X-Edge-Cache";
+
+    @Autowired
+    private EdgeCacheProperties properties;
+
+    @Autowired
+    private EdgeResponseCache cache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Counter hits;
+    private Counter misses;
+    private Counter notModified;
+
+    @PostConstruct
+    void init() {
+        hits = Counter.builder("gateway.edge.cache").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("gateway.edge.cache").tag("result", "miss").register(meterRegistry);
+        notModified = Counter.builder("gateway.edge.cache").tag("result", "not_modified").register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!properties.isEnabled() || request.getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+        String path = request.getPath().value();
+        EdgeCacheProperties.Route route = properties.match(path);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+
+        String query = request.getURI().getRawQuery();
+        String key = query == null ? path : path + "?" + query;
+        List<String> ifNoneMatch = request.getHeaders().getIfNoneMatch();
+
+        String requestCacheControl = request.getHeaders().getCacheControl();
+        boolean bypass = requestCacheControl != null && requestCacheControl.contains("no-cache");
+        if (!bypass) {
+            EdgeResponseCache.Entry cached = cache.get(key, System.currentTimeMillis());
+            if (cached != null) {
+                return serveCached(exchange.getResponse(), cached, ifNoneMatch);
+            }
+        }
+
+        misses.increment();
+        long generation = cache.generation(route.getTag());
+        ServerHttpResponse response = exchange.getResponse();
+        ServerHttpResponseDecorator capturing = new ServerHttpResponseDecorator(response) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                HttpHeaders headers = getHeaders();
+                if (getStatusCode() == null || getStatusCode().value() != HttpStatus.OK.value()
+                        || headers.getContentLength() > properties.getMaxBodyBytes()) {
+                    return super.writeWith(body);
+                }
+                return DataBufferUtils.join(Flux.from(body))
+                        .defaultIfEmpty(bufferFactory().wrap(new byte[0]))
+                        .flatMap(joined -> {
+                            byte[] bytes = new byte[joined.readableByteCount()];
+                            joined.read(bytes);
+                            DataBufferUtils.release(joined);
+
+                            String etag = etag(bytes);
+                            if (bytes.length <= properties.getMaxBodyBytes()) {
+                                cache.put(key, new EdgeResponseCache.Entry(bytes, headers.getContentType(), etag,
+                                        System.currentTimeMillis() + route.getTtlMs(), route.getTag()), generation);
+                            }
+                            headers.setETag(etag);
+                            headers.set(CACHE_HEADER, "MISS");
+                            if (headers.getCacheControl() == null) {
+                                headers.setCacheControl(CacheControl.noCache());
+                            }
+                            if (matches(ifNoneMatch, etag)) {
+                                notModified.increment();
+                                setStatusCode(HttpStatus.NOT_MODIFIED);
+                                headers.remove(HttpHeaders.CONTENT_TYPE);
+                                headers.remove(HttpHeaders.CONTENT_LENGTH);
+                                return getDelegate().setComplete();
+                            }
+                            return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                        });
+            }
+        };
+        return chain.filter(exchange.mutate().response(capturing).build());
+    }
+
+    private Mono<Void> serveCached(ServerHttpResponse response, EdgeResponseCache.Entry entry, List<String> ifNoneMatch) {
+        HttpHeaders headers = response.getHeaders();
+        headers.setETag(entry.etag());
+        headers.set(CACHE_HEADER, "HIT");
+        headers.setCacheControl(CacheControl.noCache());
+        if (matches(ifNoneMatch, entry.etag())) {
+            notModified.increment();
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return response.setComplete();
+        }
+        hits.increment();
+        response.setStatusCode(HttpStatus.OK);
+        if (entry.contentType() != null) {
+            headers.setContentType(entry.contentType());
+        }
+        headers.setContentLength(entry.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(entry.body())));
+    }
+
+    private static boolean matches(List<String> ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch) {
+            if (candidate.equals("*") || candidate.equals(etag) || candidate.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String etag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // must run before NettyWriteResponseFilter writes the body to the client
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+}
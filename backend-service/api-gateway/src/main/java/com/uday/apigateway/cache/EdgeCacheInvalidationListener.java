@@ -0,0 +1,74 @@
+package com.uday.apigateway.cache;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.connection.ReactiveSubscription;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.ReactiveRedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+
+/**
+ * Drops edge cache entries when a service announces a change. The message is
+ * the route tag (e.g. "parking") or "*" for everything. While the subscription
+ * is down, messages may be missed, so the whole cache is cleared on every
+ * error; the route TTLs bound staleness in the meantime.
+ */
+@Component
+public class EdgeCacheInvalidationListener {
+
+    @Autowired
+    private ReactiveRedisConnectionFactory connectionFactory;
+
+    @Autowired
+    private EdgeResponseCache cache;
+
+    @Autowired
+    private EdgeCacheProperties properties;
+
+    private ReactiveRedisMessageListenerContainer container;
+    private Disposable subscription;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        container = new ReactiveRedisMessageListenerContainer(connectionFactory);
+        subscription = container.receive(ChannelTopic.of(properties.getInvalidationChannel()))
+                .map(ReactiveSubscription.Message::getMessage)
+                .doOnNext(this::invalidate)
+                .doOnError(e -> {
+                    System.err.println("[EdgeCache] Invalidation subscription failed, clearing cache: " + e.getMessage());
+                    cache.invalidateAll();
+                })
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe();
+        System.out.println("[EdgeCache] Listening for invalidations on " + properties.getInvalidationChannel());
+    }
+
+    private void invalidate(String tag) {
+        String trimmed = tag.trim();
+        if (trimmed.equals("*")) {
+            cache.invalidateAll();
+        } else if (!trimmed.isEmpty()) {
+            cache.invalidate(trimmed);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+        }
+        if (container != null) {
+            container.destroy();
+        }
+    }
+}
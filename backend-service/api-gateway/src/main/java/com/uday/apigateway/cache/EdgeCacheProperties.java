@@ -0,0 +1,49 @@
+package com.uday.apigateway.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Edge response cache settings (gateway.edge-cache.*). Only GET requests whose
+ * path matches one of the routes are cached.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.edge-cache")
+public class EdgeCacheProperties {
+
+    private static final AntPathMatcher MATCHER = new AntPathMatcher();
+
+    private boolean enabled = true;
+
+    private int maxEntries = 10000;
+
+    // larger responses are passed through uncached
+    private int maxBodyBytes = 256 * 1024;
+
+    // services publish a route tag here when the data behind it changes
+    private String invalidationChannel = "gateway:cache-invalidate";
+
+    private List<Route> routes = new ArrayList<>();
+
+    public Route match(String path) {
+        for (Route route : routes) {
+            if (MATCHER.match(route.getPath(), path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    @Data
+    public static class Route {
+        private String path;        // ant pattern, e.g. /api/parking/levels
+        private long ttlMs = 5000;
+        private String tag;         // invalidation tag, e.g. parking
+    }
+}
@@ -0,0 +1,79 @@
+package com.uday.apigateway.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory store for cached GET responses, keyed by path and query.
+ *
+ * Each tag has a generation that invalidation bumps; a response is only stored
+ * if its tag's generation is unchanged since the request was forwarded, so a
+ * load that raced an invalidation cannot put the old data back.
+ */
+@Component
+public class EdgeResponseCache {
+
+    public record Entry(byte[] body, MediaType contentType, String etag, long expiresAt, String tag) {
+    }
+
+    @Autowired
+    private EdgeCacheProperties properties;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public Entry get(String key, long now) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt() <= now) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    public long generation(String tag) {
+        return generations.computeIfAbsent(tag, t -> new AtomicLong()).get();
+    }
+
+    public boolean put(String key, Entry entry, long generation) {
+        if (generation(entry.tag()) != generation) {
+            return false;
+        }
+        if (entries.size() >= properties.getMaxEntries() && !entries.containsKey(key)) {
+            long now = System.currentTimeMillis();
+            entries.values().removeIf(e -> e.expiresAt() <= now);
+            if (entries.size() >= properties.getMaxEntries()) {
+                return false;
+            }
+        }
+        entries.put(key, entry);
+        if (generation(entry.tag()) != generation) {
+            entries.remove(key, entry); // invalidated while storing
+            return false;
+        }
+        return true;
+    }
+
+    public int invalidate(String tag) {
+        generations.computeIfAbsent(tag, t -> new AtomicLong()).incrementAndGet();
+        int before = entries.size();
+        entries.values().removeIf(e -> tag.equals(e.tag()));
+        return before - entries.size();
+    }
+
+    public void invalidateAll() {
+        generations.values().forEach(AtomicLong::incrementAndGet);
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
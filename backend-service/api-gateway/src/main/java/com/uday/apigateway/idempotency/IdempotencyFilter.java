@@ -0,0 +1,325 @@
+package com.uday.apigateway.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Honours the Idempotency-Key header on mutating requests (ticket create/exit,
+ * reservations, vehicle entry/exit) for every service behind the gateway.
+ *
+ * The first request for a key is forwarded and its response (status below 500)
+ * is kept in Redis for ttl-hours; retries get that response back without
+ * reaching the service. The Redis lock is refreshed while the request is in
+ * flight, so a slow request is never run twice. Concurrent duplicates on this
+ * instance wait for the in-flight request; on another instance they poll for
+ * its result and get 409 if it does not finish in time. Reusing a key for a
+ * different request is 422. If Redis is unreachable the request passes
+ * through unprotected.
+ */
+@Component
+public class IdempotencyFilter implements GlobalFilter, Ordered {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final String RESULT_PREFIX = "idempotency:gateway:result:";
+    private static final String LOCK_PREFIX = "idempotency:gateway:lock:";
+
+    private enum Claim { OWNER, TAKEN, UNAVAILABLE }
+
+    private record Lookup(boolean available, StoredResponse stored) {
+        static final Lookup MISSING = new Lookup(true, null);
+        static final Lookup UNAVAILABLE = new Lookup(false, null);
+    }
+
+    @Autowired
+    private IdempotencyProperties properties;
+
+    @Autowired
+    private ReactiveStringRedisTemplate redis;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // requests in flight on this instance, so local duplicates share one execution
+    private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        HttpMethod method = request.getMethod();
+        String header = request.getHeaders().getFirst(HEADER);
+        if (!properties.isEnabled() || method == HttpMethod.GET || method == HttpMethod.HEAD
+                || method == HttpMethod.OPTIONS || header == null || header.isBlank()
+                || !properties.covers(request.getPath().value())) {
+            return chain.filter(exchange);
+        }
+        String key = header.trim();
+        if (key.length() > 200) {
+            return writeError(exchange.getResponse(), HttpStatus.BAD_REQUEST, HEADER + " must be at most 200 characters");
+        }
+
+        return DataBufferUtils.join(request.getBody())
+                .map(joined -> {
+                    byte[] bytes = new byte[joined.readableByteCount()];
+                    joined.read(bytes);
+                    DataBufferUtils.release(joined);
+                    return bytes;
+                })
+                .defaultIfEmpty(new byte[0])
+                .flatMap(body -> handle(exchange, chain, key, body));
+    }
+
+    private Mono<Void> handle(ServerWebExchange exchange, GatewayFilterChain chain, String key, byte[] body) {
+        ServerHttpRequest request = exchange.getRequest();
+        ServerHttpResponse response = exchange.getResponse();
+        // the body was consumed for the fingerprint, so hand the service a copy
+        ServerWebExchange cached = exchange.mutate().request(new ServerHttpRequestDecorator(request) {
+            @Override
+            public Flux<DataBuffer> getBody() {
+                return Flux.defer(() -> Flux.just(response.bufferFactory().wrap(body)));
+            }
+        }).build();
+        String fingerprint = fingerprint(request, body);
+
+        return readResult(key)
+                .map(stored -> new Lookup(true, stored))
+                .defaultIfEmpty(Lookup.MISSING)
+                .onErrorResume(e -> {
+                    System.err.println("[Idempotency] Store unavailable, passing through: " + e.getMessage());
+                    return Mono.just(Lookup.UNAVAILABLE);
+                })
+                .flatMap(lookup -> {
+                    if (!lookup.available()) {
+                        return chain.filter(cached);
+                    }
+                    if (lookup.stored() != null) {
+                        return replay(lookup.stored(), fingerprint, response);
+                    }
+                    return claim(cached, chain, key, fingerprint);
+                });
+    }
+
+    private Mono<Void> claim(ServerWebExchange exchange, GatewayFilterChain chain, String key, String fingerprint) {
+        ServerHttpResponse response = exchange.getResponse();
+        CompletableFuture<StoredResponse> mine = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            // copy() so a waiter timing out does not cancel the owner's future
+            Mono<StoredResponse> local = Mono.fromFuture(existing.copy())
+                    .timeout(Duration.ofMillis(properties.getWaitMillis()))
+                    .onErrorResume(e -> Mono.empty());
+            return replayOrConflict(local, fingerprint, response);
+        }
+
+        return redis.opsForValue()
+                .setIfAbsent(LOCK_PREFIX + key, fingerprint, lockTtl())
+                .map(claimed -> Boolean.TRUE.equals(claimed) ? Claim.OWNER : Claim.TAKEN)
+                .onErrorResume(e -> {
+                    System.err.println("[Idempotency] Store unavailable, passing through: " + e.getMessage());
+                    return Mono.just(Claim.UNAVAILABLE);
+                })
+                .flatMap(claim -> switch (claim) {
+                    case UNAVAILABLE -> chain.filter(exchange);
+                    case TAKEN -> replayOrConflict(
+                            awaitRemote(key, System.currentTimeMillis() + properties.getWaitMillis())
+                                    .doOnNext(mine::complete),
+                            fingerprint, response);
+                    case OWNER -> forward(exchange, chain, key, fingerprint, mine);
+                })
+                .doFinally(signal -> {
+                    inFlight.remove(key, mine);
+                    mine.complete(null);
+                });
+    }
+
+    private Mono<Void> forward(ServerWebExchange exchange, GatewayFilterChain chain, String key,
+                               String fingerprint, CompletableFuture<StoredResponse> mine) {
+        String lockKey = LOCK_PREFIX + key;
+        long refreshSeconds = Math.max(1, properties.getLockSeconds() / 3);
+        Disposable keepAlive = Flux.interval(Duration.ofSeconds(refreshSeconds))
+                .flatMap(tick -> redis.expire(lockKey, lockTtl()).onErrorResume(e -> Mono.empty()))
+                .subscribe();
+
+        ServerHttpResponse response = exchange.getResponse();
+        AtomicReference<StoredResponse> captured = new AtomicReference<>();
+        ServerHttpResponseDecorator capturing = new ServerHttpResponseDecorator(response) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                return DataBufferUtils.join(Flux.from(body))
+                        .map(joined -> {
+                            byte[] bytes = new byte[joined.readableByteCount()];
+                            joined.read(bytes);
+                            DataBufferUtils.release(joined);
+                            return bytes;
+                        })
+                        .defaultIfEmpty(new byte[0])
+                        .flatMap(bytes -> {
+                            captured.set(new StoredResponse(fingerprint, status(getStatusCode()),
+                                    getHeaders().getFirst(HttpHeaders.CONTENT_TYPE), bytes));
+                            return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                        });
+            }
+        };
+
+        return chain.filter(exchange.mutate().response(capturing).build())
+                .then(Mono.defer(() -> {
+                    StoredResponse result = captured.get();
+                    if (result == null) {
+                        // completed without a body, e.g. 204
+                        result = new StoredResponse(fingerprint, status(response.getStatusCode()), null, new byte[0]);
+                    }
+                    mine.complete(result);
+                    return result.getStatus() < 500 ? store(key, result) : Mono.<Void>empty();
+                }))
+                .doFinally(signal -> {
+                    keepAlive.dispose();
+                    redis.delete(lockKey).subscribe(deleted -> { },
+                            e -> System.err.println("[Idempotency] Could not release lock " + key + ": " + e.getMessage()));
+                });
+    }
+
+    private Mono<StoredResponse> awaitRemote(String key, long deadline) {
+        return readResult(key)
+                .switchIfEmpty(Mono.defer(() -> redis.hasKey(LOCK_PREFIX + key).flatMap(locked -> {
+                    if (!Boolean.TRUE.equals(locked)) {
+                        // owner finished without storing (5xx) or crashed
+                        return readResult(key);
+                    }
+                    if (System.currentTimeMillis() >= deadline) {
+                        return Mono.empty();
+                    }
+                    return Mono.delay(Duration.ofMillis(100)).then(awaitRemote(key, deadline));
+                })))
+                .onErrorResume(e -> Mono.empty());
+    }
+
+    private Mono<StoredResponse> readResult(String key) {
+        return redis.opsForValue().get(RESULT_PREFIX + key).flatMap(json -> {
+            try {
+                return Mono.just(objectMapper.readValue(json, StoredResponse.class));
+            } catch (JsonProcessingException e) {
+                return Mono.empty();
+            }
+        });
+    }
+
+    private Mono<Void> store(String key, StoredResponse result) {
+        return Mono.fromCallable(() -> objectMapper.writeValueAsString(result))
+                .flatMap(json -> redis.opsForValue().set(RESULT_PREFIX + key, json, Duration.ofHours(properties.getTtlHours())))
+                .then()
+                .onErrorResume(e -> {
+                    System.err.println("[Idempotency] Could not store response for " + key + ": " + e.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> replayOrConflict(Mono<StoredResponse> result, String fingerprint, ServerHttpResponse response) {
+        return result.map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(stored -> stored.isPresent()
+                        ? replay(stored.get(), fingerprint, response)
+                        : writeError(response, HttpStatus.CONFLICT, "A request with this " + HEADER + " is still in progress"));
+    }
+
+    private Mono<Void> replay(StoredResponse stored, String fingerprint, ServerHttpResponse response) {
+        if (!stored.getFingerprint().equals(fingerprint)) {
+            return writeError(response, HttpStatus.UNPROCESSABLE_ENTITY, HEADER + " was already used for a different request");
+        }
+        byte[] body = stored.getBody() != null ? stored.getBody() : new byte[0];
+        HttpHeaders headers = response.getHeaders();
+        response.setStatusCode(HttpStatusCode.valueOf(stored.getStatus()));
+        headers.set(REPLAYED_HEADER, "true");
+        if (stored.getContentType() != null) {
+            headers.set(HttpHeaders.CONTENT_TYPE, stored.getContentType());
+        }
+        headers.setContentLength(body.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    private Mono<Void> writeError(ServerHttpResponse response, HttpStatus status, String message) {
+        return Mono.fromCallable(() -> objectMapper.writeValueAsBytes(Map.of("error", message)))
+                .flatMap(bytes -> {
+                    response.setStatusCode(status);
+                    response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+                    return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+                });
+    }
+
+    private Duration lockTtl() {
+        return Duration.ofSeconds(properties.getLockSeconds());
+    }
+
+    private static int status(HttpStatusCode code) {
+        return code != null ? code.value() : HttpStatus.OK.value();
+    }
+
+    private static String fingerprint(ServerHttpRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getMethod().name().getBytes(StandardCharsets.UTF_8));
+            digest.update(request.getPath().value().getBytes(StandardCharsets.UTF_8));
+            String query = request.getURI().getRawQuery();
+            if (query != null) {
+                digest.update(query.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    // must wrap the response before NettyWriteResponseFilter writes it to the client
+    @Override
+    public int getOrder() {
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StoredResponse {
+        private String fingerprint;
+        private int status;
+        private String contentType;
+        private byte[] body;
+    }
+}
@@ -0,0 +1,43 @@
+package com.uday.apigateway.idempotency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Idempotency-Key settings (gateway.idempotency.*). Only mutating requests
+ * whose path matches one of the paths are covered.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "gateway.idempotency")
+public class IdempotencyProperties {
+
+    private static final AntPathMatcher MATCHER = new AntPathMatcher();
+
+    private boolean enabled = true;
+
+    // how long a completed response is replayed
+    private long ttlHours = 24;
+
+    // lock TTL; refreshed while the request is in flight, so it only matters if this instance dies
+    private long lockSeconds = 30;
+
+    // how long a duplicate waits for the in-flight request before getting 409
+    private long waitMillis = 10000;
+
+    private List<String> paths = new ArrayList<>();
+
+    public boolean covers(String path) {
+        for (String pattern : paths) {
+            if (MATCHER.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
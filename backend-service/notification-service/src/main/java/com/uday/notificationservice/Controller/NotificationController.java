@@ -1,10 +1,23 @@
 package com.uday.notificationservice.Controller;
 
 import com.google.firebase.messaging.FirebaseMessagingException;
+import com.uday.notificationservice.dto.DeviceTokenRequest;
+import com.uday.notificationservice.dto.EnqueueResult;
+import com.uday.notificationservice.dto.FanOutResult;
+import com.uday.notificationservice.dto.NotificationRequest;
+import com.uday.notificationservice.dto.UserNotificationRequest;
+import com.uday.notificationservice.entity.DeviceToken;
+import com.uday.notificationservice.service.DeviceTokenService;
 import com.uday.notificationservice.service.FCMService;
+import com.uday.notificationservice.service.NotificationDispatcher;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/notifications")
 public class NotificationController {
@@ -12,10 +25,117 @@ public class NotificationController {
     @Autowired
     private FCMService fcmService;
 
+    @Autowired
+    private NotificationDispatcher dispatcher;
+
+    @Autowired
+    private DeviceTokenService deviceTokenService;
+
+    /**
+     * Send one notification to one device, synchronously
+     * POST /api/notifications/send
+     */
     @PostMapping("/send")
     public String send(@RequestParam String token,
                        @RequestParam String title,
                        @RequestParam String body) throws FirebaseMessagingException {
         return fcmService.sendNotification(title, body, token);
     }
+
+    /**
+     * Queue a notification for batched delivery; returns as soon as it is queued
+     * POST /api/notifications/enqueue
+     */
+    @PostMapping("/enqueue")
+    public ResponseEntity<?> enqueue(@RequestBody NotificationRequest request) {
+        try {
+            EnqueueResult result = dispatcher.enqueue(request);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Register (or refresh) a device token for a user
+     * POST /api/notifications/tokens
+     */
+    @PostMapping("/tokens")
+    public ResponseEntity<?> registerToken(@RequestBody DeviceTokenRequest request) {
+        try {
+            deviceTokenService.register(request);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Remove a device token, e.g. on logout
+     * DELETE /api/notifications/tokens?token=
+     */
+    @DeleteMapping("/tokens")
+    public ResponseEntity<?> unregisterToken(@RequestParam String token) {
+        try {
+            return deviceTokenService.unregister(token)
+                    ? ResponseEntity.noContent().build()
+                    : ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Registered devices of a user
+     * GET /api/notifications/tokens?userEmail=
+     */
+    @GetMapping("/tokens")
+    public ResponseEntity<?> tokens(@RequestParam String userEmail) {
+        try {
+            List<DeviceToken> tokens = deviceTokenService.tokensOf(userEmail);
+            return ResponseEntity.ok(tokens);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Queue a notification for every device of one or more users
+     * POST /api/notifications/users
+     */
+    @PostMapping("/users")
+    public ResponseEntity<?> notifyUsers(@RequestBody UserNotificationRequest request) {
+        return fanOut(List.of(request));
+    }
+
+    /**
+     * Queue several user notifications at once, resolving all tokens in one lookup
+     * POST /api/notifications/users/batch
+     */
+    @PostMapping("/users/batch")
+    public ResponseEntity<?> notifyUsersBatch(@RequestBody List<UserNotificationRequest> requests) {
+        return fanOut(requests);
+    }
+
+    private ResponseEntity<?> fanOut(List<UserNotificationRequest> requests) {
+        try {
+            FanOutResult result = deviceTokenService.notifyUsers(requests);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Dispatch queue depth and delivery counters
+     * GET /api/notifications/stats
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> stats() {
+        return ResponseEntity.ok(dispatcher.stats());
+    }
 }
@@ -2,7 +2,11 @@ package com.uday.notificationservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+@EnableDiscoveryClient
+@EnableScheduling
 @SpringBootApplication
 public class NotificationServiceApplication {
     public static void main(String[] args) {
@@ -0,0 +1,19 @@
+package com.uday.notificationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Device registration (POST /api/notifications/tokens)
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DeviceTokenRequest {
+    private String userEmail;
+    private String token;
+    private String platform;
+}
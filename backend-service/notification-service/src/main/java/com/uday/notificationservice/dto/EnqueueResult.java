@@ -0,0 +1,20 @@
+package com.uday.notificationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * What the dispatch queue did with an enqueue request
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class EnqueueResult {
+    private int queued;       // deliveries (one per token) added to the queue
+    private int coalesced;    // dropped as duplicates within the coalescing window
+    private int skipped;      // tokens already known to be invalid
+    private int queueDepth;
+}
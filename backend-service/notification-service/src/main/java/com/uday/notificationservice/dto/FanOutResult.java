@@ -0,0 +1,21 @@
+package com.uday.notificationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * What a user-targeted send resolved to and queued
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class FanOutResult {
+    private int users;
+    private int usersWithoutTokens;
+    private int queued;
+    private int coalesced;
+    private int skipped;
+}
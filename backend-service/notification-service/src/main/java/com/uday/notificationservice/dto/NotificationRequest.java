@@ -0,0 +1,28 @@
+package com.uday.notificationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A notification to queue for delivery (POST /api/notifications/enqueue).
+ * userId is optional; when set, repeats of the same message to that user
+ * within the coalescing window are dropped as a whole.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class NotificationRequest {
+    private String userId;
+    @Builder.Default
+    private List<String> tokens = new ArrayList<>();
+    private String title;
+    private String body;
+    private Map<String, String> data;
+}
@@ -0,0 +1,27 @@
+package com.uday.notificationservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A notification for users by email (POST /api/notifications/users, or a list
+ * of them to /api/notifications/users/batch); their registered devices are
+ * looked up here
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserNotificationRequest {
+    @Builder.Default
+    private List<String> userEmails = new ArrayList<>();
+    private String title;
+    private String body;
+    private Map<String, String> data;
+}
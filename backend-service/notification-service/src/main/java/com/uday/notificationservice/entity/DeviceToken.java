@@ -0,0 +1,49 @@
+package com.uday.notificationservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A push token registered by a user's device. A token belongs to one user at a
+ * time (re-registering moves it) and lapses at expiresAt unless the device
+ * registers again.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "device_token",
+    uniqueConstraints = @UniqueConstraint(name = "uk_device_token_token", columnNames = "token"),
+    indexes = {
+        @Index(name = "idx_device_token_user", columnList = "userEmail, expiresAt"),
+        @Index(name = "idx_device_token_expires", columnList = "expiresAt")
+    }
+)
+public class DeviceToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 512)
+    private String token;
+
+    // lower-cased
+    @Column(nullable = false)
+    private String userEmail;
+
+    @Column(length = 20)
+    private String platform;   // ANDROID, IOS, WEB
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime lastSeenAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+}
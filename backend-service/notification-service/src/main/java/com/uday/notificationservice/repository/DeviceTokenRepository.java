@@ -0,0 +1,64 @@
+package com.uday.notificationservice.repository;
+
+import com.uday.notificationservice.entity.DeviceToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DeviceTokenRepository extends JpaRepository<DeviceToken, Long> {
+
+    /**
+     * Live tokens of all the given users in one query; served by idx_device_token_user
+     */
+    @Query("SELECT d.userEmail AS userEmail, d.token AS token FROM DeviceToken d " +
+           "WHERE d.userEmail IN :emails AND d.expiresAt > :now")
+    List<UserToken> findLiveTokens(@Param("emails") Collection<String> emails, @Param("now") LocalDateTime now);
+
+    List<DeviceToken> findByUserEmailOrderByLastSeenAtDesc(String userEmail);
+
+    /**
+     * Register or refresh a token; a token registered by another user moves to this one
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO device_token (token, user_email, platform, created_at, last_seen_at, expires_at) " +
+            "VALUES (:token, :email, :platform, :now, :now, :expiresAt) " +
+            "ON CONFLICT (token) DO UPDATE SET user_email = EXCLUDED.user_email, " +
+            "platform = COALESCE(EXCLUDED.platform, device_token.platform), " +
+            "last_seen_at = EXCLUDED.last_seen_at, expires_at = EXCLUDED.expires_at", nativeQuery = true)
+    int upsert(@Param("token") String token, @Param("email") String email, @Param("platform") String platform,
+               @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Keep only the user's most recently seen tokens
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM device_token WHERE user_email = :email AND id NOT IN (" +
+            "SELECT id FROM device_token WHERE user_email = :email ORDER BY last_seen_at DESC LIMIT :keep)", nativeQuery = true)
+    int trimUser(@Param("email") String email, @Param("keep") int keep);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM DeviceToken d WHERE d.token IN :tokens")
+    int deleteByTokens(@Param("tokens") Collection<String> tokens);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM device_token WHERE id IN (" +
+            "SELECT id FROM device_token WHERE expires_at <= :now LIMIT :limit)", nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    interface UserToken {
+        String getUserEmail();
+        String getToken();
+    }
+}
@@ -0,0 +1,194 @@
+package com.uday.notificationservice.service;
+
+import com.uday.notificationservice.dto.DeviceTokenRequest;
+import com.uday.notificationservice.dto.EnqueueResult;
+import com.uday.notificationservice.dto.FanOutResult;
+import com.uday.notificationservice.dto.NotificationRequest;
+import com.uday.notificationservice.dto.UserNotificationRequest;
+import com.uday.notificationservice.entity.DeviceToken;
+import com.uday.notificationservice.repository.DeviceTokenRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Device token registry keyed by user email. Registering is an upsert on the
+ * token, so a device that registers repeatedly (or changes hands) keeps one
+ * row; each registration pushes expiresAt out by ttl-days and only the newest
+ * max-per-user tokens of a user are kept. Tokens the transport rejects are
+ * deleted in batches, expired ones by a periodic sweep.
+ *
+ * Fan-out resolves the tokens of every recipient with one indexed query and
+ * hands one request per user to the dispatcher, which batches the sends.
+ */
+@Service
+public class DeviceTokenService {
+
+    private static final int MAX_TOKEN_LENGTH = 512;
+
+    @Autowired
+    private DeviceTokenRepository deviceTokenRepository;
+
+    @Autowired
+    private NotificationDispatcher dispatcher;
+
+    @Autowired
+    private InvalidTokenRegistry invalidTokens;
+
+    @Value("${notification.tokens.ttl-days:60}")
+    private long ttlDays;
+
+    @Value("${notification.tokens.max-per-user:10}")
+    private int maxPerUser;
+
+    @Value("${notification.tokens.max-recipients:5000}")
+    private int maxRecipients;
+
+    @Value("${notification.tokens.prune-batch-size:500}")
+    private int pruneBatchSize;
+
+    @Value("${notification.tokens.expiry-batch-size:1000}")
+    private int expiryBatchSize;
+
+    public void register(DeviceTokenRequest request) {
+        String email = normalizeEmail(request.getUserEmail());
+        String token = request.getToken() == null ? "" : request.getToken().trim();
+        if (token.isEmpty() || token.length() > MAX_TOKEN_LENGTH) {
+            throw new IllegalArgumentException("token is required (at most " + MAX_TOKEN_LENGTH + " characters)");
+        }
+        String platform = request.getPlatform() == null || request.getPlatform().isBlank()
+                ? null : request.getPlatform().trim().toUpperCase(Locale.ROOT);
+
+        LocalDateTime now = LocalDateTime.now();
+        deviceTokenRepository.upsert(token, email, platform, now, now.plusDays(ttlDays));
+        deviceTokenRepository.trimUser(email, maxPerUser);
+        invalidTokens.clear(token);
+    }
+
+    public boolean unregister(String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("token is required");
+        }
+        return deviceTokenRepository.deleteByTokens(List.of(token.trim())) > 0;
+    }
+
+    public List<DeviceToken> tokensOf(String userEmail) {
+        return deviceTokenRepository.findByUserEmailOrderByLastSeenAtDesc(normalizeEmail(userEmail));
+    }
+
+    public FanOutResult notifyUsers(UserNotificationRequest request) {
+        return notifyUsers(List.of(request));
+    }
+
+    /**
+     * Queue each notification for every device of its users. The tokens of
+     * all users across all notifications come from a single query.
+     */
+    public FanOutResult notifyUsers(List<UserNotificationRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one notification is required");
+        }
+
+        Set<String> allEmails = new LinkedHashSet<>();
+        List<Set<String>> recipients = new ArrayList<>(requests.size());
+        for (UserNotificationRequest request : requests) {
+            if (request.getUserEmails() == null || request.getUserEmails().isEmpty()) {
+                throw new IllegalArgumentException("userEmails is required");
+            }
+            Set<String> emails = new LinkedHashSet<>();
+            for (String email : request.getUserEmails()) {
+                emails.add(normalizeEmail(email));
+            }
+            recipients.add(emails);
+            allEmails.addAll(emails);
+        }
+        if (allEmails.size() > maxRecipients) {
+            throw new IllegalArgumentException("At most " + maxRecipients + " distinct users per request");
+        }
+
+        Map<String, List<String>> tokensByUser = new HashMap<>();
+        for (DeviceTokenRepository.UserToken row : deviceTokenRepository.findLiveTokens(allEmails, LocalDateTime.now())) {
+            tokensByUser.computeIfAbsent(row.getUserEmail(), e -> new ArrayList<>()).add(row.getToken());
+        }
+
+        FanOutResult result = new FanOutResult();
+        for (int i = 0; i < requests.size(); i++) {
+            UserNotificationRequest request = requests.get(i);
+            for (String email : recipients.get(i)) {
+                result.setUsers(result.getUsers() + 1);
+                List<String> tokens = tokensByUser.get(email);
+                if (tokens == null) {
+                    result.setUsersWithoutTokens(result.getUsersWithoutTokens() + 1);
+                    continue;
+                }
+                EnqueueResult queued = dispatcher.enqueue(NotificationRequest.builder()
+                        .userId(email)
+                        .tokens(tokens)
+                        .title(request.getTitle())
+                        .body(request.getBody())
+                        .data(request.getData())
+                        .build());
+                result.setQueued(result.getQueued() + queued.getQueued());
+                result.setCoalesced(result.getCoalesced() + queued.getCoalesced());
+                result.setSkipped(result.getSkipped() + queued.getSkipped());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Delete tokens the transport reported as invalid since the last run
+     */
+    @Scheduled(fixedDelayString = "${notification.tokens.prune-interval-ms:5000}")
+    public void pruneInvalid() {
+        List<String> tokens;
+        while (!(tokens = invalidTokens.drainPendingPrune(pruneBatchSize)).isEmpty()) {
+            try {
+                int deleted = deviceTokenRepository.deleteByTokens(tokens);
+                if (deleted > 0) {
+                    System.out.println("[Tokens] Pruned " + deleted + " invalid device tokens");
+                }
+            } catch (Exception e) {
+                System.err.println("[Tokens] Failed to prune " + tokens.size() + " invalid tokens: " + e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Delete tokens whose device has not registered within ttl-days
+     */
+    @Scheduled(fixedDelayString = "${notification.tokens.expiry-interval-ms:3600000}")
+    public void purgeExpired() {
+        try {
+            int total = 0;
+            int deleted;
+            do {
+                deleted = deviceTokenRepository.deleteExpired(LocalDateTime.now(), expiryBatchSize);
+                total += deleted;
+            } while (deleted == expiryBatchSize);
+            if (total > 0) {
+                System.out.println("[Tokens] Removed " + total + " expired device tokens");
+            }
+        } catch (Exception e) {
+            System.err.println("[Tokens] Expired token cleanup failed: " + e.getMessage());
+        }
+    }
+
+    private static String normalizeEmail(String email) {
+        if (email == null || email.isBlank()) {
+            throw new IllegalArgumentException("userEmail is required");
+        }
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
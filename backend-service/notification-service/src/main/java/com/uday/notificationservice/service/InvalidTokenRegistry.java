@@ -0,0 +1,70 @@
+package com.uday.notificationservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Device tokens the transport reported as unregistered or malformed. The
+ * dispatcher skips them on enqueue and drops queued deliveries to them, so a
+ * dead token costs one failed send, not one per notification. Newly invalid
+ * tokens are also buffered for DeviceTokenService to delete from the registry
+ * in batches, off the dispatcher thread.
+ */
+@Component
+public class InvalidTokenRegistry {
+
+    private final Set<String> invalid;
+
+    private final ConcurrentLinkedQueue<String> pendingPrune = new ConcurrentLinkedQueue<>();
+
+    public InvalidTokenRegistry(@Value("${notification.dispatch.invalid-token-capacity:100000}") int capacity) {
+        this.invalid = Collections.newSetFromMap(Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > capacity;
+            }
+        }));
+    }
+
+    public void markInvalid(String token) {
+        if (invalid.add(token)) {
+            pendingPrune.add(token);
+        }
+    }
+
+    /**
+     * A device registered the token again, so it is valid after all
+     */
+    public void clear(String token) {
+        invalid.remove(token);
+        pendingPrune.remove(token);
+    }
+
+    /**
+     * Up to max tokens marked invalid since the last call
+     */
+    public List<String> drainPendingPrune(int max) {
+        List<String> drained = new ArrayList<>();
+        String token;
+        while (drained.size() < max && (token = pendingPrune.poll()) != null) {
+            drained.add(token);
+        }
+        return drained;
+    }
+
+    public boolean isInvalid(String token) {
+        return invalid.contains(token);
+    }
+
+    public int size() {
+        return invalid.size();
+    }
+}
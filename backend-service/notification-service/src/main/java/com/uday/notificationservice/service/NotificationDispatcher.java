@@ -0,0 +1,357 @@
+package com.uday.notificationservice.service;
+
+import com.uday.notificationservice.dto.EnqueueResult;
+import com.uday.notificationservice.dto.NotificationRequest;
+import com.uday.notificationservice.transport.NotificationTransport;
+import com.uday.notificationservice.transport.NotificationTransport.Outcome;
+import com.uday.notificationservice.transport.OutboundBatch;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queued notification delivery. Enqueueing only validates, de-duplicates and
+ * queues one delivery per device token; a single dispatcher thread drains the
+ * queue, waits up to linger-ms to fill a batch, groups deliveries with the
+ * same content and sends each group with one transport call (at most 500
+ * tokens, the FCM multicast limit).
+ *
+ * The same message to the same user (or, without a userId, the same token)
+ * within coalesce-window-ms is sent once. Transient failures are retried with
+ * exponential backoff and jitter up to max-attempts; tokens the transport
+ * reports as invalid are pruned and never retried.
+ */
+@Service
+public class NotificationDispatcher {
+
+    private static final int MULTICAST_LIMIT = 500;
+
+    @Autowired
+    private List<NotificationTransport> transports;
+
+    @Autowired
+    private InvalidTokenRegistry invalidTokens;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${notification.transport:FCM}")
+    private String transportName;
+
+    @Value("${notification.dispatch.queue-capacity:100000}")
+    private int queueCapacity;
+
+    @Value("${notification.dispatch.batch-size:500}")
+    private int batchSize;
+
+    @Value("${notification.dispatch.linger-ms:100}")
+    private long lingerMs;
+
+    @Value("${notification.dispatch.coalesce-window-ms:5000}")
+    private long coalesceWindowMs;
+
+    @Value("${notification.dispatch.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${notification.dispatch.backoff-base-ms:1000}")
+    private long backoffBaseMs;
+
+    @Value("${notification.dispatch.backoff-max-ms:60000}")
+    private long backoffMaxMs;
+
+    private record Delivery(String token, String title, String body, Map<String, String> data, int attempt) {}
+
+    private record Content(String title, String body, Map<String, String> data) {}
+
+    private NotificationTransport transport;
+    private LinkedBlockingQueue<Delivery> queue;
+    private ScheduledExecutorService retryScheduler;
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    // coalescing key -> end of its window (epoch millis)
+    private final ConcurrentHashMap<String, Long> recent = new ConcurrentHashMap<>();
+
+    private Counter accepted, coalesced, sent, retried, failed, pruned, rejected;
+    private Timer sendTimer;
+    private long startedAt;
+
+    @PostConstruct
+    public void start() {
+        transport = transports.stream()
+                .filter(t -> t.name().equalsIgnoreCase(transportName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unknown notification.transport " + transportName));
+        batchSize = Math.max(1, Math.min(batchSize, MULTICAST_LIMIT));
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+
+        accepted = counter("accepted", "Deliveries queued (one per token)");
+        coalesced = counter("coalesced", "Deliveries dropped as duplicates within the coalescing window");
+        sent = counter("sent", "Deliveries the transport accepted");
+        retried = counter("retried", "Deliveries scheduled for another attempt");
+        failed = counter("failed", "Deliveries given up after max attempts or refused by the transport");
+        pruned = counter("pruned", "Deliveries dropped because the token is invalid");
+        rejected = counter("rejected", "Deliveries refused because the queue was full");
+        sendTimer = Timer.builder("notification.dispatch.batch")
+                .description("Duration of one transport call")
+                .tag("transport", transport.name())
+                .register(meterRegistry);
+        Gauge.builder("notification.dispatch.queue.depth", this, d -> d.queue.size()).register(meterRegistry);
+
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "notification-retry");
+            t.setDaemon(true);
+            return t;
+        });
+        retryScheduler.scheduleWithFixedDelay(this::expireCoalescingKeys, coalesceWindowMs, coalesceWindowMs, TimeUnit.MILLISECONDS);
+
+        running = true;
+        startedAt = System.currentTimeMillis();
+        dispatcher = new Thread(this::run, "notification-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+        System.out.println("[Notify] Dispatcher started with " + transport.name() + " transport, batches of " + batchSize);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        dispatcher.interrupt();
+        dispatcher.join(5000);
+        retryScheduler.shutdownNow();
+        if (!queue.isEmpty()) {
+            System.err.println("[Notify] Shutting down with " + queue.size() + " undelivered notifications");
+        }
+    }
+
+    /**
+     * Queue a notification for every token of the request. Never blocks.
+     * @throws IllegalArgumentException for a request without tokens or content
+     * @throws IllegalStateException when the queue cannot take the request
+     */
+    public EnqueueResult enqueue(NotificationRequest request) {
+        if (request.getTokens() == null || request.getTokens().isEmpty()) {
+            throw new IllegalArgumentException("At least one token is required");
+        }
+        if (isBlank(request.getTitle()) && isBlank(request.getBody())) {
+            throw new IllegalArgumentException("title or body is required");
+        }
+
+        LinkedHashSet<String> tokens = new LinkedHashSet<>();
+        for (String token : request.getTokens()) {
+            if (!isBlank(token)) {
+                tokens.add(token.trim());
+            }
+        }
+        if (queue.remainingCapacity() < tokens.size()) {
+            rejected.increment(tokens.size());
+            throw new IllegalStateException("Notification queue is full, retry later");
+        }
+
+        String content = request.getTitle() + "\u0000" + request.getBody() + "\u0000" + request.getData();
+        if (request.getUserId() != null && !claim("u:" + request.getUserId() + "\u0000" + content)) {
+            coalesced.increment(tokens.size());
+            return result(0, tokens.size(), 0);
+        }
+
+        int queued = 0, dropped = 0, skipped = 0;
+        for (String token : tokens) {
+            if (invalidTokens.isInvalid(token)) {
+                skipped++;
+                continue;
+            }
+            if (request.getUserId() == null && !claim("t:" + token + "\u0000" + content)) {
+                dropped++;
+                continue;
+            }
+            if (!queue.offer(new Delivery(token, request.getTitle(), request.getBody(), request.getData(), 0))) {
+                rejected.increment();
+                continue;
+            }
+            queued++;
+        }
+        accepted.increment(queued);
+        coalesced.increment(dropped);
+        return result(queued, dropped, skipped);
+    }
+
+    /**
+     * Counters since startup plus the current queue depth
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("transport", transport.name());
+        stats.put("queueDepth", queue.size());
+        stats.put("accepted", (long) accepted.count());
+        stats.put("coalesced", (long) coalesced.count());
+        stats.put("sent", (long) sent.count());
+        stats.put("retried", (long) retried.count());
+        stats.put("failed", (long) failed.count());
+        stats.put("pruned", (long) pruned.count());
+        stats.put("rejected", (long) rejected.count());
+        stats.put("batches", sendTimer.count());
+        stats.put("meanBatchMs", Math.round(sendTimer.mean(TimeUnit.MILLISECONDS)));
+        long seconds = Math.max(1, (System.currentTimeMillis() - startedAt) / 1000);
+        stats.put("sentPerSecond", Math.round(sent.count() / seconds * 100) / 100.0);
+        return stats;
+    }
+
+    // ========== DISPATCHER THREAD ==========
+
+    private void run() {
+        List<Delivery> pending = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Delivery first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                pending.add(first);
+
+                // linger briefly so a burst goes out in full batches
+                long deadline = System.currentTimeMillis() + lingerMs;
+                while (pending.size() < batchSize) {
+                    queue.drainTo(pending, batchSize - pending.size());
+                    long wait = deadline - System.currentTimeMillis();
+                    if (pending.size() >= batchSize || wait <= 0) {
+                        break;
+                    }
+                    Delivery next = queue.poll(wait, TimeUnit.MILLISECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    pending.add(next);
+                }
+
+                dispatch(pending);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.err.println("[Notify] Dispatch loop error: " + e.getMessage());
+            } finally {
+                pending.clear();
+            }
+        }
+    }
+
+    private void dispatch(List<Delivery> deliveries) {
+        Map<Content, List<Delivery>> byContent = new LinkedHashMap<>();
+        for (Delivery d : deliveries) {
+            if (invalidTokens.isInvalid(d.token())) {
+                pruned.increment();
+                continue;
+            }
+            byContent.computeIfAbsent(new Content(d.title(), d.body(), d.data()), k -> new ArrayList<>()).add(d);
+        }
+
+        byContent.forEach((content, group) -> {
+            List<String> tokens = group.stream().map(Delivery::token).toList();
+            OutboundBatch batch = new OutboundBatch(content.title(), content.body(), content.data(), tokens);
+
+            List<Outcome> outcomes;
+            long start = System.nanoTime();
+            try {
+                outcomes = transport.send(batch);
+            } catch (Exception e) {
+                System.err.println("[Notify] " + transport.name() + " batch of " + tokens.size() + " failed: " + e.getMessage());
+                group.forEach(this::retry);
+                return;
+            } finally {
+                sendTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+
+            for (int i = 0; i < group.size(); i++) {
+                Outcome outcome = i < outcomes.size() ? outcomes.get(i) : Outcome.RETRY;
+                Delivery d = group.get(i);
+                switch (outcome) {
+                    case SENT -> sent.increment();
+                    case INVALID_TOKEN -> {
+                        invalidTokens.markInvalid(d.token());
+                        pruned.increment();
+                    }
+                    case REJECTED -> failed.increment();
+                    case RETRY -> retry(d);
+                }
+            }
+        });
+    }
+
+    private void retry(Delivery d) {
+        int attempt = d.attempt() + 1;
+        if (attempt >= maxAttempts) {
+            failed.increment();
+            System.err.println("[Notify] Giving up on token " + abbreviate(d.token()) + " after " + attempt + " attempts");
+            return;
+        }
+        // exponential backoff with jitter, so a gateway hiccup does not come back as one burst
+        long ceiling = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempt - 1, 20));
+        long delay = ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+        retried.increment();
+        retryScheduler.schedule(() -> {
+            if (!queue.offer(new Delivery(d.token(), d.title(), d.body(), d.data(), attempt))) {
+                rejected.increment();
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    // ========== HELPERS ==========
+
+    // true if the key was not seen within the coalescing window
+    private boolean claim(String key) {
+        long now = System.currentTimeMillis();
+        boolean[] fresh = {false};
+        recent.compute(key, (k, until) -> {
+            if (until == null || until <= now) {
+                fresh[0] = true;
+                return now + coalesceWindowMs;
+            }
+            return until;
+        });
+        return fresh[0];
+    }
+
+    private void expireCoalescingKeys() {
+        long now = System.currentTimeMillis();
+        recent.values().removeIf(until -> until <= now);
+    }
+
+    private Counter counter(String name, String description) {
+        return Counter.builder("notification.dispatch." + name).description(description).register(meterRegistry);
+    }
+
+    private EnqueueResult result(int queued, int coalescedCount, int skipped) {
+        return EnqueueResult.builder()
+                .queued(queued)
+                .coalesced(coalescedCount)
+                .skipped(skipped)
+                .queueDepth(queue.size())
+                .build();
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+
+    private static String abbreviate(String token) {
+        return token.length() <= 12 ? token : token.substring(0, 12) + "...";
+    }
+}
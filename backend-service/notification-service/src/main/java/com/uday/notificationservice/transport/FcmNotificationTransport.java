@@ -0,0 +1,71 @@
+package com.uday.notificationservice.transport;
+
+import com.google.firebase.messaging.BatchResponse;
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.google.firebase.messaging.MessagingErrorCode;
+import com.google.firebase.messaging.MulticastMessage;
+import com.google.firebase.messaging.Notification;
+import com.google.firebase.messaging.SendResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Firebase Cloud Messaging through the multicast API: one HTTP call per
+ * batch of up to 500 tokens instead of one per device.
+ */
+@Component
+public class FcmNotificationTransport implements NotificationTransport {
+
+    @Override
+    public String name() {
+        return "FCM";
+    }
+
+    @Override
+    public List<Outcome> send(OutboundBatch batch) throws FirebaseMessagingException {
+        MulticastMessage.Builder message = MulticastMessage.builder()
+                .setNotification(Notification.builder()
+                        .setTitle(batch.title())
+                        .setBody(batch.body())
+                        .build())
+                .addAllTokens(batch.tokens());
+        if (batch.data() != null) {
+            message.putAllData(batch.data());
+        }
+
+        BatchResponse response = FirebaseMessaging.getInstance().sendEachForMulticast(message.build());
+
+        List<Outcome> outcomes = new ArrayList<>(batch.tokens().size());
+        String rejectedReason = null;
+        int rejected = 0;
+        for (SendResponse r : response.getResponses()) {
+            Outcome outcome = r.isSuccessful() ? Outcome.SENT : classify(r.getException());
+            if (outcome == Outcome.REJECTED) {
+                rejected++;
+                rejectedReason = r.getException().getMessage();
+            }
+            outcomes.add(outcome);
+        }
+        if (rejected > 0) {
+            // one line per batch: a bad payload fails every token the same way
+            System.err.println("[Notify] FCM refused \"" + batch.title() + "\" for " + rejected + " tokens: " + rejectedReason);
+        }
+        return outcomes;
+    }
+
+    private Outcome classify(FirebaseMessagingException e) {
+        MessagingErrorCode code = e == null ? null : e.getMessagingErrorCode();
+        if (code == MessagingErrorCode.UNREGISTERED || code == MessagingErrorCode.SENDER_ID_MISMATCH) {
+            return Outcome.INVALID_TOKEN;
+        }
+        if (code == MessagingErrorCode.INVALID_ARGUMENT) {
+            // also raised for oversized or malformed payloads, so the token is not to blame
+            return Outcome.REJECTED;
+        }
+        // UNAVAILABLE, INTERNAL, QUOTA_EXCEEDED and unknown errors are worth another try
+        return Outcome.RETRY;
+    }
+}
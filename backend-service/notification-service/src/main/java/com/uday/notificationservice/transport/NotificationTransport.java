@@ -0,0 +1,28 @@
+package com.uday.notificationservice.transport;
+
+import java.util.List;
+
+/**
+ * Delivers batches of notifications. Called from the dispatcher thread only.
+ */
+public interface NotificationTransport {
+
+    enum Outcome {
+        SENT,
+        RETRY,          // transient failure, try again later
+        INVALID_TOKEN,  // token is unregistered or belongs to another sender, never retry it
+        REJECTED        // the message itself was refused (bad payload); token kept, not retried
+    }
+
+    /**
+     * Name selected by notification.transport (FCM, STUB)
+     */
+    String name();
+
+    /**
+     * Send one batch.
+     * @return one outcome per token, in the batch's token order
+     * @throws Exception when the whole call failed; every token is retried
+     */
+    List<Outcome> send(OutboundBatch batch) throws Exception;
+}
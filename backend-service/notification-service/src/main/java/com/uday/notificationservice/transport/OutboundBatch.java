@@ -0,0 +1,9 @@
+package com.uday.notificationservice.transport;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One message for up to 500 device tokens, the unit a transport sends in a single call
+ */
+public record OutboundBatch(String title, String body, Map<String, String> data, List<String> tokens) {}
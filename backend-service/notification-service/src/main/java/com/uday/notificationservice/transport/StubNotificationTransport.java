@@ -0,0 +1,47 @@
+package com.uday.notificationservice.transport;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for FCM, for running the dispatcher without Firebase
+ * credentials. Each batch takes batch-latency-ms; tokens starting with
+ * "invalid" are reported as unregistered and a share of the rest
+ * (failure-rate) as transient failures. Nothing is delivered.
+ */
+@Component
+public class StubNotificationTransport implements NotificationTransport {
+
+    @Value("${notification.transport.stub.batch-latency-ms:50}")
+    private long batchLatencyMs;
+
+    @Value("${notification.transport.stub.failure-rate:0.0}")
+    private double failureRate;
+
+    @Override
+    public String name() {
+        return "STUB";
+    }
+
+    @Override
+    public List<Outcome> send(OutboundBatch batch) throws InterruptedException {
+        Thread.sleep(batchLatencyMs);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Outcome> outcomes = new ArrayList<>(batch.tokens().size());
+        for (String token : batch.tokens()) {
+            if (token.startsWith("invalid")) {
+                outcomes.add(Outcome.INVALID_TOKEN);
+            } else if (failureRate > 0 && random.nextDouble() < failureRate) {
+                outcomes.add(Outcome.RETRY);
+            } else {
+                outcomes.add(Outcome.SENT);
+            }
+        }
+        System.out.println("[Notify] Stub sent \"" + batch.title() + "\" to " + batch.tokens().size() + " tokens");
+        return outcomes;
+    }
+}
@@ -0,0 +1,121 @@
+package com.uday.parkinglotservice;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uday.parkinglotservice.DTO.BlockedSpotSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Local copy of the reservation-blocked spot sets published by ticketing-service,
+ * consulted by the allocator so reserved spots are never handed out.
+ *
+ * Updates arrive over Redis pub/sub; the snapshot key is also re-read
+ * periodically in case a message was missed. Older versions are ignored, and a
+ * snapshot that has not been refreshed for max-age is dropped so a stopped
+ * publisher cannot block spots forever.
+ */
+@Component
+public class BlockedSpotRegistry {
+
+    public static final String SNAPSHOT_KEY = "parking:blocked-spots";
+    public static final String CHANNEL = "parking:blocked-spots";
+
+    @Autowired
+    private StringRedisTemplate redis;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${parking.blocked-spots.max-age-seconds:300}")
+    private long maxAgeSeconds;
+
+    private volatile long version = -1;
+    private volatile long generatedAt;
+    private volatile Map<Long, BitSet> blocked = Map.of();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        listenerContainer.addMessageListener(
+                (message, pattern) -> apply(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(CHANNEL));
+        reload();
+    }
+
+    @Scheduled(fixedDelayString = "${parking.blocked-spots.reload-interval-ms:60000}")
+    public void reload() {
+        try {
+            String json = redis.opsForValue().get(SNAPSHOT_KEY);
+            if (json != null) {
+                apply(json);
+            }
+        } catch (Exception e) {
+            System.err.println("[BlockedSpots] Failed to load snapshot: " + e.getMessage());
+        }
+    }
+
+    private void apply(String json) {
+        try {
+            BlockedSpotSnapshot snapshot = objectMapper.readValue(json, BlockedSpotSnapshot.class);
+            synchronized (this) {
+                if (snapshot.getVersion() < version) {
+                    return; // out-of-order delivery
+                }
+                Map<Long, BitSet> next = new HashMap<>();
+                if (snapshot.getLevels() != null) {
+                    snapshot.getLevels().forEach((levelId, encoded) ->
+                            next.put(levelId, BitSet.valueOf(Base64.getDecoder().decode(encoded))));
+                }
+                blocked = next;
+                version = snapshot.getVersion();
+                generatedAt = snapshot.getGeneratedAt();
+            }
+        } catch (Exception e) {
+            System.err.println("[BlockedSpots] Ignoring malformed snapshot: " + e.getMessage());
+        }
+    }
+
+    public boolean isBlocked(Long levelId, Long spotId) {
+        if (levelId == null || spotId == null || spotId > Integer.MAX_VALUE) {
+            return false;
+        }
+        BitSet set = currentSet(levelId);
+        return set != null && set.get(spotId.intValue());
+    }
+
+    /**
+     * Blocked spot ids of a level, for NOT IN filters; never empty (holds -1
+     * when nothing is blocked) so it can be bound as a query parameter
+     */
+    public List<Long> blockedSpotIds(Long levelId) {
+        BitSet set = levelId == null ? null : currentSet(levelId);
+        if (set == null || set.isEmpty()) {
+            return List.of(-1L);
+        }
+        return set.stream().mapToObj(Long::valueOf).collect(Collectors.toList());
+    }
+
+    private BitSet currentSet(Long levelId) {
+        if (System.currentTimeMillis() - generatedAt > maxAgeSeconds * 1000) {
+            return null;
+        }
+        return blocked.get(levelId);
+    }
+}
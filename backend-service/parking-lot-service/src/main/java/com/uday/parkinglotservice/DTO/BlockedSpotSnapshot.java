@@ -0,0 +1,22 @@
+package com.uday.parkinglotservice.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Spots held back for reservations, published by ticketing-service.
+ * Each level maps to a base64 BitSet (java.util.BitSet#toByteArray) indexed by spot id.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BlockedSpotSnapshot {
+    private long version;
+    private long generatedAt;   // epoch millis
+    private Map<Long, String> levels;
+}
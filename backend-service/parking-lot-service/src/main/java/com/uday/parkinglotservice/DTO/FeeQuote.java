@@ -0,0 +1,26 @@
+package com.uday.parkinglotservice.DTO;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fee quote from ticketing-service (GET /ticketing/fees/quote), the single source of tariffs
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FeeQuote {
+
+    private Long ticketId;
+    private LocalDateTime entryTime;
+    private LocalDateTime validUntil;
+    private double amount;
+    private boolean closed;
+}
@@ -17,6 +17,7 @@ public class ParkingStatsResponse {
     private long availableSpots;
     private long occupiedSpots;
     private long disabledSpots;
+    private long heldSpots;
     private double occupancyPercentage;
     private List<LevelStats> levelStats;
 
@@ -32,6 +33,7 @@ public class ParkingStatsResponse {
         private long availableSpots;
         private long occupiedSpots;
         private long disabledSpots;
+        private long heldSpots;
         private double occupancyPercentage;
     }
 }
@@ -1,15 +0,0 @@
-package com.uday.parkinglotservice.DTO;
-
-import lombok.AllArgsConstructor;
-import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
-
-@Getter
-@Setter
-@AllArgsConstructor
-@NoArgsConstructor
-public class PaymentRequest {
-    private Long ticketId;
-    private double amount;
-}
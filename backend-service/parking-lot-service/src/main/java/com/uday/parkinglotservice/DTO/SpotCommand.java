@@ -0,0 +1,17 @@
+package com.uday.parkinglotservice.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SpotCommand {
+    private String commandId;
+    private String type;      // OCCUPY, RELEASE, CONFIRM_HOLD, RELEASE_HOLD
+    private Long spotId;
+    private Long reservationId;   // hold commands only
+}
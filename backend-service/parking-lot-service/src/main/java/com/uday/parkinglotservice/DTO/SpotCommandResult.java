@@ -0,0 +1,22 @@
+package com.uday.parkinglotservice.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SpotCommandResult {
+    private String commandId;
+    private Outcome outcome;
+    private String message;
+
+    public enum Outcome {
+        APPLIED,
+        DUPLICATE,
+        REJECTED
+    }
+}
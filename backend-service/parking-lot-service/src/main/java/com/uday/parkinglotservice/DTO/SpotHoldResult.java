@@ -0,0 +1,16 @@
+package com.uday.parkinglotservice.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SpotHoldResult {
+    private Long reservationId;
+    private boolean held;
+    private String message;
+}
@@ -1,17 +0,0 @@
-package com.uday.parkinglotservice.DTO;
-
-import lombok.AllArgsConstructor;
-import lombok.Getter;
-import lombok.NoArgsConstructor;
-import lombok.Setter;
-
-@Getter
-@Setter
-@AllArgsConstructor
-@NoArgsConstructor
-public class VehicleResponse {
-    private Long id;
-    private String licensePlate;
-    private String type;
-    private boolean isDisabled;
-}
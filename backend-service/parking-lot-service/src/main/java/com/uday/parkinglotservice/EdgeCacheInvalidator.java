@@ -0,0 +1,73 @@
+package com.uday.parkinglotservice;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tells the API gateway to drop its cached copies of /api/parking/levels and
+ * /api/parking/stats. Writers call parkingChanged() wherever they evict the
+ * parking caches and wherever spot occupancy changes; the flag is raised
+ * after the transaction commits and a short-delay job coalesces a burst of
+ * changes into one message. The job first evicts this service's own parking
+ * entries, otherwise the gateway would just re-cache their stale copies. Each
+ * of those caches holds a single known key, so this is a DEL per cache rather
+ * than a pattern clear on the shared Redis.
+ */
+@Component
+public class EdgeCacheInvalidator {
+
+    public static final String CHANNEL = "gateway:cache-invalidate";
+    public static final String TAG = "parking";
+
+    // cache -> key, as in the @Cacheable methods of ParkingLotService
+    private static final Map<String, String> LOCAL_ENTRIES =
+            Map.of("parkingLevels", "all", "parkingLevelsDetails", "details", "parkingStats", "system");
+
+    @Autowired
+    private StringRedisTemplate redis;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    public void parkingChanged() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dirty.set(true);
+                }
+            });
+        } else {
+            dirty.set(true);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${parking.edge-cache.publish-delay-ms:200}")
+    public void publishIfDirty() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        try {
+            for (Map.Entry<String, String> entry : LOCAL_ENTRIES.entrySet()) {
+                Cache cache = cacheManager.getCache(entry.getKey());
+                if (cache != null) {
+                    cache.evict(entry.getValue());
+                }
+            }
+            redis.convertAndSend(CHANNEL, TAG);
+        } catch (Exception e) {
+            System.err.println("[EdgeCache] Failed to publish invalidation: " + e.getMessage());
+        }
+    }
+}
@@ -4,6 +4,8 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.LocalDateTime;
+
 @Getter
 @Setter
 @Entity
@@ -24,7 +26,7 @@ public class ParkingSpot {
     @Column(nullable = false)
     private String spotType;  // CAR, BIKE, EV, HANDICAPPED
 
-    // Spot status: AVAILABLE, OCCUPIED, DISABLED
+    // Spot status: AVAILABLE, OCCUPIED, HELD, DISABLED
     @Column(nullable = false)
     @Enumerated(EnumType.STRING)
     private SpotStatus status = SpotStatus.AVAILABLE;
@@ -33,6 +35,10 @@ public class ParkingSpot {
     private boolean isDisabled;
     private boolean isOccupied;
 
+    // set while HELD: the reservation the spot is kept for, and when the hold lapses
+    private Long heldForReservationId;
+    private LocalDateTime heldUntil;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "level_id", nullable = false)
     @JsonBackReference
@@ -41,6 +47,7 @@ public class ParkingSpot {
     public enum SpotStatus {
         AVAILABLE,
         OCCUPIED,
+        HELD,       // claimed ahead of a reservation's check-in
         DISABLED
     }
 
@@ -55,6 +62,7 @@ public class ParkingSpot {
         }
         this.status = SpotStatus.OCCUPIED;
         this.isOccupied = true;
+        clearHold();
     }
 
     public void release() {
@@ -63,6 +71,31 @@ public class ParkingSpot {
         }
         this.status = SpotStatus.AVAILABLE;
         this.isOccupied = false;
+        clearHold();
+    }
+
+    /**
+     * Keep an available spot for a reservation. Legacy isOccupied is set so
+     * boolean-based queries also treat the spot as taken.
+     */
+    public void hold(Long reservationId, LocalDateTime until) {
+        if (status != SpotStatus.AVAILABLE
+                && !(status == SpotStatus.HELD && reservationId.equals(heldForReservationId))) {
+            throw new IllegalStateException("Spot is not available to hold (" + status + ")");
+        }
+        this.status = SpotStatus.HELD;
+        this.isOccupied = true;
+        this.heldForReservationId = reservationId;
+        this.heldUntil = until;
+    }
+
+    public boolean isHeldFor(Long reservationId) {
+        return status == SpotStatus.HELD && reservationId != null && reservationId.equals(heldForReservationId);
+    }
+
+    private void clearHold() {
+        this.heldForReservationId = null;
+        this.heldUntil = null;
     }
 
     public void disable() {
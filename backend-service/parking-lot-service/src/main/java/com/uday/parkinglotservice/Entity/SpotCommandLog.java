@@ -0,0 +1,36 @@
+package com.uday.parkinglotservice.Entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ids of spot commands already applied, so redelivered commands from the
+ * ticketing outbox are acknowledged without being applied twice. Rows are
+ * pruned after parking.commands.log-retention-days, well past any redelivery.
+ */
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "spot_command_log",
+    indexes = @Index(name = "idx_spot_command_log_processed_at", columnList = "processedAt"))
+public class SpotCommandLog {
+
+    @Id
+    @Column(length = 100)
+    private String commandId;
+
+    @Column(nullable = false, length = 20)
+    private String type;
+
+    private Long spotId;
+
+    @Column(nullable = false, length = 20)
+    private String outcome;
+
+    @Column(nullable = false)
+    private LocalDateTime processedAt;
+}
@@ -13,15 +13,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.reactive.function.client.WebClient;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 import javax.annotation.PostConstruct;
-import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -31,6 +31,15 @@ public class ParkingLotService {
     @Autowired
     private WebClient loadBalancedWebClient;
 
+    @Autowired
+    private BlockedSpotRegistry blockedSpots;
+
+    @Autowired
+    private VehicleRegistrar vehicleRegistrar;
+
+    @Autowired
+    private EdgeCacheInvalidator edgeCache;
+
     private final ParkingLevelRepository levelRepo;
     private final ParkingSpotRepository spotRepo;
 
@@ -101,12 +110,13 @@ public class ParkingLotService {
      */
     @Transactional(rollbackFor = Exception.class)
     @Caching(evict = {
-        @CacheEvict(value = "parkingLevels", allEntries = true),
-        @CacheEvict(value = "parkingLevelsDetails", allEntries = true),
-        @CacheEvict(value = "parkingStats", allEntries = true)
+        @CacheEvict(value = "parkingLevels", key = "'all'"),
+        @CacheEvict(value = "parkingLevelsDetails", key = "'details'"),
+        @CacheEvict(value = "parkingStats", key = "'system'")
     })
     public LevelResponse createLevelWithSpots(LevelRequest request) {
         System.out.println("Creating level (caches will be evicted)");
+        edgeCache.parkingChanged();
         // 1. Validate request
         validateLevelRequest(request);
 
@@ -310,11 +320,12 @@ public class ParkingLotService {
      */
     @Transactional(rollbackFor = Exception.class)
     @Caching(evict = {
-        @CacheEvict(value = "parkingLevelsDetails", allEntries = true),
-        @CacheEvict(value = "parkingStats", allEntries = true)
+        @CacheEvict(value = "parkingLevelsDetails", key = "'details'"),
+        @CacheEvict(value = "parkingStats", key = "'system'")
     })
     public SpotResponse addSpotToLevel(Long levelId, SpotRequest spotRequest) {
         System.out.println("Adding spot to level (caches will be evicted)");
+        edgeCache.parkingChanged();
         ParkingLevel level = levelRepo.findById(levelId)
                 .orElseThrow(() -> new InvalidRequestException("Level not found with id: " + levelId));
 
@@ -347,7 +358,9 @@ public class ParkingLotService {
     }
 
     public List<ParkingSpot> getAvailableSpots(Long levelId, boolean isDisabled) {
-        return spotRepo.findByLevelIdAndIsOccupiedFalseAndIsDisabled(levelId, isDisabled);
+        return spotRepo.findByLevelIdAndIsOccupiedFalseAndIsDisabled(levelId, isDisabled).stream()
+                .filter(spot -> !blockedSpots.isBlocked(levelId, spot.getId()))
+                .collect(Collectors.toList());
     }
 
     /**
@@ -368,17 +381,19 @@ public class ParkingLotService {
 
     @Transactional
     public ParkingSpot allocateSpot(Long levelId, boolean isDisabled) {
-        List<ParkingSpot> spots = spotRepo.findAvailableSpotsForUpdate(levelId, isDisabled);
-        System.out.println(spots);
-        if (spots.isEmpty()) {
-            System.out.println("Parking Spots : " + spots);
+        // skip spots held for upcoming or running reservations (pushed by ticketing-service);
+        // excluded in the query so only the spot handed out is locked
+        List<ParkingSpot> spots = spotRepo.findAvailableSpotsForUpdate(
+                levelId, isDisabled, blockedSpots.blockedSpotIds(levelId), PageRequest.of(0, 1));
+        ParkingSpot spot = spots.isEmpty() ? null : spots.get(0);
+        if (spot == null) {
             throw new IllegalStateException("No parking spots are available");
         }
 
-        ParkingSpot spot = spots.get(0);
         spot.setOccupied(true);
-
-        return spotRepo.save(spot);
+        ParkingSpot saved = spotRepo.save(spot);
+        edgeCache.parkingChanged();
+        return saved;
     }
 
     @Transactional
@@ -391,6 +406,7 @@ public class ParkingLotService {
 
         spot.setOccupied(false);
         spotRepo.save(spot);
+        edgeCache.parkingChanged();
     }
 
     /**
@@ -408,6 +424,10 @@ public class ParkingLotService {
             throw new InvalidRequestException("Spot not found with id: " + spotId);
         }
 
+        if (spot.getStatus() == ParkingSpot.SpotStatus.HELD) {
+            throw new IllegalStateException("Spot is held for a reservation");
+        }
+
         if (spot.getStatus() == ParkingSpot.SpotStatus.OCCUPIED || spot.isOccupied()) {
             throw new IllegalStateException("Spot is already occupied");
         }
@@ -420,6 +440,7 @@ public class ParkingLotService {
         // Use the entity's occupy() method which properly sets both status and isOccupied
         spot.occupy();
         ParkingSpot saved = spotRepo.save(spot);
+        edgeCache.parkingChanged();
 
         return SpotResponse.builder()
                 .id(saved.getId())
@@ -440,7 +461,8 @@ public class ParkingLotService {
     ) {
         System.out.println("Trying to acquire DB lock");
         ParkingSpot spot = allocateSpot(levelId, isDisabled);
-        VehicleResponse vehicle = registerOrFetchVehicle(vehicleNumber, isDisabled);
+        // queued for background registration; repeat vehicles are skipped locally
+        vehicleRegistrar.register(vehicleNumber, isDisabled);
         System.out.println("Parking spot reserved");
         return createTicket(spot.getId(), vehicleNumber);
     }
@@ -450,38 +472,6 @@ public class ParkingLotService {
         System.out.println("Injected WebClient class = " + loadBalancedWebClient.getClass());
     }
 
-    //Vehicle Service
-    @CircuitBreaker(name = "vehicleService", fallbackMethod = "vehicleFallback")
-    @Retry(name = "vehicleService")
-    public VehicleResponse registerOrFetchVehicle(
-            String vehicleNumber,
-            boolean isDisabled
-    ) {
-        System.out.println("Calling Vehicle service");
-        VehicleRequest request = new VehicleRequest();
-        request.setLicensePlate(vehicleNumber);
-        request.setDisabled(isDisabled);
-        request.setType("CAR"); // or derive later
-
-        return loadBalancedWebClient.post()
-                .uri("http://VEHICLE-SERVICE:8081/vehicle/save")
-                .bodyValue(request)
-                .retrieve()
-                .bodyToMono(VehicleResponse.class)
-                .block();
-    }
-
-    //Vehicle service fallback
-    public VehicleResponse vehicleFallback(
-            String vehicleNumber,
-            boolean isDisabled,
-            Throwable ex
-    ) {
-        throw new IllegalStateException(
-                "Vehicle service unavailable. Cannot register vehicle.", ex
-        );
-    }
-
     //Calling Ticketing service
     @CircuitBreaker(name = "ticketingService", fallbackMethod = "ticketFallback")
     @Retry(name = "ticketingService")
@@ -509,83 +499,43 @@ public class ParkingLotService {
         );
     }
 
-    //Calculate amount
-    private double calculateFee(LocalDateTime entryTime) {
-        long hours = ChronoUnit.HOURS.between(entryTime, LocalDateTime.now());
-        return Math.max(600, hours * 50); // minimum ₹50
-    }
-
     // Vehicle Exit
     @Transactional
     public void exitVehicle(Long ticketId) {
         try {
             System.out.println("Exit service being called here");
 
-            // 1. Fetch ticket details from ticketing-service
-            TicketDetails ticket = loadBalancedWebClient.get()
-                    .uri("http://TICKETING-SERVICE:8082/ticketing/{id}", ticketId)
+            // 1. Validate ticket state (ticketing-service owns tickets and the tariff)
+            FeeQuote quote = loadBalancedWebClient.get()
+                    .uri("http://TICKETING-SERVICE:8082/ticketing/fees/quote?ticketId={id}", ticketId)
                     .retrieve()
-                    .bodyToMono(TicketDetails.class)
+                    .bodyToMono(FeeQuote.class)
                     .block();
 
-            if (ticket == null) {
+            if (quote == null) {
                 throw new IllegalStateException("Ticket not found");
             }
-
-            // 2. Validate ticket state
-            if (ticket.getExitTime() != null) {
+            if (quote.isClosed()) {
                 throw new IllegalStateException("Ticket already closed");
             }
 
-            // 2. Calculate fee (mock for now)
-            double amount = calculateFee(ticket.getEntryTime());
-
-            // 3. Process payment (MUST succeed)
-            processPayment(ticketId, amount);
-
-            // 3. Close ticket
+            // 2. Close ticket - ticketing-service prices the stay at the exit time, charges
+            //    exactly the fee it records and queues the spot release in its outbox;
+            //    the spot only frees when that RELEASE command is applied, which is
+            //    where SpotCommandService invalidates the edge cache
             loadBalancedWebClient.put()
                     .uri("http://TICKETING-SERVICE:8082/ticketing/exit/{ticketId}", ticketId)
                     .retrieve()
                     .bodyToMono(Void.class)
                     .block();
-
-            // 4. Release parking spot using spotId from ticket
-            releaseSpot(ticket.getSpotId());
+        } catch (WebClientResponseException ex) {
+            throw new IllegalStateException("Exit failed: " + ex.getResponseBodyAsString(), ex);
         } catch (WebClientRequestException ex) {
             System.out.println("WebClientRequestException → " + ex.getMessage());
             throw ex;
         }
     }
 
-    @CircuitBreaker(name = "paymentService", fallbackMethod = "paymentFallback")
-    @Retry(name = "paymentService")
-    public void processPayment(Long ticketId, double amount) {
-        System.out.println("Calling Payment service");
-
-        PaymentRequest request = new PaymentRequest();
-        request.setTicketId(ticketId);
-        request.setAmount(amount);
-
-        PaymentResponse response = loadBalancedWebClient.post()
-                .uri("http://PAYMENT-SERVICE:8083/payments/create")
-                .bodyValue(request)
-                .retrieve()
-                .bodyToMono(PaymentResponse.class)
-                .block();
-
-        if (response == null || !"SUCCESS".equals(response.getStatus())) {
-            System.out.println("this is the response : " + response);
-            throw new IllegalStateException("Payment failed");
-        }
-    }
-
-    public void paymentFallback(Long ticketId, double amount, Throwable ex) {
-        throw new IllegalStateException(
-                "Payment service unavailable. Exit denied.", ex
-        );
-    }
-
     // ========== ADMIN SPOT MANAGEMENT ==========
 
     /**
@@ -594,11 +544,12 @@ public class ParkingLotService {
      */
     @Transactional
     @Caching(evict = {
-        @CacheEvict(value = "parkingLevelsDetails", allEntries = true),
-        @CacheEvict(value = "parkingStats", allEntries = true)
+        @CacheEvict(value = "parkingLevelsDetails", key = "'details'"),
+        @CacheEvict(value = "parkingStats", key = "'system'")
     })
     public SpotResponse enableSpot(Long spotId) {
         System.out.println("Enabling spot (caches will be evicted)");
+        edgeCache.parkingChanged();
         ParkingSpot spot = spotRepo.findById(spotId)
                 .orElseThrow(() -> new InvalidRequestException("Spot not found with id: " + spotId));
 
@@ -621,11 +572,12 @@ public class ParkingLotService {
      */
     @Transactional
     @Caching(evict = {
-        @CacheEvict(value = "parkingLevelsDetails", allEntries = true),
-        @CacheEvict(value = "parkingStats", allEntries = true)
+        @CacheEvict(value = "parkingLevelsDetails", key = "'details'"),
+        @CacheEvict(value = "parkingStats", key = "'system'")
     })
     public SpotResponse disableSpot(Long spotId) {
         System.out.println("Disabling spot (caches will be evicted)");
+        edgeCache.parkingChanged();
         ParkingSpot spot = spotRepo.findById(spotId)
                 .orElseThrow(() -> new InvalidRequestException("Spot not found with id: " + spotId));
 
@@ -660,6 +612,7 @@ public class ParkingLotService {
         long availableSpots = spotRepo.countAvailableSpots();
         long occupiedSpots = spotRepo.countOccupiedSpots();
         long disabledSpots = spotRepo.countDisabledSpots();
+        long heldSpots = spotRepo.countHeldSpots();
 
         double occupancyPercentage = totalSpots > 0
                 ? ((double) occupiedSpots / (totalSpots - disabledSpots)) * 100
@@ -672,6 +625,7 @@ public class ParkingLotService {
                     long levelAvailable = spotRepo.countByLevelIdAndStatus(level.getId(), ParkingSpot.SpotStatus.AVAILABLE);
                     long levelOccupied = spotRepo.countByLevelIdAndStatus(level.getId(), ParkingSpot.SpotStatus.OCCUPIED);
                     long levelDisabled = spotRepo.countByLevelIdAndStatus(level.getId(), ParkingSpot.SpotStatus.DISABLED);
+                    long levelHeld = spotRepo.countByLevelIdAndStatus(level.getId(), ParkingSpot.SpotStatus.HELD);
 
                     double levelOccupancy = (levelTotal - levelDisabled) > 0
                             ? ((double) levelOccupied / (levelTotal - levelDisabled)) * 100
@@ -685,6 +639,7 @@ public class ParkingLotService {
                             .availableSpots(levelAvailable)
                             .occupiedSpots(levelOccupied)
                             .disabledSpots(levelDisabled)
+                            .heldSpots(levelHeld)
                             .occupancyPercentage(Math.round(levelOccupancy * 100.0) / 100.0)
                             .build();
                 })
@@ -696,6 +651,7 @@ public class ParkingLotService {
                 .availableSpots(availableSpots)
                 .occupiedSpots(occupiedSpots)
                 .disabledSpots(disabledSpots)
+                .heldSpots(heldSpots)
                 .occupancyPercentage(Math.round(occupancyPercentage * 100.0) / 100.0)
                 .levelStats(levelStats)
                 .build();
@@ -3,11 +3,14 @@ package com.uday.parkinglotservice.Repository;
 import com.uday.parkinglotservice.Entity.ParkingSpot;
 import com.uday.parkinglotservice.Entity.ParkingSpot.SpotStatus;
 import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ParkingSpotRepository extends JpaRepository<ParkingSpot, Long> {
@@ -57,6 +60,9 @@ public interface ParkingSpotRepository extends JpaRepository<ParkingSpot, Long>
     @Query("SELECT COUNT(s) FROM ParkingSpot s WHERE s.status = 'DISABLED'")
     long countDisabledSpots();
 
+    @Query("SELECT COUNT(s) FROM ParkingSpot s WHERE s.status = 'HELD'")
+    long countHeldSpots();
+
     // ========== LOCKING QUERIES ==========
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
@@ -64,10 +70,15 @@ public interface ParkingSpotRepository extends JpaRepository<ParkingSpot, Long>
    SELECT s FROM ParkingSpot s
    WHERE s.level.id = :levelId
      AND s.isOccupied = false
-     AND s.isDisabled = :isDisabled""")
+     AND s.isDisabled = :isDisabled
+     AND s.status = 'AVAILABLE'
+     AND s.id NOT IN :excludedIds
+   ORDER BY s.id""")
     List<ParkingSpot> findAvailableSpotsForUpdate(
             @Param("levelId") Long levelId,
-            @Param("isDisabled") boolean isDisabled
+            @Param("isDisabled") boolean isDisabled,
+            @Param("excludedIds") Collection<Long> excludedIds,
+            Pageable pageable
     );
 
     @Lock(LockModeType.PESSIMISTIC_WRITE)
@@ -82,4 +93,11 @@ public interface ParkingSpotRepository extends JpaRepository<ParkingSpot, Long>
    SELECT s FROM ParkingSpot s
    WHERE s.id = :spotId""")
     ParkingSpot findSpotForUpdate(@Param("spotId") Long spotId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+   SELECT s FROM ParkingSpot s
+   WHERE s.status = 'HELD'
+     AND s.heldUntil < :now""")
+    List<ParkingSpot> findExpiredHoldsForUpdate(@Param("now") LocalDateTime now);
 }
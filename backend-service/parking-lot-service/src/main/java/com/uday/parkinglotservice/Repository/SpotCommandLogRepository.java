@@ -0,0 +1,19 @@
+package com.uday.parkinglotservice.Repository;
+
+import com.uday.parkinglotservice.Entity.SpotCommandLog;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface SpotCommandLogRepository extends JpaRepository<SpotCommandLog, String> {
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM spot_command_log WHERE command_id IN (" +
+            "SELECT command_id FROM spot_command_log WHERE processed_at < :cutoff LIMIT :limit)", nativeQuery = true)
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
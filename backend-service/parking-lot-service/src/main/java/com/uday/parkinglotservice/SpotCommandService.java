@@ -0,0 +1,222 @@
+package com.uday.parkinglotservice;
+
+import com.uday.parkinglotservice.DTO.SpotCommand;
+import com.uday.parkinglotservice.DTO.SpotCommandResult;
+import com.uday.parkinglotservice.DTO.SpotCommandResult.Outcome;
+import com.uday.parkinglotservice.DTO.SpotHoldRequest;
+import com.uday.parkinglotservice.DTO.SpotHoldResult;
+import com.uday.parkinglotservice.Entity.ParkingSpot;
+import com.uday.parkinglotservice.Entity.SpotCommandLog;
+import com.uday.parkinglotservice.Repository.ParkingSpotRepository;
+import com.uday.parkinglotservice.Repository.SpotCommandLogRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies spot commands delivered by the ticketing-service outbox, and the
+ * reservation holds requested by its hold scheduler.
+ *
+ * Each command runs in its own transaction together with its log row, so a
+ * command is applied exactly once no matter how often it is redelivered.
+ * Commands are idempotent on state as well: releasing a free spot succeeds
+ * without change.
+ */
+@Service
+public class SpotCommandService {
+
+    private static final int PRUNE_BATCH_SIZE = 1000;
+
+    @Autowired
+    private ParkingSpotRepository spotRepo;
+
+    @Autowired
+    private SpotCommandLogRepository commandLogRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EdgeCacheInvalidator edgeCache;
+
+    @Value("${parking.commands.log-retention-days:14}")
+    private long logRetentionDays;
+
+    @Caching(evict = {
+        @CacheEvict(value = "parkingLevels", key = "'all'"),
+        @CacheEvict(value = "parkingLevelsDetails", key = "'details'"),
+        @CacheEvict(value = "parkingStats", key = "'system'")
+    })
+    public List<SpotCommandResult> applyAll(List<SpotCommand> commands) {
+        List<SpotCommandResult> results = new ArrayList<>(commands.size());
+        for (SpotCommand command : commands) {
+            results.add(apply(command));
+        }
+        edgeCache.parkingChanged();
+        return results;
+    }
+
+    public SpotCommandResult apply(SpotCommand command) {
+        if (command.getCommandId() == null || command.getType() == null || command.getSpotId() == null) {
+            return result(command, Outcome.REJECTED, "commandId, type and spotId are required");
+        }
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        try {
+            return tx.execute(status -> {
+                if (commandLogRepo.existsById(command.getCommandId())) {
+                    return result(command, Outcome.DUPLICATE, null);
+                }
+
+                SpotCommandResult result = applyToSpot(command);
+                commandLogRepo.saveAndFlush(new SpotCommandLog(
+                        command.getCommandId(), command.getType(), command.getSpotId(),
+                        result.getOutcome().name(), LocalDateTime.now()));
+                return result;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // same command applied concurrently by another delivery, this one rolled back
+            return result(command, Outcome.DUPLICATE, null);
+        }
+    }
+
+    private SpotCommandResult applyToSpot(SpotCommand command) {
+        ParkingSpot spot = spotRepo.findSpotForUpdate(command.getSpotId());
+        if (spot == null) {
+            return result(command, Outcome.REJECTED, "Spot not found with id: " + command.getSpotId());
+        }
+
+        switch (command.getType()) {
+            case "RELEASE":
+                spot.release();
+                spotRepo.save(spot);
+                return result(command, Outcome.APPLIED, null);
+            case "OCCUPY":
+                if (spot.getStatus() == ParkingSpot.SpotStatus.DISABLED) {
+                    return result(command, Outcome.REJECTED, "Cannot occupy a disabled spot");
+                }
+                spot.occupy();
+                spotRepo.save(spot);
+                return result(command, Outcome.APPLIED, null);
+            case "CONFIRM_HOLD":
+                // the driver has checked in: occupy whether the hold is still there or already lapsed
+                if (spot.isHeldFor(command.getReservationId()) || spot.getStatus() == ParkingSpot.SpotStatus.AVAILABLE) {
+                    spot.occupy();
+                    spotRepo.save(spot);
+                    return result(command, Outcome.APPLIED, null);
+                }
+                // occupied by another vehicle: redeliveries of this command never get here (command log)
+                return result(command, Outcome.REJECTED, "Spot is " + spot.getStatus() + ", hold not confirmed");
+            case "RELEASE_HOLD":
+                if (spot.isHeldFor(command.getReservationId())) {
+                    spot.release();
+                    spotRepo.save(spot);
+                }
+                return result(command, Outcome.APPLIED, null);
+            default:
+                return result(command, Outcome.REJECTED, "Unknown command type: " + command.getType());
+        }
+    }
+
+    /**
+     * Hold spots for reservations about to start. Each hold is its own transaction;
+     * a spot that is occupied or held for someone else is reported, not waited on.
+     */
+    @Caching(evict = {
+        @CacheEvict(value = "parkingLevels", key = "'all'"),
+        @CacheEvict(value = "parkingLevelsDetails", key = "'details'"),
+        @CacheEvict(value = "parkingStats", key = "'system'")
+    })
+    public List<SpotHoldResult> holdAll(List<SpotHoldRequest> requests) {
+        List<SpotHoldResult> results = new ArrayList<>(requests.size());
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        for (SpotHoldRequest request : requests) {
+            SpotHoldResult result;
+            try {
+                result = tx.execute(status -> {
+                    ParkingSpot spot = spotRepo.findSpotForUpdate(request.getSpotId());
+                    if (spot == null) {
+                        return new SpotHoldResult(request.getReservationId(), false, "Spot not found");
+                    }
+                    spot.hold(request.getReservationId(), request.getHeldUntil());
+                    spotRepo.save(spot);
+                    return new SpotHoldResult(request.getReservationId(), true, null);
+                });
+            } catch (IllegalStateException e) {
+                result = new SpotHoldResult(request.getReservationId(), false, e.getMessage());
+            } catch (Exception e) {
+                System.err.println("Hold for reservation " + request.getReservationId() + " failed: " + e.getMessage());
+                result = new SpotHoldResult(request.getReservationId(), false, "Hold failed: " + e.getMessage());
+            }
+            results.add(result);
+        }
+        edgeCache.parkingChanged();
+        return results;
+    }
+
+    /**
+     * Safety net for holds whose release never arrived (no-show, lost command)
+     */
+    @Scheduled(fixedDelayString = "${parking.holds.expiry-interval-ms:60000}")
+    @Transactional
+    @Caching(evict = {
+        @CacheEvict(value = "parkingLevels", key = "'all'"),
+        @CacheEvict(value = "parkingLevelsDetails", key = "'details'"),
+        @CacheEvict(value = "parkingStats", key = "'system'")
+    })
+    public void releaseExpiredHolds() {
+        List<ParkingSpot> expired = spotRepo.findExpiredHoldsForUpdate(LocalDateTime.now());
+        for (ParkingSpot spot : expired) {
+            spot.release();
+        }
+        if (!expired.isEmpty()) {
+            spotRepo.saveAll(expired);
+            edgeCache.parkingChanged();
+            System.out.println("Released " + expired.size() + " expired spot holds");
+        }
+    }
+
+    /**
+     * Forget applied command ids once no redelivery of them can still arrive
+     */
+    @Scheduled(fixedDelayString = "${parking.commands.log-prune-interval-ms:3600000}")
+    public void pruneCommandLog() {
+        try {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(logRetentionDays);
+            int total = 0;
+            int deleted;
+            do {
+                deleted = commandLogRepo.deleteProcessedBefore(cutoff, PRUNE_BATCH_SIZE);
+                total += deleted;
+            } while (deleted == PRUNE_BATCH_SIZE);
+            if (total > 0) {
+                System.out.println("Pruned " + total + " spot command log rows");
+            }
+        } catch (Exception e) {
+            System.err.println("Spot command log pruning failed: " + e.getMessage());
+        }
+    }
+
+    private SpotCommandResult result(SpotCommand command, Outcome outcome, String message) {
+        return SpotCommandResult.builder()
+                .commandId(command.getCommandId())
+                .outcome(outcome)
+                .message(message)
+                .build();
+    }
+}
@@ -0,0 +1,178 @@
+package com.uday.parkinglotservice;
+
+import com.uday.parkinglotservice.DTO.SpotCommand;
+import com.uday.parkinglotservice.DTO.SpotCommandResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.stream.StreamMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Consumer for the optional Redis Stream transport of the ticketing outbox
+ * (parking.commands.stream.enabled=true). Records are acked only after the
+ * command is applied; anything left pending is retried from this consumer's
+ * pending list. Records stuck on another consumer (a crashed or renamed
+ * instance) are claimed once idle for claim-idle-ms and retried here.
+ */
+@Component
+@ConditionalOnProperty(name = "parking.commands.stream.enabled", havingValue = "true")
+public class SpotCommandStreamListener {
+
+    @Autowired
+    private StringRedisTemplate redis;
+
+    @Autowired
+    private RedisConnectionFactory connectionFactory;
+
+    @Autowired
+    private SpotCommandService commandService;
+
+    @Value("${parking.commands.stream.key:parking:spot-commands}")
+    private String streamKey;
+
+    @Value("${parking.commands.stream.group:parking-lot-service}")
+    private String group;
+
+    @Value("${HOSTNAME:parking-lot-1}")
+    private String consumerName;
+
+    @Value("${parking.commands.stream.claim-idle-ms:60000}")
+    private long claimIdleMs;
+
+    private StreamMessageListenerContainer<String, MapRecord<String, String, String>> container;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        try {
+            redis.opsForStream().createGroup(streamKey, ReadOffset.from("0"), group);
+        } catch (Exception e) {
+            // BUSYGROUP: group already exists
+        }
+
+        container = StreamMessageListenerContainer.create(connectionFactory,
+                StreamMessageListenerContainer.StreamMessageListenerContainerOptions.builder()
+                        .pollTimeout(Duration.ofSeconds(1))
+                        .build());
+        container.register(
+                StreamMessageListenerContainer.StreamReadRequest
+                        .builder(StreamOffset.create(streamKey, ReadOffset.lastConsumed()))
+                        .consumer(Consumer.from(group, consumerName))
+                        .autoAcknowledge(false)
+                        .cancelOnError(e -> false)
+                        .build(),
+                this::handle);
+        container.start();
+        System.out.println("[SpotCommands] Listening on stream " + streamKey + " as " + group + "/" + consumerName);
+    }
+
+    /**
+     * Claim idle records of other consumers, then re-read this consumer's
+     * pending (unacked) records and retry them.
+     */
+    @Scheduled(fixedDelayString = "${parking.commands.stream.retry-interval-ms:30000}")
+    public void retryPending() {
+        if (container == null) {
+            return;
+        }
+        try {
+            claimIdle();
+        } catch (Exception e) {
+            System.err.println("[SpotCommands] Error claiming idle records: " + e.getMessage());
+        }
+        try {
+            @SuppressWarnings("unchecked")
+            List<MapRecord<String, Object, Object>> pending = redis.opsForStream().read(
+                    Consumer.from(group, consumerName),
+                    StreamReadOptions.empty().count(100),
+                    StreamOffset.create(streamKey, ReadOffset.from("0")));
+            if (pending == null) {
+                return;
+            }
+            for (MapRecord<String, Object, Object> record : pending) {
+                Map<Object, Object> value = record.getValue();
+                if (apply(String.valueOf(value.get("commandId")), String.valueOf(value.get("type")),
+                        String.valueOf(value.get("spotId")), (String) value.get("reservationId"))) {
+                    redis.opsForStream().acknowledge(streamKey, group, record.getId());
+                }
+            }
+        } catch (Exception e) {
+            System.err.println("[SpotCommands] Error retrying pending records: " + e.getMessage());
+        }
+    }
+
+    /**
+     * XPENDING + XCLAIM (the XAUTOCLAIM pattern): records idle on any other
+     * consumer for at least claim-idle-ms move to this consumer's pending list.
+     */
+    private void claimIdle() {
+        PendingMessages pending = redis.opsForStream().pending(streamKey, group, Range.unbounded(), 100);
+        Duration minIdle = Duration.ofMillis(claimIdleMs);
+        List<RecordId> idle = new ArrayList<>();
+        for (PendingMessage message : pending) {
+            if (!consumerName.equals(message.getConsumerName())
+                    && message.getElapsedTimeSinceLastDelivery().compareTo(minIdle) >= 0) {
+                idle.add(message.getId());
+            }
+        }
+        if (!idle.isEmpty()) {
+            redis.opsForStream().claim(streamKey, group, consumerName, minIdle, idle.toArray(new RecordId[0]));
+            System.out.println("[SpotCommands] Claimed " + idle.size() + " idle records from other consumers");
+        }
+    }
+
+    private void handle(MapRecord<String, String, String> record) {
+        Map<String, String> value = record.getValue();
+        if (apply(value.get("commandId"), value.get("type"), value.get("spotId"), value.get("reservationId"))) {
+            redis.opsForStream().acknowledge(streamKey, group, record.getId());
+        }
+    }
+
+    private boolean apply(String commandId, String type, String spotId, String reservationId) {
+        try {
+            SpotCommandResult result = commandService.apply(SpotCommand.builder()
+                    .commandId(commandId)
+                    .type(type)
+                    .spotId(Long.valueOf(spotId))
+                    .reservationId(reservationId != null ? Long.valueOf(reservationId) : null)
+                    .build());
+            if (result.getOutcome() == SpotCommandResult.Outcome.REJECTED) {
+                System.out.println("[SpotCommands] Command " + commandId + " rejected: " + result.getMessage());
+            }
+            return true;
+        } catch (NumberFormatException e) {
+            System.out.println("[SpotCommands] Dropping malformed command " + commandId);
+            return true;
+        } catch (Exception e) {
+            System.err.println("[SpotCommands] Failed to apply " + commandId + ", will retry: " + e.getMessage());
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.uday.parkinglotservice;
+
+import com.uday.parkinglotservice.DTO.VehicleRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Registers vehicles with vehicle-service off the entry path.
+ *
+ * Plates already known to vehicle-service are kept in a bounded LRU near-cache,
+ * so repeat vehicles cost nothing at entry. Unknown plates are queued (bounded,
+ * de-duplicated) and a background job registers them in batches, retrying
+ * failures with a capped number of attempts. A plate dropped because the queue
+ * was full is simply queued again on its next entry.
+ */
+@Component
+public class VehicleRegistrar {
+
+    @Autowired
+    private WebClient loadBalancedWebClient;
+
+    @Value("${parking.vehicles.known-cache-size:50000}")
+    private int knownCacheSize;
+
+    @Value("${parking.vehicles.batch-size:100}")
+    private int batchSize;
+
+    @Value("${parking.vehicles.max-attempts:5}")
+    private int maxAttempts;
+
+    private final LinkedBlockingQueue<Pending> queue;
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+    private Map<String, Boolean> known;
+
+    public VehicleRegistrar(@Value("${parking.vehicles.queue-capacity:10000}") int queueCapacity) {
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+    }
+
+    private record Pending(String plate, String vehicleNumber, boolean disabled, int attempts) {}
+
+    public static String normalize(String plate) {
+        return plate == null ? null : plate.replaceAll("[\\s-]", "").toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Called on entry; never blocks and never calls vehicle-service
+     */
+    public void register(String vehicleNumber, boolean isDisabled) {
+        String plate = normalize(vehicleNumber);
+        if (plate == null || plate.isEmpty() || isKnown(plate) || !queued.add(plate)) {
+            return;
+        }
+        if (!queue.offer(new Pending(plate, vehicleNumber.trim(), isDisabled, 0))) {
+            queued.remove(plate);
+            System.err.println("[Vehicles] Registration queue full, deferring " + plate);
+        }
+    }
+
+    public boolean isKnown(String plate) {
+        synchronized (this) {
+            return knownCache().get(plate) != null;
+        }
+    }
+
+    private void markKnown(String plate) {
+        synchronized (this) {
+            knownCache().put(plate, Boolean.TRUE);
+        }
+    }
+
+    private Map<String, Boolean> knownCache() {
+        if (known == null) {
+            int max = knownCacheSize;
+            known = new LinkedHashMap<>(1024, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > max;
+                }
+            };
+        }
+        return known;
+    }
+
+    @Scheduled(fixedDelayString = "${parking.vehicles.drain-interval-ms:2000}")
+    public void drain() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        queue.drainTo(batch, batchSize);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            saveBatch(batch);
+            for (Pending p : batch) {
+                markKnown(p.plate());
+                queued.remove(p.plate());
+            }
+            System.out.println("[Vehicles] Registered " + batch.size() + " queued vehicles");
+        } catch (Exception e) {
+            // vehicle-service is likely down: requeue the batch for the next run
+            System.err.println("[Vehicles] Batch registration of " + batch.size() + " vehicles failed: " + e.getMessage());
+            batch.forEach(this::retry);
+        }
+    }
+
+    private void retry(Pending p) {
+        int attempts = p.attempts() + 1;
+        if (attempts >= maxAttempts || !queue.offer(new Pending(p.plate(), p.vehicleNumber(), p.disabled(), attempts))) {
+            queued.remove(p.plate());
+            System.err.println("[Vehicles] Giving up on " + p.plate() + " after " + attempts + " attempts");
+        }
+    }
+
+    // /vehicle/batch upserts on the normalized plate in one transaction, so retries never duplicate rows
+    private void saveBatch(List<Pending> batch) {
+        List<VehicleRequest> requests = new ArrayList<>(batch.size());
+        for (Pending p : batch) {
+            VehicleRequest request = new VehicleRequest();
+            request.setLicensePlate(p.vehicleNumber());
+            request.setDisabled(p.disabled());
+            // type left unset: parking-lot does not know it, and a registered type must not be overwritten
+            requests.add(request);
+        }
+
+        loadBalancedWebClient.post()
+                .uri("http://VEHICLE-SERVICE:8081/vehicle/batch")
+                .bodyValue(requests)
+                .retrieve()
+                .toBodilessEntity()
+                .block(Duration.ofSeconds(10));
+    }
+}
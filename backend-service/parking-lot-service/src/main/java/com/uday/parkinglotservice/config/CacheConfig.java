@@ -3,8 +3,10 @@ package com.uday.parkinglotservice.config;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.BatchStrategies;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
@@ -34,7 +36,10 @@ public class CacheConfig {
         cacheConfigs.put("parkingStats", defaultConfig.entryTtl(Duration.ofMinutes(1)));
         cacheConfigs.put("levelSpots", defaultConfig.entryTtl(Duration.ofMinutes(1)));
 
-        return RedisCacheManager.builder(connectionFactory)
+        // a cache clear SCANs in batches instead of a KEYS that blocks the shared Redis
+        RedisCacheWriter writer = RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory, BatchStrategies.scan(1000));
+
+        return RedisCacheManager.builder(writer)
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(cacheConfigs)
                 .build();
@@ -0,0 +1,43 @@
+package com.uday.parkinglotservice.config;
+
+import com.uday.parkinglotservice.Entity.ParkingSpot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * PostgreSQL DDL that ddl-auto=update cannot apply. Runs right after Hibernate
+ * has updated the schema; every statement is idempotent and a failure is
+ * logged, not fatal.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SchemaInitializer {
+
+    private static final List<String> STATEMENTS = List.of(
+        // Hibernate's enum check constraint predates HELD and is not updated by ddl-auto; rebuild it from the enum
+        "ALTER TABLE parking_spot DROP CONSTRAINT IF EXISTS parking_spot_status_check",
+        "ALTER TABLE parking_spot ADD CONSTRAINT parking_spot_status_check CHECK (status IN (" +
+            Arrays.stream(ParkingSpot.SpotStatus.values()).map(v -> "'" + v.name() + "'").collect(Collectors.joining(", ")) + "))"
+    );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void initialize() {
+        for (String sql : STATEMENTS) {
+            try {
+                jdbcTemplate.execute(sql);
+            } catch (Exception e) {
+                System.err.println("[Schema] Failed to apply: " + sql + " -> " + e.getMessage());
+            }
+        }
+    }
+}
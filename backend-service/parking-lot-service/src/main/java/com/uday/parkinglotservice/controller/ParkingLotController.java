@@ -3,6 +3,7 @@ package com.uday.parkinglotservice.controller;
 import com.uday.parkinglotservice.DTO.*;
 import com.uday.parkinglotservice.Entity.*;
 import com.uday.parkinglotservice.ParkingLotService;
+import com.uday.parkinglotservice.SpotCommandService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -15,10 +16,12 @@ import java.util.List;
 public class ParkingLotController {
 
     private final ParkingLotService service;
+    private final SpotCommandService commandService;
 
     @Autowired
-    public ParkingLotController(ParkingLotService service) {
+    public ParkingLotController(ParkingLotService service, SpotCommandService commandService) {
         this.service = service;
+        this.commandService = commandService;
     }
 
     // ========== PUBLIC/USER ENDPOINTS ==========
@@ -144,6 +147,26 @@ public class ParkingLotController {
         return ResponseEntity.ok().build();
     }
 
+    /**
+     * Apply a batch of spot commands from the ticketing-service outbox - Internal API
+     * POST /parking/spots/commands
+     * Idempotent per commandId; returns one result per command
+     */
+    @PostMapping("/spots/commands")
+    public ResponseEntity<List<SpotCommandResult>> applySpotCommands(@RequestBody List<SpotCommand> commands) {
+        return ResponseEntity.ok(commandService.applyAll(commands));
+    }
+
+    /**
+     * Hold spots for reservations about to start (used by ticketing-service) - Internal API
+     * POST /parking/spots/holds
+     * Returns one result per request; spots that cannot be held are reported, not retried
+     */
+    @PostMapping("/spots/holds")
+    public ResponseEntity<List<SpotHoldResult>> holdSpots(@RequestBody List<SpotHoldRequest> requests) {
+        return ResponseEntity.ok(commandService.holdAll(requests));
+    }
+
     /**
      * Enable a disabled spot - Admin only
      * PUT /parking/admin/spots/{spotId}/enable
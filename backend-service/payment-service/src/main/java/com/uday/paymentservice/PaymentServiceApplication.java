@@ -1,13 +1,42 @@
 package com.uday.paymentservice;
 
 import org.springframework.boot.SpringApplication;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
 
 @EnableDiscoveryClient
+@EnableScheduling
 @SpringBootApplication
 public class PaymentServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(PaymentServiceApplication.class, args);
     }
+
+    @Configuration
+    public class RestClientConfig {
+
+        // blocking client: reconciliation reads ticketing's NDJSON stream line by line.
+        // The read timeout bounds each socket read, not the whole stream, so a stalled
+        // ticketing instance fails the run instead of holding the advisory lock forever.
+        @Bean
+        @LoadBalanced
+        public RestTemplate loadBalancedRestTemplate(
+                RestTemplateBuilder builder,
+                @Value("${payment.reconciliation.connect-timeout-ms:5000}") long connectTimeoutMs,
+                @Value("${payment.reconciliation.read-timeout-ms:30000}") long readTimeoutMs) {
+            return builder
+                    .setConnectTimeout(Duration.ofMillis(connectTimeoutMs))
+                    .setReadTimeout(Duration.ofMillis(readTimeoutMs))
+                    .build();
+        }
+    }
 }
@@ -0,0 +1,51 @@
+package com.uday.paymentservice.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * PostgreSQL-specific DDL that JPA annotations cannot express. Runs right after
+ * Hibernate has updated the schema; every statement is idempotent and a failure
+ * is logged, not fatal.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SchemaInitializer {
+
+    public static final String SUCCESS_PER_TICKET_INDEX = "uk_payment_ledger_ticket_success";
+
+    private static final List<String> STATEMENTS = List.of(
+        // a ticket is charged successfully at most once, across all instances
+        "CREATE UNIQUE INDEX IF NOT EXISTS " + SUCCESS_PER_TICKET_INDEX +
+            " ON payment_ledger (ticket_id) WHERE status = 'SUCCESS'",
+        // Hibernate's enum check constraint predates PENDING and is not updated by ddl-auto
+        "ALTER TABLE payment_ledger DROP CONSTRAINT IF EXISTS payment_ledger_status_check",
+        // reconciler scan of unsettled orders
+        "CREATE INDEX IF NOT EXISTS idx_payment_ledger_pending ON payment_ledger (created_at) WHERE status = 'PENDING'",
+        // the ledger is append-only
+        "CREATE OR REPLACE FUNCTION payment_ledger_append_only() RETURNS trigger AS $$ " +
+            "BEGIN RAISE EXCEPTION 'payment_ledger is append-only'; END $$ LANGUAGE plpgsql",
+        "DROP TRIGGER IF EXISTS trg_payment_ledger_append_only ON payment_ledger",
+        "CREATE TRIGGER trg_payment_ledger_append_only BEFORE UPDATE OR DELETE ON payment_ledger " +
+            "FOR EACH ROW EXECUTE FUNCTION payment_ledger_append_only()"
+    );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void initialize() {
+        for (String sql : STATEMENTS) {
+            try {
+                jdbcTemplate.execute(sql);
+            } catch (Exception e) {
+                System.err.println("[Schema] Failed to apply: " + sql + " -> " + e.getMessage());
+            }
+        }
+    }
+}
@@ -1,97 +1,213 @@
 package com.uday.paymentservice.controller;
 
-import com.razorpay.Order;
-import com.razorpay.RazorpayClient;
-import com.razorpay.RazorpayException;
 import com.uday.paymentservice.dto.PaymentRequest;
+import com.uday.paymentservice.dto.PaymentStatusResponse;
+import com.uday.paymentservice.dto.SimulatorSettings;
+import com.uday.paymentservice.exception.PaymentConflictException;
+import com.uday.paymentservice.provider.SimulatedPaymentProvider;
+import com.uday.paymentservice.provider.ProviderResult;
+import com.uday.paymentservice.service.PaymentService;
+import org.json.JSONException;
 import org.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
-
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/payments")
 public class PaymentController {
 
-    @Autowired(required = false)
-    private RazorpayClient razorpayClient;
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private SimulatedPaymentProvider simulator;
 
     @Value("${payment.mode:MOCK}")
     private String paymentMode;
 
-    @Value("${payment.mock.fail.amount:500}")
-    private int mockFailAmount;
+    @Value("${payment.async.wait-ms:2000}")
+    private long asyncWaitMs;
+
+    @Value("${payment.webhook.secret:}")
+    private String webhookSecret;
 
+    /**
+     * Charge a ticket; repeat requests for a paid ticket return the recorded result,
+     * and 409 if they name a different amount than the recorded or pending payment.
+     * Answers with the outcome if the payment settles within payment.async.wait-ms,
+     * otherwise 202 with status PENDING and the paymentRef to poll /status with.
+     * POST /payments/create
+     */
     @PostMapping("/create")
-    public ResponseEntity<?> createPayment(@RequestBody PaymentRequest request) {
+    public DeferredResult<ResponseEntity<?>> createPayment(@RequestBody PaymentRequest request) {
         System.out.println("Payment controller");
-        // ---- MOCK MODE ----
-        if ("MOCK".equalsIgnoreCase(paymentMode)) {
-            return handleMockPayment(request);
+        DeferredResult<ResponseEntity<?>> deferred = new DeferredResult<>(asyncWaitMs);
+        PaymentService.PaymentHandle handle;
+        try {
+            handle = paymentService.createPayment(request);
+        } catch (IllegalArgumentException e) {
+            deferred.setResult(ResponseEntity.badRequest().body(Map.of("status", "FAILED", "error", e.getMessage())));
+            return deferred;
+        } catch (PaymentConflictException e) {
+            deferred.setResult(ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("status", "FAILED", "error", e.getMessage())));
+            return deferred;
+        } catch (IllegalStateException e) {
+            deferred.setResult(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("status", "FAILED", "error", e.getMessage())));
+            return deferred;
         }
 
-        // ---- REAL MODE (Razorpay) ----
-        return handleRealPayment(request);
+        deferred.onTimeout(() -> deferred.setResult(ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(PaymentService.pendingResponse(handle.ticketId(), handle.paymentRef()))));
+        handle.result().whenComplete((body, error) -> {
+            if (error != null) {
+                deferred.setResult(ResponseEntity.status(500).body(Map.of("status", "FAILED", "error",
+                        String.valueOf(error.getMessage()))));
+            } else if ("PENDING".equals(body.get("status"))) {
+                deferred.setResult(ResponseEntity.status(HttpStatus.ACCEPTED).body(body));
+            } else {
+                deferred.setResult(ResponseEntity.ok(body));
+            }
+        });
+        return deferred;
     }
 
-    // ================= MOCK PAYMENT =================
-    private ResponseEntity<?> handleMockPayment(PaymentRequest request) {
+    /**
+     * Settlement callback from the gateway. Accepts Razorpay events
+     * (order.paid, payment.failed) or a plain {orderId, status, paymentId, reason}
+     * body, e.g. from a test against the stub provider. Must be signed with
+     * HMAC-SHA256 of the raw body; without payment.webhook.secret webhooks are
+     * only accepted in MOCK and SIMULATED mode.
+     * POST /payments/webhook
+     */
+    @PostMapping("/webhook")
+    public ResponseEntity<?> webhook(@RequestBody String body,
+                                     @RequestHeader(value = "X-Razorpay-Signature", required = false) String razorpaySignature,
+                                     @RequestHeader(value = "X-Webhook-Signature", required = false) String signature) {
+        if (webhookSecret.isEmpty()) {
+            // unsigned webhooks would let anyone settle an order; only the local modes allow them
+            if (!"MOCK".equalsIgnoreCase(paymentMode) && !"SIMULATED".equalsIgnoreCase(paymentMode)) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .body(Map.of("error", "Webhooks are disabled: payment.webhook.secret is not set"));
+            }
+        } else if (!signatureMatches(body, razorpaySignature != null ? razorpaySignature : signature)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "Invalid signature"));
+        }
 
-        System.out.println("Mock payment invoked for ticketId="
-                + request.getTicketId()
-                + ", amount=" + request.getAmount());
+        String orderId;
+        ProviderResult result;
+        try {
+            JSONObject json = new JSONObject(body);
+            if (json.has("event")) {
+                String event = json.getString("event");
+                JSONObject payment = json.getJSONObject("payload").getJSONObject("payment").getJSONObject("entity");
+                orderId = payment.getString("order_id");
+                switch (event) {
+                    case "order.paid", "payment.captured" ->
+                            result = ProviderResult.success(orderId, payment.optString("id", null));
+                    case "payment.failed" ->
+                            result = ProviderResult.failed(orderId, payment.optString("error_description", "Payment failed"));
+                    default -> {
+                        return ResponseEntity.ok(Map.of("ignored", event));
+                    }
+                }
+            } else {
+                orderId = json.getString("orderId");
+                result = "SUCCESS".equalsIgnoreCase(json.getString("status"))
+                        ? ProviderResult.success(orderId, json.optString("paymentId", null))
+                        : ProviderResult.failed(orderId, json.optString("reason", "Payment failed"));
+            }
+        } catch (JSONException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Malformed webhook: " + e.getMessage()));
+        }
 
-        if (request.getAmount() > mockFailAmount) {
-            return ResponseEntity.ok(Map.of(
-                    "status", "FAILED",
-                    "reason", "Mock failure: amount exceeds limit"
-            ));
+        try {
+            if (!paymentService.settle(orderId, result, "webhook")) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "Unknown order " + orderId));
+            }
+        } catch (IllegalStateException e) {
+            // gateway retries the webhook on non-2xx
+            return ResponseEntity.status(500).body(Map.of("error", e.getMessage()));
         }
+        return ResponseEntity.ok(Map.of("orderId", orderId, "status", result.outcome().name()));
+    }
+
+    /**
+     * Whether a ticket has been paid, from the ledger (no provider call)
+     * GET /payments/status/{ticketId}
+     */
+    @GetMapping("/status/{ticketId}")
+    public ResponseEntity<PaymentStatusResponse> getPaymentStatus(@PathVariable Long ticketId) {
+        return ResponseEntity.ok(paymentService.getStatus(ticketId));
+    }
+
+    // ========== ADMIN: SIMULATED PROVIDER ==========
 
-        return ResponseEntity.ok(Map.of(
-                "status", "SUCCESS",
-                "paymentId", "MOCK_PAY_" + request.getTicketId()
-        ));
+    /**
+     * Current fault-injection settings and what has been injected so far
+     * GET /payments/admin/simulator
+     */
+    @GetMapping("/admin/simulator")
+    public ResponseEntity<Map<String, Object>> getSimulator() {
+        return ResponseEntity.ok(simulatorView(simulator.getSettings()));
     }
 
-    // ================= REAL PAYMENT =================
-    private ResponseEntity<?> handleRealPayment(PaymentRequest request) {
-        if (razorpayClient == null) {
-            throw new IllegalStateException(
-                    "Payment mode is REAL but RazorpayClient is not configured"
-            );
+    /**
+     * Replace the fault-injection settings; takes effect for the next call
+     * PUT /payments/admin/simulator
+     */
+    @PutMapping("/admin/simulator")
+    public ResponseEntity<?> updateSimulator(@RequestBody SimulatorSettings settings) {
+        try {
+            return ResponseEntity.ok(simulatorView(simulator.updateSettings(settings)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
         }
+    }
+
+    /**
+     * Restore the settings from payment.simulator.*
+     * POST /payments/admin/simulator/reset
+     */
+    @PostMapping("/admin/simulator/reset")
+    public ResponseEntity<Map<String, Object>> resetSimulator() {
+        return ResponseEntity.ok(simulatorView(simulator.resetSettings()));
+    }
+
+    private Map<String, Object> simulatorView(SimulatorSettings settings) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("active", "SIMULATED".equalsIgnoreCase(paymentMode));
+        view.put("settings", settings);
+        view.put("injected", simulator.injectedCounts());
+        return view;
+    }
 
+    private boolean signatureMatches(String body, String provided) {
+        if (provided == null) {
+            return false;
+        }
         try {
-            int amount = request.getAmount() * 100; // ₹ → paise
-
-            JSONObject orderRequest = new JSONObject();
-            orderRequest.put("amount", amount);
-            orderRequest.put("currency", "INR");
-            orderRequest.put("receipt", "receipt#" + request.getTicketId());
-
-            Order order = razorpayClient.orders.create(orderRequest);
-
-            return ResponseEntity.ok(Map.of(
-                    "status", "SUCCESS",
-                    "orderId", order.get("id"),
-                    "amount", amount,
-                    "currency", "INR"
-            ));
-
-        } catch (RazorpayException e) {
-            e.printStackTrace();
-            return ResponseEntity.status(500).body(Map.of(
-                    "status", "FAILED",
-                    "error", e.getMessage()
-            ));
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(webhookSecret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            String expected = HexFormat.of().formatHex(mac.doFinal(body.getBytes(StandardCharsets.UTF_8)));
+            return MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8),
+                    provided.toLowerCase().getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            return false;
         }
     }
 }
-
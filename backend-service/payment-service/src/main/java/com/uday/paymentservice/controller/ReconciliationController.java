@@ -0,0 +1,64 @@
+package com.uday.paymentservice.controller;
+
+import com.uday.paymentservice.dto.ReconciliationReport;
+import com.uday.paymentservice.entity.ReconciliationDiscrepancy;
+import com.uday.paymentservice.repository.ReconciliationDiscrepancyRepository;
+import com.uday.paymentservice.service.LedgerReconciliationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.client.RestClientException;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/payments/admin/reconciliation")
+public class ReconciliationController {
+
+    @Autowired
+    private LedgerReconciliationService reconciliationService;
+
+    @Autowired
+    private ReconciliationDiscrepancyRepository discrepancyRepo;
+
+    /**
+     * Run ledger vs. ticket reconciliation now, from the current watermark
+     * POST /payments/admin/reconciliation/run
+     */
+    @PostMapping("/run")
+    public ResponseEntity<?> run() {
+        try {
+            ReconciliationReport report = reconciliationService.run();
+            return report.isSkipped()
+                    ? ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Reconciliation already running"))
+                    : ResponseEntity.ok(report);
+        } catch (RestClientException e) {
+            return ResponseEntity.status(HttpStatus.BAD_GATEWAY)
+                    .body(Map.of("error", "Ticket stream unavailable: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Recorded discrepancies, oldest first, after the given id
+     * GET /payments/admin/reconciliation/discrepancies?afterId=0&limit=100
+     */
+    @GetMapping("/discrepancies")
+    public ResponseEntity<List<ReconciliationDiscrepancy>> discrepancies(
+            @RequestParam(defaultValue = "0") Long afterId,
+            @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(discrepancyRepo.findByIdGreaterThanOrderByIdAsc(
+                afterId, PageRequest.of(0, Math.min(Math.max(limit, 1), 1000))));
+    }
+
+    /**
+     * Highest ticket id fully reconciled
+     * GET /payments/admin/reconciliation/watermark
+     */
+    @GetMapping("/watermark")
+    public ResponseEntity<Map<String, Long>> watermark() {
+        return ResponseEntity.ok(Map.of("lastTicketId", reconciliationService.currentWatermark()));
+    }
+}
@@ -0,0 +1,27 @@
+package com.uday.paymentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Latest ledger state for a ticket (GET /payments/status/{ticketId})
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class PaymentStatusResponse {
+    private Long ticketId;
+    private String status;        // SUCCESS, FAILED, PENDING or NONE
+    private boolean paid;
+    private String paymentRef;
+    private String paymentId;
+    private Integer amount;
+    private String reason;
+    private long attempts;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,30 @@
+package com.uday.paymentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Outcome of one reconciliation run (POST /payments/admin/reconciliation/run)
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReconciliationReport {
+    private boolean skipped;             // another instance was running
+    private long fromTicketId;           // watermark the run started after
+    private long watermark;              // watermark after the run
+    private long ticketsScanned;
+    private long ledgerTicketsScanned;
+    private long newDiscrepancies;
+    @Builder.Default
+    private Map<String, Long> byKind = new LinkedHashMap<>();
+    private LocalDateTime startedAt;
+    private long durationMs;
+}
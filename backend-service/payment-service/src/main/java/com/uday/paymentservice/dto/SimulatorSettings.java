@@ -0,0 +1,71 @@
+package com.uday.paymentservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fault-injection knobs of the SIMULATED provider
+ * (GET/PUT /payments/admin/simulator). Rates are probabilities per call.
+ */
+@Data
+@Builder(toBuilder = true)
+@AllArgsConstructor
+@NoArgsConstructor
+public class SimulatorSettings {
+
+    public enum Latency {
+        FIXED,       // always latencyMs
+        UNIFORM,     // between latencyMinMs and latencyMaxMs
+        LOG_NORMAL   // median latencyMs, shape latencySigma (long right tail)
+    }
+
+    private Latency latency;
+    private long latencyMs;
+    private long latencyMinMs;
+    private long latencyMaxMs;
+    private double latencySigma;
+
+    // occasional extra delay added on top of the distribution
+    private double spikeRate;
+    private long spikeMs;
+
+    // gateway error (call fails fast) and timeout (call hangs timeoutMs, then fails)
+    private double errorRate;
+    private double timeoutRate;
+    private long timeoutMs;
+
+    // calls per second the gateway accepts before answering "too many requests"; 0 = unlimited
+    private int throttlePerSecond;
+
+    // decline (not an error) above this amount; 0 = never
+    private int declineAboveAmount;
+
+    public void validate() {
+        if (latency == null) {
+            throw new IllegalArgumentException("latency is required (FIXED, UNIFORM or LOG_NORMAL)");
+        }
+        requireRate("spikeRate", spikeRate);
+        requireRate("errorRate", errorRate);
+        requireRate("timeoutRate", timeoutRate);
+        if (errorRate + timeoutRate > 1) {
+            throw new IllegalArgumentException("errorRate + timeoutRate must not exceed 1");
+        }
+        if (latencyMs < 0 || latencyMinMs < 0 || latencyMaxMs < 0 || spikeMs < 0 || timeoutMs < 0) {
+            throw new IllegalArgumentException("Durations must not be negative");
+        }
+        if (latency == Latency.UNIFORM && latencyMaxMs < latencyMinMs) {
+            throw new IllegalArgumentException("latencyMaxMs must be >= latencyMinMs");
+        }
+        if (latencySigma < 0 || throttlePerSecond < 0 || declineAboveAmount < 0) {
+            throw new IllegalArgumentException("latencySigma, throttlePerSecond and declineAboveAmount must not be negative");
+        }
+    }
+
+    private static void requireRate(String name, double rate) {
+        if (rate < 0 || rate > 1) {
+            throw new IllegalArgumentException(name + " must be between 0 and 1");
+        }
+    }
+}
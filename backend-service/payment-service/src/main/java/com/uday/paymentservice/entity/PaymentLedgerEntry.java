@@ -0,0 +1,67 @@
+package com.uday.paymentservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One event in a ticket's payment history. Rows are only ever appended: an
+ * asynchronous order is recorded as PENDING and its settlement as a later
+ * SUCCESS/FAILED row with the same paymentRef; a retry after a failure starts a
+ * new paymentRef. At most one SUCCESS row may exist per ticket (partial unique
+ * index, see SchemaInitializer). The latest row is the ticket's current state.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "payment_ledger",
+    indexes = {
+        @Index(name = "idx_payment_ledger_ticket", columnList = "ticketId, id"),
+        @Index(name = "idx_payment_ledger_order", columnList = "orderId")
+    }
+)
+public class PaymentLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long ticketId;
+
+    private String vehicleNumber;
+
+    @Column(nullable = false)
+    private int amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private PaymentStatus status;
+
+    // our reference for one attempt, returned to callers while PENDING
+    @Column(length = 64)
+    private String paymentRef;
+
+    // provider order id (asynchronous providers) and payment id once settled
+    private String orderId;
+
+    private String paymentId;
+
+    private String reason;
+
+    @Column(nullable = false, length = 20)
+    private String mode;
+
+    @Column(nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public enum PaymentStatus {
+        PENDING,    // order created, waiting for webhook / reconciliation
+        SUCCESS,
+        FAILED
+    }
+}
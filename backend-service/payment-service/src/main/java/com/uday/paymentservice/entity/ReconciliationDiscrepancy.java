@@ -0,0 +1,52 @@
+package com.uday.paymentservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A ticket whose payment ledger disagrees with its state in ticketing-service,
+ * found by the reconciliation job. Recorded once per ticket and kind.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "reconciliation_discrepancy",
+    uniqueConstraints = @UniqueConstraint(name = "uk_reconciliation_ticket_kind", columnNames = {"ticketId", "kind"})
+)
+public class ReconciliationDiscrepancy {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long ticketId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private Kind kind;
+
+    // ticket side (null when the ticket does not exist)
+    private String ticketStatus;
+
+    private Double ticketFee;
+
+    // ledger side (null when there is no successful payment)
+    private Integer paidAmount;
+
+    private String detail;
+
+    @Column(nullable = false)
+    private LocalDateTime detectedAt;
+
+    public enum Kind {
+        CLOSED_UNPAID,           // ticket closed with a fee but no successful payment
+        PAID_NOT_CLOSED,         // payment succeeded but the ticket is still active
+        PAYMENT_WITHOUT_TICKET,  // successful payment for a ticket ticketing-service does not know
+        AMOUNT_MISMATCH          // paid amount differs from the ticket's fee
+    }
+}
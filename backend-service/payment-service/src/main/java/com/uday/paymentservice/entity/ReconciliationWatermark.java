@@ -0,0 +1,28 @@
+package com.uday.paymentservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Highest ticket id a reconciliation job has finished with; the next run only
+ * looks at tickets and ledger rows above it.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "reconciliation_watermark")
+public class ReconciliationWatermark {
+
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(nullable = false)
+    private Long lastTicketId;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,11 @@
+package com.uday.paymentservice.exception;
+
+/**
+ * A repeat payment request for a ticket that does not match the payment
+ * already recorded or in progress for it (e.g. a different amount)
+ */
+public class PaymentConflictException extends RuntimeException {
+    public PaymentConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,45 @@
+package com.uday.paymentservice.provider;
+
+import com.uday.paymentservice.dto.PaymentRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settles immediately: fails above payment.mock.fail.amount, succeeds otherwise
+ */
+@Component
+public class MockPaymentProvider implements PaymentProvider {
+
+    @Value("${payment.mock.fail.amount:500}")
+    private int mockFailAmount;
+
+    @Value("${payment.providers.mock.max-concurrency:50}")
+    private int maxConcurrency;
+
+    @Override
+    public String name() {
+        return "MOCK";
+    }
+
+    @Override
+    public int maxConcurrency() {
+        return maxConcurrency;
+    }
+
+    @Override
+    public ProviderResult createOrder(PaymentRequest request, String paymentRef) {
+        System.out.println("Mock payment invoked for ticketId="
+                + request.getTicketId()
+                + ", amount=" + request.getAmount());
+
+        if (request.getAmount() > mockFailAmount) {
+            return ProviderResult.failed(null, "Mock failure: amount exceeds limit");
+        }
+        return ProviderResult.success(null, "MOCK_PAY_" + request.getTicketId());
+    }
+
+    @Override
+    public ProviderResult fetchStatus(String orderId) {
+        return ProviderResult.failed(orderId, "Mock payments never stay pending");
+    }
+}
@@ -0,0 +1,29 @@
+package com.uday.paymentservice.provider;
+
+import com.uday.paymentservice.dto.PaymentRequest;
+
+/**
+ * A payment gateway. Calls are made from the payment pipeline's worker threads,
+ * never from servlet threads, and at most maxConcurrency() at a time.
+ */
+public interface PaymentProvider {
+
+    /**
+     * Mode name selected by payment.mode (MOCK, REAL, STUB, SIMULATED)
+     */
+    String name();
+
+    int maxConcurrency();
+
+    /**
+     * Create the order / charge. May block on the gateway.
+     * @param paymentRef our reference for this attempt, unique per attempt
+     */
+    ProviderResult createOrder(PaymentRequest request, String paymentRef);
+
+    /**
+     * Current state of an order created earlier, for the reconciler.
+     * Returns PENDING while unsettled.
+     */
+    ProviderResult fetchStatus(String orderId);
+}
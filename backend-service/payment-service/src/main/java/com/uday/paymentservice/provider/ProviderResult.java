@@ -0,0 +1,26 @@
+package com.uday.paymentservice.provider;
+
+/**
+ * Outcome of asking a provider to charge: settled right away (SUCCESS/FAILED),
+ * or an order that settles later via webhook or reconciliation (PENDING).
+ */
+public record ProviderResult(Outcome outcome, String orderId, String paymentId, String reason) {
+
+    public enum Outcome {
+        SUCCESS,
+        FAILED,
+        PENDING
+    }
+
+    public static ProviderResult success(String orderId, String paymentId) {
+        return new ProviderResult(Outcome.SUCCESS, orderId, paymentId, null);
+    }
+
+    public static ProviderResult failed(String orderId, String reason) {
+        return new ProviderResult(Outcome.FAILED, orderId, null, reason);
+    }
+
+    public static ProviderResult pending(String orderId) {
+        return new ProviderResult(Outcome.PENDING, orderId, null, null);
+    }
+}
@@ -0,0 +1,74 @@
+package com.uday.paymentservice.provider;
+
+import com.razorpay.Order;
+import com.razorpay.RazorpayClient;
+import com.razorpay.RazorpayException;
+import com.uday.paymentservice.dto.PaymentRequest;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Razorpay orders. Creating an order does not move money: the order stays
+ * PENDING until Razorpay reports it paid (order.paid webhook or order fetch).
+ */
+@Component
+public class RazorpayPaymentProvider implements PaymentProvider {
+
+    @Autowired(required = false)
+    private RazorpayClient razorpayClient;
+
+    @Value("${payment.providers.razorpay.max-concurrency:8}")
+    private int maxConcurrency;
+
+    @Override
+    public String name() {
+        return "REAL";
+    }
+
+    @Override
+    public int maxConcurrency() {
+        return maxConcurrency;
+    }
+
+    @Override
+    public ProviderResult createOrder(PaymentRequest request, String paymentRef) {
+        if (razorpayClient == null) {
+            throw new IllegalStateException(
+                    "Payment mode is REAL but RazorpayClient is not configured"
+            );
+        }
+
+        try {
+            int amount = request.getAmount() * 100; // ₹ → paise
+
+            JSONObject orderRequest = new JSONObject();
+            orderRequest.put("amount", amount);
+            orderRequest.put("currency", "INR");
+            orderRequest.put("receipt", paymentRef);
+
+            Order order = razorpayClient.orders.create(orderRequest);
+            return ProviderResult.pending(String.valueOf((Object) order.get("id")));
+
+        } catch (RazorpayException e) {
+            e.printStackTrace();
+            return ProviderResult.failed(null, e.getMessage());
+        }
+    }
+
+    @Override
+    public ProviderResult fetchStatus(String orderId) {
+        try {
+            Order order = razorpayClient.orders.fetch(orderId);
+            String status = String.valueOf((Object) order.get("status"));
+            if ("paid".equals(status)) {
+                return ProviderResult.success(orderId, null);
+            }
+            return ProviderResult.pending(orderId);
+        } catch (RazorpayException e) {
+            System.err.println("[Payments] Razorpay order fetch failed for " + orderId + ": " + e.getMessage());
+            return ProviderResult.pending(orderId);
+        }
+    }
+}
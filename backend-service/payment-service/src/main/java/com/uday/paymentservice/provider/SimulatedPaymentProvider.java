@@ -0,0 +1,225 @@
+package com.uday.paymentservice.provider;
+
+import com.uday.paymentservice.dto.PaymentRequest;
+import com.uday.paymentservice.dto.SimulatorSettings;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A gateway with injectable latency and faults, for sizing the timeouts,
+ * retries and circuit breakers of callers of /payments/create. Every call
+ * waits a latency drawn from the configured distribution (plus an occasional
+ * spike), then may be throttled, error out, hang until timeoutMs and fail, or
+ * be declined; otherwise it succeeds immediately like MOCK.
+ *
+ * Settings start from payment.simulator.* and can be replaced at runtime via
+ * /payments/admin/simulator. Injected faults are counted in
+ * payment.simulator.injected{fault} and delays timed in payment.simulator.latency.
+ */
+@Component
+public class SimulatedPaymentProvider implements PaymentProvider {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${payment.providers.simulated.max-concurrency:16}")
+    private int maxConcurrency;
+
+    @Value("${payment.simulator.latency:LOG_NORMAL}")
+    private SimulatorSettings.Latency latency;
+
+    @Value("${payment.simulator.latency-ms:300}")
+    private long latencyMs;
+
+    @Value("${payment.simulator.latency-min-ms:100}")
+    private long latencyMinMs;
+
+    @Value("${payment.simulator.latency-max-ms:800}")
+    private long latencyMaxMs;
+
+    @Value("${payment.simulator.latency-sigma:0.5}")
+    private double latencySigma;
+
+    @Value("${payment.simulator.spike-rate:0.01}")
+    private double spikeRate;
+
+    @Value("${payment.simulator.spike-ms:5000}")
+    private long spikeMs;
+
+    @Value("${payment.simulator.error-rate:0.02}")
+    private double errorRate;
+
+    @Value("${payment.simulator.timeout-rate:0.01}")
+    private double timeoutRate;
+
+    @Value("${payment.simulator.timeout-ms:30000}")
+    private long timeoutMs;
+
+    @Value("${payment.simulator.throttle-per-second:0}")
+    private int throttlePerSecond;
+
+    @Value("${payment.simulator.decline-above-amount:0}")
+    private int declineAboveAmount;
+
+    private volatile SimulatorSettings settings;
+
+    private final Map<String, Counter> injected = new LinkedHashMap<>();
+    private Timer delayTimer;
+
+    // fixed one-second window for throttling
+    private long windowStart;
+    private int windowCalls;
+
+    @PostConstruct
+    public void init() {
+        settings = defaults();
+        settings.validate();
+        for (String fault : new String[]{"spike", "error", "timeout", "throttled", "declined"}) {
+            injected.put(fault, Counter.builder("payment.simulator.injected")
+                    .description("Faults injected by the SIMULATED payment provider")
+                    .tag("fault", fault)
+                    .register(meterRegistry));
+        }
+        delayTimer = Timer.builder("payment.simulator.latency")
+                .description("Latency injected by the SIMULATED payment provider")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String name() {
+        return "SIMULATED";
+    }
+
+    @Override
+    public int maxConcurrency() {
+        return maxConcurrency;
+    }
+
+    @Override
+    public ProviderResult createOrder(PaymentRequest request, String paymentRef) {
+        SimulatorSettings s = settings;
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        if (!admit(s.getThrottlePerSecond())) {
+            injected.get("throttled").increment();
+            throw new IllegalStateException("Simulated gateway throttling (429)");
+        }
+
+        long delay = sampleLatency(s, random);
+        if (s.getSpikeRate() > 0 && random.nextDouble() < s.getSpikeRate()) {
+            injected.get("spike").increment();
+            delay += s.getSpikeMs();
+        }
+
+        double roll = random.nextDouble();
+        if (roll < s.getTimeoutRate()) {
+            injected.get("timeout").increment();
+            pause(s.getTimeoutMs());
+            throw new IllegalStateException("Simulated gateway timeout after " + s.getTimeoutMs() + " ms");
+        }
+
+        pause(delay);
+        if (roll < s.getTimeoutRate() + s.getErrorRate()) {
+            injected.get("error").increment();
+            throw new IllegalStateException("Simulated gateway error (502)");
+        }
+        if (s.getDeclineAboveAmount() > 0 && request.getAmount() > s.getDeclineAboveAmount()) {
+            injected.get("declined").increment();
+            return ProviderResult.failed(null, "Simulated decline: amount exceeds limit");
+        }
+        return ProviderResult.success(null, "SIM_PAY_" + paymentRef);
+    }
+
+    @Override
+    public ProviderResult fetchStatus(String orderId) {
+        return ProviderResult.failed(orderId, "Simulated payments never stay pending");
+    }
+
+    public SimulatorSettings getSettings() {
+        return settings.toBuilder().build();
+    }
+
+    public SimulatorSettings updateSettings(SimulatorSettings next) {
+        next.validate();
+        settings = next.toBuilder().build();
+        System.out.println("[Simulator] Settings updated: " + settings);
+        return getSettings();
+    }
+
+    public SimulatorSettings resetSettings() {
+        return updateSettings(defaults());
+    }
+
+    /**
+     * Faults injected since startup, by kind, plus the injected latency percentiles
+     */
+    public Map<String, Object> injectedCounts() {
+        Map<String, Object> counts = new LinkedHashMap<>();
+        injected.forEach((fault, counter) -> counts.put(fault, (long) counter.count()));
+        counts.put("calls", delayTimer.count());
+        counts.put("meanLatencyMs", Math.round(delayTimer.mean(TimeUnit.MILLISECONDS)));
+        counts.put("maxLatencyMs", Math.round(delayTimer.max(TimeUnit.MILLISECONDS)));
+        return counts;
+    }
+
+    private long sampleLatency(SimulatorSettings s, ThreadLocalRandom random) {
+        return switch (s.getLatency()) {
+            case FIXED -> s.getLatencyMs();
+            case UNIFORM -> s.getLatencyMinMs() + (long) (random.nextDouble() * (s.getLatencyMaxMs() - s.getLatencyMinMs()));
+            case LOG_NORMAL -> Math.round(s.getLatencyMs() * Math.exp(s.getLatencySigma() * random.nextGaussian()));
+        };
+    }
+
+    private synchronized boolean admit(int perSecond) {
+        if (perSecond <= 0) {
+            return true;
+        }
+        long now = System.currentTimeMillis();
+        if (now - windowStart >= 1000) {
+            windowStart = now;
+            windowCalls = 0;
+        }
+        return ++windowCalls <= perSecond;
+    }
+
+    private void pause(long millis) {
+        delayTimer.record(Duration.ofMillis(millis));
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private SimulatorSettings defaults() {
+        return SimulatorSettings.builder()
+                .latency(latency)
+                .latencyMs(latencyMs)
+                .latencyMinMs(latencyMinMs)
+                .latencyMaxMs(latencyMaxMs)
+                .latencySigma(latencySigma)
+                .spikeRate(spikeRate)
+                .spikeMs(spikeMs)
+                .errorRate(errorRate)
+                .timeoutRate(timeoutRate)
+                .timeoutMs(timeoutMs)
+                .throttlePerSecond(throttlePerSecond)
+                .declineAboveAmount(declineAboveAmount)
+                .build();
+    }
+}
@@ -0,0 +1,78 @@
+package com.uday.paymentservice.provider;
+
+import com.uday.paymentservice.dto.PaymentRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for a gateway, for running the asynchronous flow offline.
+ * createOrder takes order-latency-ms and returns a pending order; the order
+ * then settles settle-delay-ms later, observed through fetchStatus by the
+ * reconciler (or announced through the webhook endpoint by a test). Amounts
+ * above payment.mock.fail.amount are declined.
+ */
+@Component
+public class StubPaymentProvider implements PaymentProvider {
+
+    @Value("${payment.mock.fail.amount:500}")
+    private int failAmount;
+
+    @Value("${payment.providers.stub.max-concurrency:8}")
+    private int maxConcurrency;
+
+    @Value("${payment.providers.stub.order-latency-ms:200}")
+    private long orderLatencyMs;
+
+    @Value("${payment.providers.stub.settle-delay-ms:3000}")
+    private long settleDelayMs;
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, StubOrder> orders = new ConcurrentHashMap<>();
+
+    private record StubOrder(int amount, long settlesAt) {}
+
+    @Override
+    public String name() {
+        return "STUB";
+    }
+
+    @Override
+    public int maxConcurrency() {
+        return maxConcurrency;
+    }
+
+    @Override
+    public ProviderResult createOrder(PaymentRequest request, String paymentRef) {
+        sleep(orderLatencyMs);
+        String orderId = "stub_order_" + sequence.incrementAndGet();
+        orders.put(orderId, new StubOrder(request.getAmount(), System.currentTimeMillis() + settleDelayMs));
+        return ProviderResult.pending(orderId);
+    }
+
+    @Override
+    public ProviderResult fetchStatus(String orderId) {
+        StubOrder order = orders.get(orderId);
+        if (order == null) {
+            return ProviderResult.failed(orderId, "Unknown stub order");
+        }
+        if (System.currentTimeMillis() < order.settlesAt()) {
+            return ProviderResult.pending(orderId);
+        }
+        orders.remove(orderId);
+        return order.amount() > failAmount
+                ? ProviderResult.failed(orderId, "Stub decline: amount exceeds limit")
+                : ProviderResult.success(orderId, "stub_pay_" + orderId.substring("stub_order_".length()));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.uday.paymentservice.repository;
+
+import com.uday.paymentservice.entity.PaymentLedgerEntry;
+import com.uday.paymentservice.entity.PaymentLedgerEntry.PaymentStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PaymentLedgerRepository extends JpaRepository<PaymentLedgerEntry, Long> {
+
+    Optional<PaymentLedgerEntry> findFirstByTicketIdAndStatus(Long ticketId, PaymentStatus status);
+
+    // latest attempt; served by idx_payment_ledger_ticket (ticketId, id)
+    Optional<PaymentLedgerEntry> findFirstByTicketIdOrderByIdDesc(Long ticketId);
+
+    long countByTicketId(Long ticketId);
+
+    Optional<PaymentLedgerEntry> findFirstByOrderIdOrderByIdDesc(String orderId);
+
+    Optional<PaymentLedgerEntry> findFirstByPaymentRefOrderByIdDesc(String paymentRef);
+
+    /**
+     * PENDING rows that are still the latest row for their ticket (i.e. unsettled),
+     * created before the cutoff; served by the partial pending index
+     */
+    @Query(value = "SELECT * FROM payment_ledger p WHERE p.status = 'PENDING' AND p.created_at < :cutoff " +
+            "AND NOT EXISTS (SELECT 1 FROM payment_ledger q WHERE q.ticket_id = p.ticket_id AND q.id > p.id) " +
+            "ORDER BY p.created_at LIMIT :limit", nativeQuery = true)
+    List<PaymentLedgerEntry> findUnsettled(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
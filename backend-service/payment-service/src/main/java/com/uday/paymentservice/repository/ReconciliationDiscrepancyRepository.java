@@ -0,0 +1,14 @@
+package com.uday.paymentservice.repository;
+
+import com.uday.paymentservice.entity.ReconciliationDiscrepancy;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ReconciliationDiscrepancyRepository extends JpaRepository<ReconciliationDiscrepancy, Long> {
+
+    List<ReconciliationDiscrepancy> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+}
@@ -0,0 +1,9 @@
+package com.uday.paymentservice.repository;
+
+import com.uday.paymentservice.entity.ReconciliationWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReconciliationWatermarkRepository extends JpaRepository<ReconciliationWatermark, String> {
+}
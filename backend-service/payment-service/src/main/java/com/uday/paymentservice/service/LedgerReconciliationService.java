@@ -0,0 +1,332 @@
+package com.uday.paymentservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uday.paymentservice.dto.ReconciliationReport;
+import com.uday.paymentservice.entity.ReconciliationDiscrepancy.Kind;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpMethod;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Finds tickets whose payment ledger and ticket state disagree, e.g. when an
+ * exit paid but failed before closing the ticket, or closed without paying.
+ *
+ * Both sides are read in ticket-id order above the watermark: tickets as an
+ * NDJSON stream from ticketing-service, the ledger as one aggregated row per
+ * ticket from a forward-only cursor. The two are merge-joined, so memory use
+ * does not depend on how many tickets are scanned.
+ *
+ * The watermark only advances over tickets that can no longer change:
+ * closed (or abandoned) longer than settle-grace-ms ago, with no pending
+ * payment. Everything after the first unsettled ticket is still checked, and
+ * is checked again on the next run; discrepancies are recorded once per
+ * ticket and kind. Discrepancies and the new watermark commit together, and a
+ * PostgreSQL advisory lock keeps concurrent runs on other instances out.
+ */
+@Service
+public class LedgerReconciliationService {
+
+    private static final String WATERMARK = "ledger-vs-tickets";
+    private static final long ADVISORY_LOCK_KEY = 0x5041594d52434e4cL; // "PAYMRCNL"
+    private static final int FETCH_SIZE = 1000;
+    private static final int INSERT_BATCH = 500;
+
+    private static final String LEDGER_SQL =
+            "SELECT ticket_id, " +
+            "bool_or(status = 'SUCCESS') AS paid, " +
+            "max(amount) FILTER (WHERE status = 'SUCCESS') AS paid_amount, " +
+            "(array_agg(status ORDER BY id DESC))[1] AS latest_status, " +
+            "max(created_at) AS latest_at " +
+            "FROM payment_ledger WHERE ticket_id > ? GROUP BY ticket_id ORDER BY ticket_id";
+
+    private static final String INSERT_SQL =
+            "INSERT INTO reconciliation_discrepancy (ticket_id, kind, ticket_status, ticket_fee, paid_amount, detail, detected_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT (ticket_id, kind) DO NOTHING";
+
+    @Autowired
+    private RestTemplate loadBalancedRestTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${payment.reconciliation.ticket-stream-url:http://TICKETING-SERVICE:8082/ticketing/internal/tickets/stream}")
+    private String ticketStreamUrl;
+
+    @Value("${payment.reconciliation.start-after-ticket-id:0}")
+    private long startAfterTicketId;
+
+    @Value("${payment.reconciliation.settle-grace-ms:900000}")
+    private long settleGraceMs;
+
+    @Value("${payment.reconciliation.max-open-hours:72}")
+    private long maxOpenHours;
+
+    @Value("${payment.reconciliation.amount-tolerance:1.0}")
+    private double amountTolerance;
+
+    private record TicketRow(long id, String status, Double fee, LocalDateTime entryTime, LocalDateTime exitTime) {}
+
+    private record LedgerRow(long ticketId, boolean paid, Integer paidAmount, String latestStatus, LocalDateTime latestAt) {}
+
+    private record Found(long ticketId, Kind kind, String ticketStatus, Double ticketFee, Integer paidAmount, String detail) {}
+
+    @Scheduled(cron = "${payment.reconciliation.cron:0 */15 * * * *}")
+    public void scheduledRun() {
+        try {
+            ReconciliationReport report = run();
+            if (!report.isSkipped() && report.getNewDiscrepancies() > 0) {
+                System.err.println("[Reconciliation] " + report.getNewDiscrepancies() + " new discrepancies: " + report.getByKind());
+            }
+        } catch (Exception e) {
+            System.err.println("[Reconciliation] Run failed: " + e.getMessage());
+        }
+    }
+
+    public ReconciliationReport run() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        ReconciliationReport report = tx.execute(status -> {
+            Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, ADVISORY_LOCK_KEY);
+            if (!Boolean.TRUE.equals(locked)) {
+                return ReconciliationReport.builder().skipped(true).startedAt(startedAt).build();
+            }
+
+            long from = currentWatermark();
+            Run run = new Run(from, startedAt);
+            loadBalancedRestTemplate.execute(ticketStreamUrl + "?afterId={afterId}", HttpMethod.GET, null, response -> {
+                try (BufferedReader tickets = new BufferedReader(
+                        new InputStreamReader(response.getBody(), StandardCharsets.UTF_8), 64 * 1024)) {
+                    run.tickets = tickets;
+                    run.nextTicket();
+                    streamLedger(from, run::onLedger);
+                    while (run.ticket != null) {
+                        run.check(run.ticket, null);
+                        run.nextTicket();
+                    }
+                }
+                return null;
+            }, from);
+            run.flush();
+
+            jdbcTemplate.update(
+                    "INSERT INTO reconciliation_watermark (name, last_ticket_id, updated_at) VALUES (?, ?, ?) " +
+                    "ON CONFLICT (name) DO UPDATE SET last_ticket_id = EXCLUDED.last_ticket_id, updated_at = EXCLUDED.updated_at",
+                    WATERMARK, run.watermark, Timestamp.valueOf(LocalDateTime.now()));
+
+            return ReconciliationReport.builder()
+                    .fromTicketId(from)
+                    .watermark(run.watermark)
+                    .ticketsScanned(run.ticketsScanned)
+                    .ledgerTicketsScanned(run.ledgerScanned)
+                    .newDiscrepancies(run.inserted)
+                    .byKind(run.byKind)
+                    .startedAt(startedAt)
+                    .build();
+        });
+
+        report.setDurationMs(Duration.between(startedAt, LocalDateTime.now()).toMillis());
+        if (!report.isSkipped()) {
+            System.out.println("[Reconciliation] Tickets " + report.getFromTicketId() + " -> " + report.getWatermark()
+                    + ": " + report.getTicketsScanned() + " tickets, " + report.getLedgerTicketsScanned()
+                    + " ledger tickets, " + report.getNewDiscrepancies() + " new discrepancies in " + report.getDurationMs() + " ms");
+        }
+        return report;
+    }
+
+    public long currentWatermark() {
+        List<Long> stored = jdbcTemplate.queryForList(
+                "SELECT last_ticket_id FROM reconciliation_watermark WHERE name = ?", Long.class, WATERMARK);
+        return stored.isEmpty() ? startAfterTicketId : Math.max(stored.get(0), startAfterTicketId);
+    }
+
+    private void streamLedger(long afterTicketId, Consumer<LedgerRow> sink) {
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(LEDGER_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setLong(1, afterTicketId);
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            int paidAmount = rs.getInt("paid_amount");
+            sink.accept(new LedgerRow(
+                    rs.getLong("ticket_id"),
+                    rs.getBoolean("paid"),
+                    rs.wasNull() ? null : paidAmount,
+                    rs.getString("latest_status"),
+                    rs.getTimestamp("latest_at").toLocalDateTime()));
+        });
+    }
+
+    /**
+     * State of one merge-join pass
+     */
+    private final class Run {
+        final LocalDateTime settledBefore;
+        final LocalDateTime abandonedBefore;
+        final List<Found> batch = new ArrayList<>();
+        final Map<String, Long> byKind = new LinkedHashMap<>();
+
+        BufferedReader tickets;
+        TicketRow ticket;        // current head of the ticket stream, null when exhausted
+        long watermark;
+        boolean blocked;         // an unsettled ticket has been seen; the watermark stays put
+        long ticketsScanned;
+        long ledgerScanned;
+        long inserted;
+
+        Run(long from, LocalDateTime now) {
+            this.watermark = from;
+            this.settledBefore = now.minus(settleGraceMs, ChronoUnit.MILLIS);
+            this.abandonedBefore = now.minusHours(maxOpenHours);
+        }
+
+        void nextTicket() {
+            try {
+                String line;
+                do {
+                    line = tickets.readLine();
+                } while (line != null && line.isBlank());
+                if (line == null) {
+                    ticket = null;
+                    return;
+                }
+                JsonNode node = objectMapper.readTree(line);
+                ticket = new TicketRow(
+                        node.get("id").asLong(),
+                        node.path("status").asText(null),
+                        node.path("fee").isNumber() ? node.get("fee").asDouble() : null,
+                        timestamp(node.path("entryTime")),
+                        timestamp(node.path("exitTime")));
+                ticketsScanned++;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Ticket stream interrupted", e);
+            }
+        }
+
+        void onLedger(LedgerRow ledger) {
+            ledgerScanned++;
+            while (ticket != null && ticket.id() < ledger.ticketId()) {
+                check(ticket, null);
+                nextTicket();
+            }
+            if (ticket != null && ticket.id() == ledger.ticketId()) {
+                check(ticket, ledger);
+                nextTicket();
+            } else {
+                checkOrphan(ledger);
+            }
+        }
+
+        void check(TicketRow t, LedgerRow ledger) {
+            boolean pending = ledger != null && "PENDING".equals(ledger.latestStatus());
+            boolean paid = ledger != null && ledger.paid();
+
+            if ("CLOSED".equals(t.status())) {
+                boolean settled = !pending && (t.exitTime() == null || t.exitTime().isBefore(settledBefore));
+                if (settled) {
+                    double fee = t.fee() != null ? t.fee() : 0;
+                    if (!paid && fee > 0) {
+                        found(new Found(t.id(), Kind.CLOSED_UNPAID, t.status(), t.fee(), null,
+                                "Closed with fee " + fee + ", no successful payment"));
+                    } else if (paid && Math.abs(ledger.paidAmount() - fee) >= amountTolerance) {
+                        found(new Found(t.id(), Kind.AMOUNT_MISMATCH, t.status(), t.fee(), ledger.paidAmount(),
+                                "Paid " + ledger.paidAmount() + " for fee " + fee));
+                    }
+                }
+                advance(t.id(), settled);
+                return;
+            }
+
+            // still active
+            if (paid && ledger.latestAt().isBefore(settledBefore)) {
+                found(new Found(t.id(), Kind.PAID_NOT_CLOSED, t.status(), t.fee(), ledger.paidAmount(),
+                        "Payment succeeded at " + ledger.latestAt() + " but the ticket is still open"));
+            }
+            boolean abandoned = !pending && t.entryTime() != null && t.entryTime().isBefore(abandonedBefore);
+            advance(t.id(), abandoned);
+        }
+
+        void checkOrphan(LedgerRow ledger) {
+            boolean settled = !"PENDING".equals(ledger.latestStatus()) && ledger.latestAt().isBefore(settledBefore);
+            if (settled && ledger.paid()) {
+                found(new Found(ledger.ticketId(), Kind.PAYMENT_WITHOUT_TICKET, null, null, ledger.paidAmount(),
+                        "Successful payment for unknown ticket"));
+            }
+            advance(ledger.ticketId(), settled);
+        }
+
+        void advance(long ticketId, boolean settled) {
+            if (!settled) {
+                blocked = true;
+            } else if (!blocked) {
+                watermark = Math.max(watermark, ticketId);
+            }
+        }
+
+        void found(Found f) {
+            batch.add(f);
+            if (batch.size() >= INSERT_BATCH) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            int[][] counts = jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, f) -> {
+                ps.setLong(1, f.ticketId());
+                ps.setString(2, f.kind().name());
+                ps.setString(3, f.ticketStatus());
+                ps.setObject(4, f.ticketFee());
+                ps.setObject(5, f.paidAmount());
+                ps.setString(6, f.detail());
+                ps.setTimestamp(7, now);
+            });
+            for (int i = 0; i < batch.size(); i++) {
+                // ON CONFLICT DO NOTHING reports 0 for discrepancies already on record
+                if (counts[0][i] > 0) {
+                    inserted++;
+                    byKind.merge(batch.get(i).kind().name(), 1L, Long::sum);
+                }
+            }
+            batch.clear();
+        }
+
+        private LocalDateTime timestamp(JsonNode node) {
+            return node.isTextual() ? LocalDateTime.parse(node.asText()) : null;
+        }
+    }
+}
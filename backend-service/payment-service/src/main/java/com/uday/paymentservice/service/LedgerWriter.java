@@ -0,0 +1,138 @@
+package com.uday.paymentservice.service;
+
+import com.uday.paymentservice.entity.PaymentLedgerEntry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group-commit writer for the payment ledger. Request threads hand over entries
+ * and wait on a future; a single writer thread inserts whatever has queued up
+ * as one JDBC batch in one transaction, so concurrent exits share a commit
+ * instead of each paying for its own. A future completes only once its row is
+ * committed. If a batch fails, its entries are retried one by one so a single
+ * bad row (e.g. a second SUCCESS for a ticket) fails alone.
+ */
+@Component
+public class LedgerWriter {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO payment_ledger (ticket_id, vehicle_number, amount, status, payment_ref, order_id, payment_id, reason, mode, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${payment.ledger.batch-size:200}")
+    private int batchSize;
+
+    @Value("${payment.ledger.queue-capacity:10000}")
+    private int queueCapacity;
+
+    private LinkedBlockingQueue<Pending> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    private record Pending(PaymentLedgerEntry entry, CompletableFuture<PaymentLedgerEntry> done) {}
+
+    @PostConstruct
+    public void start() {
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = new Thread(this::run, "ledger-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join(5000);
+    }
+
+    /**
+     * Queue an entry; the future completes when it is committed
+     */
+    public CompletableFuture<PaymentLedgerEntry> append(PaymentLedgerEntry entry) {
+        CompletableFuture<PaymentLedgerEntry> done = new CompletableFuture<>();
+        if (!running || !queue.offer(new Pending(entry, done))) {
+            done.completeExceptionally(new IllegalStateException("Payment ledger is not accepting writes"));
+        }
+        return done;
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                System.err.println("[Ledger] Writer error: " + e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        try {
+            tx.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(),
+                    (ps, p) -> bind(ps, p.entry())));
+            batch.forEach(p -> p.done().complete(p.entry()));
+        } catch (Exception batchFailure) {
+            if (batch.size() == 1) {
+                batch.get(0).done().completeExceptionally(batchFailure);
+                return;
+            }
+            // isolate the failing row(s)
+            for (Pending p : batch) {
+                try {
+                    tx.executeWithoutResult(status -> jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, p.entry())));
+                    p.done().complete(p.entry());
+                } catch (Exception e) {
+                    p.done().completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    private static void bind(PreparedStatement ps, PaymentLedgerEntry e) throws SQLException {
+        ps.setLong(1, e.getTicketId());
+        ps.setString(2, e.getVehicleNumber());
+        ps.setInt(3, e.getAmount());
+        ps.setString(4, e.getStatus().name());
+        ps.setString(5, e.getPaymentRef());
+        ps.setString(6, e.getOrderId());
+        ps.setString(7, e.getPaymentId());
+        ps.setString(8, e.getReason());
+        ps.setString(9, e.getMode());
+        ps.setTimestamp(10, Timestamp.valueOf(e.getCreatedAt()));
+    }
+}
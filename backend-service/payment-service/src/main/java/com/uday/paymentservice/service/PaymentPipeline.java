@@ -0,0 +1,100 @@
+package com.uday.paymentservice.service;
+
+import com.uday.paymentservice.provider.PaymentProvider;
+import com.uday.paymentservice.provider.ProviderResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs provider calls off the servlet threads: a bounded work queue feeding a
+ * fixed worker pool, with a semaphore per provider capping how many calls are
+ * outstanding against each gateway. A full queue rejects immediately so
+ * callers can back off instead of piling up.
+ */
+@Component
+public class PaymentPipeline {
+
+    @Autowired
+    private List<PaymentProvider> providers;
+
+    @Value("${payment.pipeline.workers:16}")
+    private int workers;
+
+    @Value("${payment.pipeline.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${payment.pipeline.permit-wait-ms:10000}")
+    private long permitWaitMs;
+
+    private ThreadPoolExecutor executor;
+    private final Map<String, Semaphore> permits = new HashMap<>();
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadNo = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "payment-worker-" + threadNo.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        for (PaymentProvider provider : providers) {
+            permits.put(provider.name(), new Semaphore(provider.maxConcurrency()));
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Queue a provider call.
+     * @throws RejectedExecutionException when the work queue is full
+     */
+    public CompletableFuture<ProviderResult> submit(PaymentProvider provider, Supplier<ProviderResult> call) {
+        CompletableFuture<ProviderResult> result = new CompletableFuture<>();
+        Semaphore semaphore = permits.get(provider.name());
+        executor.execute(() -> {
+            boolean acquired = false;
+            try {
+                acquired = semaphore.tryAcquire(permitWaitMs, TimeUnit.MILLISECONDS);
+                if (!acquired) {
+                    result.completeExceptionally(new IllegalStateException(
+                            "Payment provider " + provider.name() + " is saturated"));
+                    return;
+                }
+                result.complete(call.get());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            } finally {
+                if (acquired) {
+                    semaphore.release();
+                }
+            }
+        });
+        return result;
+    }
+
+    public int queuedTasks() {
+        return executor.getQueue().size();
+    }
+}
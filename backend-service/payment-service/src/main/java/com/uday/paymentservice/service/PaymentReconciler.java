@@ -0,0 +1,96 @@
+package com.uday.paymentservice.service;
+
+import com.uday.paymentservice.entity.PaymentLedgerEntry;
+import com.uday.paymentservice.provider.PaymentProvider;
+import com.uday.paymentservice.provider.ProviderResult;
+import com.uday.paymentservice.repository.PaymentLedgerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Settles orders whose webhook never arrived: polls the provider for PENDING
+ * rows older than min-age-ms, and fails orders the provider still reports as
+ * pending after expire-after-ms. Polls go through the payment pipeline so they count
+ * against the provider's concurrency limit like any other call.
+ */
+@Component
+public class PaymentReconciler {
+
+    @Autowired
+    private PaymentLedgerRepository ledgerRepo;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentPipeline pipeline;
+
+    @Value("${payment.reconcile.min-age-ms:5000}")
+    private long minAgeMs;
+
+    @Value("${payment.reconcile.expire-after-ms:1800000}")
+    private long expireAfterMs;
+
+    @Value("${payment.reconcile.batch-size:100}")
+    private int batchSize;
+
+    @Value("${payment.async.local-wait-ttl-ms:600000}")
+    private long localWaitTtlMs;
+
+    @Scheduled(fixedDelayString = "${payment.reconcile.interval-ms:5000}")
+    public void reconcile() {
+        LocalDateTime now = LocalDateTime.now();
+        List<PaymentLedgerEntry> unsettled;
+        try {
+            unsettled = ledgerRepo.findUnsettled(now.minus(minAgeMs, ChronoUnit.MILLIS), batchSize);
+        } catch (Exception e) {
+            System.err.println("[Reconcile] Could not load pending payments: " + e.getMessage());
+            return;
+        }
+
+        LocalDateTime expiry = now.minus(expireAfterMs, ChronoUnit.MILLIS);
+        for (PaymentLedgerEntry entry : unsettled) {
+            boolean expired = entry.getCreatedAt().isBefore(expiry);
+            PaymentProvider provider = paymentService.provider(entry.getMode());
+            if (provider == null || entry.getOrderId() == null) {
+                // never reached a provider, so there is nothing to ask
+                if (expired) {
+                    expire(entry);
+                }
+                continue;
+            }
+            try {
+                pipeline.submit(provider, () -> provider.fetchStatus(entry.getOrderId()))
+                        .thenAccept(result -> {
+                            if (result.outcome() != ProviderResult.Outcome.PENDING) {
+                                paymentService.settle(entry.getOrderId(), result, "reconciler");
+                            } else if (expired) {
+                                expire(entry);
+                            }
+                        })
+                        .exceptionally(e -> {
+                            // not expired on an unknown status: the payment may have been captured
+                            System.err.println("[Reconcile] Status check failed for " + entry.getOrderId() + ": " + e.getMessage());
+                            return null;
+                        });
+            } catch (RejectedExecutionException e) {
+                // queue full with live traffic; try the rest next round
+                break;
+            }
+        }
+
+        paymentService.expireLocal(now.minus(localWaitTtlMs, ChronoUnit.MILLIS));
+    }
+
+    private void expire(PaymentLedgerEntry entry) {
+        paymentService.settle(entry.getOrderId(),
+                ProviderResult.failed(entry.getOrderId(), "Payment not completed in time"), "expiry");
+    }
+}
@@ -0,0 +1,352 @@
+package com.uday.paymentservice.service;
+
+import com.uday.paymentservice.dto.PaymentRequest;
+import com.uday.paymentservice.dto.PaymentStatusResponse;
+import com.uday.paymentservice.entity.PaymentLedgerEntry;
+import com.uday.paymentservice.entity.PaymentLedgerEntry.PaymentStatus;
+import com.uday.paymentservice.exception.PaymentConflictException;
+import com.uday.paymentservice.provider.PaymentProvider;
+import com.uday.paymentservice.provider.ProviderResult;
+import com.uday.paymentservice.repository.PaymentLedgerRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Charges tickets through the configured provider and records every step in
+ * the payment ledger.
+ *
+ * Provider calls run on the PaymentPipeline; callers get a handle whose result
+ * completes when the payment settles. Providers that settle later (Razorpay
+ * orders, the stub) leave a PENDING row that a webhook or the reconciler
+ * settles. Creation is idempotent per ticket and amount: a paid ticket returns
+ * its recorded success, and a ticket with a payment in progress returns that
+ * payment instead of starting another. A repeat for a different amount is a
+ * PaymentConflictException, never a duplicate success.
+ */
+@Service
+public class PaymentService {
+
+    @Autowired
+    private PaymentLedgerRepository ledgerRepo;
+
+    @Autowired
+    private LedgerWriter ledgerWriter;
+
+    @Autowired
+    private PaymentPipeline pipeline;
+
+    @Autowired
+    private List<PaymentProvider> providerList;
+
+    @Value("${payment.mode:MOCK}")
+    private String paymentMode;
+
+    @Value("${payment.ledger.write-timeout-ms:5000}")
+    private long writeTimeoutMs;
+
+    private final Map<String, PaymentProvider> providers = new HashMap<>();
+
+    // payments started on this instance and not yet settled, by ticket and by provider order id
+    private final ConcurrentHashMap<Long, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, InFlight> awaitingSettlement = new ConcurrentHashMap<>();
+
+    // webhook and reconciler may report the same order at once
+    private final ConcurrentHashMap<String, Object> settleLocks = new ConcurrentHashMap<>();
+
+    private static final class InFlight {
+        final Long ticketId;
+        final String paymentRef;
+        final int amount;
+        final CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+        final LocalDateTime startedAt = LocalDateTime.now();
+
+        InFlight(Long ticketId, String paymentRef, int amount) {
+            this.ticketId = ticketId;
+            this.paymentRef = paymentRef;
+            this.amount = amount;
+        }
+    }
+
+    /**
+     * Reference for a payment and its eventual outcome
+     */
+    public record PaymentHandle(Long ticketId, String paymentRef, CompletableFuture<Map<String, Object>> result) {}
+
+    @PostConstruct
+    public void init() {
+        for (PaymentProvider p : providerList) {
+            providers.put(p.name(), p);
+        }
+        if (!providers.containsKey(paymentMode.toUpperCase())) {
+            throw new IllegalStateException("Unknown payment.mode " + paymentMode + ", expected one of " + providers.keySet());
+        }
+    }
+
+    public PaymentHandle createPayment(PaymentRequest request) {
+        if (request.getTicketId() == null) {
+            throw new IllegalArgumentException("ticketId is required");
+        }
+        Long ticketId = request.getTicketId();
+
+        Optional<PaymentLedgerEntry> paid = ledgerRepo.findFirstByTicketIdAndStatus(ticketId, PaymentStatus.SUCCESS);
+        if (paid.isPresent()) {
+            requireAmount(paid.get().getAmount(), request, "already paid");
+            System.out.println("Ticket " + ticketId + " already paid, returning recorded result");
+            return completed(paid.get(), true);
+        }
+
+        InFlight running = inFlight.get(ticketId);
+        if (running != null) {
+            return joined(running, request);
+        }
+
+        Optional<PaymentLedgerEntry> latest = ledgerRepo.findFirstByTicketIdOrderByIdDesc(ticketId);
+        if (latest.isPresent() && latest.get().getStatus() == PaymentStatus.PENDING) {
+            // started elsewhere (or before a restart) and still unsettled
+            requireAmount(latest.get().getAmount(), request, "has a pending payment");
+            return completed(latest.get(), true);
+        }
+
+        InFlight mine = new InFlight(ticketId, "PAY-" + ticketId + "-" + UUID.randomUUID().toString().substring(0, 8),
+                request.getAmount());
+        InFlight raced = inFlight.putIfAbsent(ticketId, mine);
+        if (raced != null) {
+            return joined(raced, request);
+        }
+
+        PaymentProvider provider = providers.get(paymentMode.toUpperCase());
+        try {
+            pipeline.submit(provider, () -> provider.createOrder(request, mine.paymentRef))
+                    .whenComplete((result, error) -> onProviderResult(mine, request, provider, result, error));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(ticketId, mine);
+            throw new IllegalStateException("Payment queue is full, please retry shortly");
+        }
+        return new PaymentHandle(ticketId, mine.paymentRef, mine.result);
+    }
+
+    private static PaymentHandle joined(InFlight running, PaymentRequest request) {
+        requireAmount(running.amount, request, "has a payment in progress");
+        return new PaymentHandle(running.ticketId, running.paymentRef, running.result.thenApply(PaymentService::duplicateOf));
+    }
+
+    private static void requireAmount(int recorded, PaymentRequest request, String state) {
+        if (recorded != request.getAmount()) {
+            throw new PaymentConflictException("Ticket " + request.getTicketId() + " " + state + " for Rs." + recorded
+                    + ", not Rs." + request.getAmount());
+        }
+    }
+
+    // runs on a pipeline worker
+    private void onProviderResult(InFlight flight, PaymentRequest request, PaymentProvider provider,
+                                  ProviderResult result, Throwable error) {
+        PaymentLedgerEntry.PaymentLedgerEntryBuilder entry = PaymentLedgerEntry.builder()
+                .ticketId(request.getTicketId())
+                .vehicleNumber(request.getVehicleNumber())
+                .amount(request.getAmount())
+                .paymentRef(flight.paymentRef)
+                .mode(provider.name());
+
+        if (error != null) {
+            entry.status(PaymentStatus.FAILED).reason(rootMessage(error));
+        } else {
+            entry.orderId(result.orderId()).paymentId(result.paymentId()).reason(result.reason())
+                    .status(switch (result.outcome()) {
+                        case SUCCESS -> PaymentStatus.SUCCESS;
+                        case FAILED -> PaymentStatus.FAILED;
+                        case PENDING -> PaymentStatus.PENDING;
+                    });
+        }
+        PaymentLedgerEntry recorded = entry.build();
+
+        try {
+            Map<String, Object> response = record(recorded);
+            if (recorded.getStatus() == PaymentStatus.PENDING) {
+                awaitingSettlement.put(recorded.getOrderId(), flight);
+                System.out.println("Payment " + flight.paymentRef + " pending as order " + recorded.getOrderId());
+                return;
+            }
+            finish(flight, response);
+        } catch (RuntimeException e) {
+            inFlight.remove(flight.ticketId, flight);
+            flight.result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Settle a pending order (webhook, reconciler). Idempotent: an order that is
+     * already settled, or superseded by a later attempt, is left alone.
+     * @return false if no such order is known
+     */
+    public boolean settle(String orderId, ProviderResult outcome, String source) {
+        Object lock = settleLocks.computeIfAbsent(orderId, k -> new Object());
+        synchronized (lock) {
+            try {
+                Optional<PaymentLedgerEntry> found = ledgerRepo.findFirstByOrderIdOrderByIdDesc(orderId);
+                if (found.isEmpty()) {
+                    return false;
+                }
+                PaymentLedgerEntry pending = found.get();
+                Optional<PaymentLedgerEntry> latest = ledgerRepo.findFirstByTicketIdOrderByIdDesc(pending.getTicketId());
+                if (pending.getStatus() != PaymentStatus.PENDING
+                        || latest.map(l -> !l.getId().equals(pending.getId())).orElse(false)) {
+                    return true;
+                }
+
+                PaymentLedgerEntry settled = PaymentLedgerEntry.builder()
+                        .ticketId(pending.getTicketId())
+                        .vehicleNumber(pending.getVehicleNumber())
+                        .amount(pending.getAmount())
+                        .paymentRef(pending.getPaymentRef())
+                        .orderId(orderId)
+                        .paymentId(outcome.paymentId())
+                        .reason(outcome.reason())
+                        .mode(pending.getMode())
+                        .status(outcome.outcome() == ProviderResult.Outcome.SUCCESS ? PaymentStatus.SUCCESS : PaymentStatus.FAILED)
+                        .build();
+                Map<String, Object> response = record(settled);
+                System.out.println("Payment " + pending.getPaymentRef() + " settled " + settled.getStatus() + " via " + source);
+
+                InFlight flight = awaitingSettlement.remove(orderId);
+                if (flight != null) {
+                    finish(flight, response);
+                }
+                return true;
+            } finally {
+                settleLocks.remove(orderId, lock);
+            }
+        }
+    }
+
+    /**
+     * Drop local waiters for payments older than the cutoff; their callers
+     * already got a PENDING response and will see the outcome in the ledger
+     */
+    public void expireLocal(LocalDateTime cutoff) {
+        inFlight.values().removeIf(f -> {
+            boolean stale = f.startedAt.isBefore(cutoff);
+            if (stale) {
+                f.result.complete(pendingResponse(f.ticketId, f.paymentRef));
+            }
+            return stale;
+        });
+        awaitingSettlement.values().removeIf(f -> f.startedAt.isBefore(cutoff));
+    }
+
+    public PaymentProvider provider(String name) {
+        return providers.get(name);
+    }
+
+    /**
+     * Latest ledger state for a ticket, for exit flows to check before paying
+     */
+    public PaymentStatusResponse getStatus(Long ticketId) {
+        Optional<PaymentLedgerEntry> paid = ledgerRepo.findFirstByTicketIdAndStatus(ticketId, PaymentStatus.SUCCESS);
+        Optional<PaymentLedgerEntry> latest = paid.isPresent() ? paid : ledgerRepo.findFirstByTicketIdOrderByIdDesc(ticketId);
+
+        if (latest.isEmpty()) {
+            return PaymentStatusResponse.builder().ticketId(ticketId).status("NONE").build();
+        }
+        PaymentLedgerEntry e = latest.get();
+        return PaymentStatusResponse.builder()
+                .ticketId(ticketId)
+                .status(e.getStatus().name())
+                .paid(e.getStatus() == PaymentStatus.SUCCESS)
+                .paymentRef(e.getPaymentRef())
+                .paymentId(e.getPaymentId())
+                .amount(e.getAmount())
+                .reason(e.getReason())
+                .attempts(ledgerRepo.countByTicketId(ticketId))
+                .updatedAt(e.getCreatedAt())
+                .build();
+    }
+
+    public static Map<String, Object> pendingResponse(Long ticketId, String paymentRef) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("status", PaymentStatus.PENDING.name());
+        body.put("ticketId", ticketId);
+        body.put("paymentRef", paymentRef);
+        return body;
+    }
+
+    // durable append; a second SUCCESS for the ticket resolves to the first one
+    private Map<String, Object> record(PaymentLedgerEntry entry) {
+        try {
+            ledgerWriter.append(entry).get(writeTimeoutMs, TimeUnit.MILLISECONDS);
+            return toResponse(entry);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DataIntegrityViolationException && entry.getStatus() == PaymentStatus.SUCCESS) {
+                return ledgerRepo.findFirstByTicketIdAndStatus(entry.getTicketId(), PaymentStatus.SUCCESS)
+                        .map(p -> duplicateOf(toResponse(p)))
+                        .orElseThrow(() -> new IllegalStateException("Payment ledger write failed", e.getCause()));
+            }
+            throw new IllegalStateException("Payment ledger write failed: " + e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Payment ledger write timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while recording payment");
+        }
+    }
+
+    private void finish(InFlight flight, Map<String, Object> response) {
+        inFlight.remove(flight.ticketId, flight);
+        flight.result.complete(response);
+    }
+
+    private static PaymentHandle completed(PaymentLedgerEntry entry, boolean duplicate) {
+        Map<String, Object> body = toResponse(entry);
+        return new PaymentHandle(entry.getTicketId(), entry.getPaymentRef(),
+                CompletableFuture.completedFuture(duplicate ? duplicateOf(body) : body));
+    }
+
+    private static Map<String, Object> toResponse(PaymentLedgerEntry e) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("status", e.getStatus().name());
+        body.put("ticketId", e.getTicketId());
+        body.put("amount", e.getAmount());
+        if (e.getPaymentRef() != null) {
+            body.put("paymentRef", e.getPaymentRef());
+        }
+        if (e.getOrderId() != null) {
+            body.put("orderId", e.getOrderId());
+            body.put("currency", "INR");
+        }
+        if (e.getPaymentId() != null) {
+            body.put("paymentId", e.getPaymentId());
+        }
+        if (e.getReason() != null) {
+            body.put("reason", e.getReason());
+        }
+        return body;
+    }
+
+    private static Map<String, Object> duplicateOf(Map<String, Object> result) {
+        Map<String, Object> body = new HashMap<>(result);
+        body.put("duplicate", true);
+        return body;
+    }
+
+    private static String rootMessage(Throwable t) {
+        while (t.getCause() != null) {
+            t = t.getCause();
+        }
+        return t.getMessage();
+    }
+}
@@ -0,0 +1,47 @@
+package com.uday.ticketingservice.Controller;
+
+import com.uday.ticketingservice.Service.FeeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/ticketing/fees")
+public class FeeController {
+
+    @Autowired
+    private FeeService feeService;
+
+    /**
+     * Current fee for a ticket, for exit kiosks to show and pre-authorize
+     * GET /ticketing/fees/quote?ticketId=42
+     */
+    @GetMapping("/quote")
+    public ResponseEntity<?> quote(@RequestParam Long ticketId) {
+        try {
+            return ResponseEntity.ok(feeService.quote(ticketId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Re-price tickets closed between two dates under the current tariff (admin only, read-only audit)
+     * POST /ticketing/fees/admin/reprice?from=2024-01-01&to=2024-02-01
+     */
+    @PostMapping("/admin/reprice")
+    public ResponseEntity<?> reprice(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            return ResponseEntity.ok(feeService.reprice(from.atStartOfDay(), to.atStartOfDay()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
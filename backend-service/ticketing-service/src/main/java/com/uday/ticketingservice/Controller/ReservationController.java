@@ -1,12 +1,16 @@
 package com.uday.ticketingservice.Controller;
 
 import com.uday.ticketingservice.DTO.*;
+import com.uday.ticketingservice.Service.ExportService;
 import com.uday.ticketingservice.Service.ReservationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -21,6 +25,9 @@ public class ReservationController {
     @Autowired
     private ReservationService reservationService;
 
+    @Autowired
+    private ExportService exportService;
+
     @GetMapping("/health")
     public String health() {
         return "Reservation service running";
@@ -41,11 +48,31 @@ public class ReservationController {
         }
     }
 
+    /**
+     * Reservations still in the live table; archived ones only appear in /reservations/page
+     * GET /reservations?email=user@email.com
+     */
     @GetMapping
     public List<ReservationResponse> getUserReservations(@RequestParam String email) {
         return reservationService.getUserReservations(email);
     }
 
+    /**
+     * User reservation history, newest first, with keyset pagination
+     * GET /reservations/page?email=user@email.com&cursor=...&limit=20
+     */
+    @GetMapping("/page")
+    public ResponseEntity<?> getUserReservationsPage(
+            @RequestParam String email,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(reservationService.getUserReservationsPage(email, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(error(e));
+        }
+    }
+
     @GetMapping("/active")
     public List<ReservationResponse> getActiveReservations(@RequestParam String email) {
         return reservationService.getUserActiveReservations(email);
@@ -111,6 +138,32 @@ public class ReservationController {
         return reservationService.getAllReservations();
     }
 
+    // streams reservations starting in [from, to] (dates inclusive) as csv or ndjson
+    @GetMapping("/admin/export")
+    public ResponseEntity<?> exportReservations(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format) {
+        ExportService.Format fmt;
+        try {
+            fmt = ExportService.Format.from(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(error(e));
+        }
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "'to' must not be before 'from'"));
+        }
+
+        StreamingResponseBody body = out ->
+            exportService.exportReservations(from.atStartOfDay(), to.plusDays(1).atStartOfDay(), fmt, out);
+
+        return ResponseEntity.ok()
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"reservations_" + from + "_" + to + "." + fmt.getExtension() + "\"")
+            .contentType(MediaType.parseMediaType(fmt.getContentType()))
+            .body(body);
+    }
+
     private Map<String, String> error(Exception e) {
         return Map.of("error", e.getMessage());
     }
@@ -3,12 +3,20 @@ package com.uday.ticketingservice.Controller;
 import com.uday.ticketingservice.DTO.CreateTicketRequest;
 import com.uday.ticketingservice.DTO.SystemStatsResponse;
 import com.uday.ticketingservice.DTO.TicketResponse;
+import com.uday.ticketingservice.DTO.TicketSearchCriteria;
+import com.uday.ticketingservice.DTO.UserTicketOverview;
 import com.uday.ticketingservice.Entity.Ticket;
+import com.uday.ticketingservice.Entity.Ticket.TicketStatus;
+import com.uday.ticketingservice.Service.ExportService;
 import com.uday.ticketingservice.ticketService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.Map;
 
 import java.util.List;
@@ -20,6 +28,9 @@ public class TicketController {
     @Autowired
     private ticketService ticketService;
 
+    @Autowired
+    private ExportService exportService;
+
     @GetMapping
     public ResponseEntity<String> ticketsHome() {
         return ResponseEntity.ok("Ticketing Service is up and running!");
@@ -57,7 +68,7 @@ public class TicketController {
     }
 
     /**
-     * Get all tickets for a user
+     * Get a user's tickets still in the live table; archived ones only appear in /user/tickets/page
      * GET /ticketing/user/tickets?email=user@email.com
      */
     @GetMapping("/user/tickets")
@@ -65,6 +76,31 @@ public class TicketController {
         return ResponseEntity.ok(ticketService.getUserTickets(email));
     }
 
+    /**
+     * User ticket history, newest first, with keyset pagination
+     * GET /ticketing/user/tickets/page?email=user@email.com&cursor=...&limit=20
+     */
+    @GetMapping("/user/tickets/page")
+    public ResponseEntity<?> getUserTicketsPage(
+            @RequestParam String email,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(ticketService.getUserTicketsPage(email, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Active tickets and ticket count for the user dashboard (cached per user)
+     * GET /ticketing/user/overview?email=user@email.com
+     */
+    @GetMapping("/user/overview")
+    public ResponseEntity<UserTicketOverview> getUserTicketOverview(@RequestParam String email) {
+        return ResponseEntity.ok(ticketService.getUserTicketOverview(email));
+    }
+
     /**
      * Get active tickets for a user
      * GET /ticketing/user/tickets/active?email=user@email.com
@@ -122,6 +158,68 @@ public class TicketController {
         return ResponseEntity.ok(ticketService.getAllActiveTickets());
     }
 
+    /**
+     * Search tickets with optional filters and keyset pagination (admin only)
+     * GET /ticketing/admin/tickets/search?status=ACTIVE&levelId=1&from=...&to=...&cursor=...&limit=50
+     * Pass the returned nextCursor to fetch the following page.
+     */
+    @GetMapping("/admin/tickets/search")
+    public ResponseEntity<?> searchTickets(
+            @RequestParam(required = false) TicketStatus status,
+            @RequestParam(required = false) Long levelId,
+            @RequestParam(required = false) Long spotId,
+            @RequestParam(required = false) String vehicleNumber,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        TicketSearchCriteria criteria = TicketSearchCriteria.builder()
+                .status(status)
+                .levelId(levelId)
+                .spotId(spotId)
+                .vehicleNumber(vehicleNumber)
+                .userEmail(email)
+                .from(from)
+                .to(to)
+                .build();
+        try {
+            return ResponseEntity.ok(ticketService.searchTickets(criteria, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Stream tickets entered in a date range as CSV or NDJSON (admin / finance)
+     * GET /ticketing/admin/tickets/export?from=2024-01-01&to=2024-01-31&format=csv
+     * Both dates are inclusive. Rows are written as they are read from the database.
+     */
+    @GetMapping("/admin/tickets/export")
+    public ResponseEntity<?> exportTickets(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "csv") String format) {
+        ExportService.Format fmt;
+        try {
+            fmt = ExportService.Format.from(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().body(Map.of("error", "'to' must not be before 'from'"));
+        }
+
+        StreamingResponseBody body = out ->
+                exportService.exportTickets(from.atStartOfDay(), to.plusDays(1).atStartOfDay(), fmt, out);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"tickets_" + from + "_" + to + "." + fmt.getExtension() + "\"")
+                .contentType(MediaType.parseMediaType(fmt.getContentType()))
+                .body(body);
+    }
+
     /**
      * Get system statistics (admin only)
      * GET /ticketing/admin/stats
@@ -131,6 +229,47 @@ public class TicketController {
         return ResponseEntity.ok(ticketService.getSystemStats());
     }
 
+    /**
+     * Recount the stats counters from the ticket and reservation tables (admin only)
+     * POST /ticketing/admin/stats/rebuild
+     */
+    @PostMapping("/admin/stats/rebuild")
+    public ResponseEntity<SystemStatsResponse> rebuildSystemStats() {
+        return ResponseEntity.ok(ticketService.rebuildSystemStats());
+    }
+
+    /**
+     * Look up the open ticket for a plate (admin / gate devices)
+     * GET /ticketing/admin/tickets/active/by-plate?vehicleNumber=KA01AB1234
+     */
+    @GetMapping("/admin/tickets/active/by-plate")
+    public ResponseEntity<?> getActiveTicketByPlate(@RequestParam String vehicleNumber) {
+        try {
+            return ResponseEntity.ok(ticketService.getActiveTicketByPlate(vehicleNumber));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Exit the open ticket for a plate (admin / gate devices)
+     * PUT /ticketing/admin/exit/by-plate?vehicleNumber=KA01AB1234
+     */
+    @PutMapping("/admin/exit/by-plate")
+    public ResponseEntity<?> exitByPlate(@RequestParam String vehicleNumber) {
+        TicketResponse active;
+        try {
+            active = ticketService.getActiveTicketByPlate(vehicleNumber);
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        }
+        try {
+            return ResponseEntity.ok(ticketService.exit(active.getId()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
     /**
      * Get any ticket by ID (admin only)
      * GET /ticketing/admin/tickets/{ticketId}
@@ -149,6 +288,20 @@ public class TicketController {
         return ResponseEntity.ok(ticketService.exit(ticketId));
     }
 
+    // ========== INTERNAL ENDPOINTS ==========
+
+    /**
+     * All tickets with id > afterId in id order, as NDJSON (used by payment-service reconciliation)
+     * GET /ticketing/internal/tickets/stream?afterId=0
+     */
+    @GetMapping("/internal/tickets/stream")
+    public ResponseEntity<StreamingResponseBody> streamTickets(@RequestParam(defaultValue = "0") long afterId) {
+        StreamingResponseBody body = out -> exportService.exportTicketsAfter(afterId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ExportService.Format.NDJSON.getContentType()))
+                .body(body);
+    }
+
     // ========== LEGACY ENDPOINTS (backward compatible) ==========
 
     @PostMapping("/create")
@@ -175,8 +328,14 @@ public class TicketController {
     }
 
     @PutMapping("/exit/{ticketId}")
-    public ResponseEntity<Ticket> exit(@PathVariable Long ticketId) {
-        return ResponseEntity.ok(ticketService.exit(ticketId));
+    public ResponseEntity<?> exit(@PathVariable Long ticketId) {
+        try {
+            return ResponseEntity.ok(ticketService.exit(ticketId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     @GetMapping("/{ticketId}")
@@ -0,0 +1,36 @@
+package com.uday.ticketingservice.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    /**
+     * Build a page from a query that fetched pageSize + 1 rows.
+     * The extra row only signals that another page exists and is dropped.
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int pageSize, Function<T, KeysetCursor> cursorOf) {
+        boolean hasMore = rows.size() > pageSize;
+        List<T> items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        String next = hasMore ? cursorOf.apply(items.get(items.size() - 1)).encode() : null;
+
+        return CursorPage.<T>builder()
+                .items(items)
+                .nextCursor(next)
+                .hasMore(hasMore)
+                .build();
+    }
+}
@@ -0,0 +1,31 @@
+package com.uday.ticketingservice.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fee for an open ticket as of quotedAt. The amount is exact until validUntil,
+ * so exit kiosks can display and pre-authorize it before the exit call.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class FeeQuote {
+    private Long ticketId;
+    private String vehicleNumber;
+    private Long spotId;
+    private Long levelId;
+    private String spotType;
+    private LocalDateTime entryTime;
+    private LocalDateTime quotedAt;
+    private LocalDateTime validUntil;
+    private long durationMinutes;
+    private long billedHours;
+    private double amount;
+    private boolean closed;   // ticket already exited; amount is the fee charged
+}
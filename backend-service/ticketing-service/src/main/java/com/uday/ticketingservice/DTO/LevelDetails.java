@@ -0,0 +1,31 @@
+package com.uday.ticketingservice.DTO;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Subset of parking-lot-service's GET /parking/levels/details response
+ * needed to resolve a spot's type for pricing.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class LevelDetails {
+    private Long id;
+    private List<Spot> spots;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Spot {
+        private Long id;
+        private String spotType;
+        private Long levelId;
+    }
+}
@@ -11,6 +11,7 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class PaymentResponse {
     private String status;
+    private String paymentRef;
     private String paymentId;
     private String reason;
     private String orderId;
@@ -0,0 +1,37 @@
+package com.uday.ticketingservice.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of re-pricing closed tickets under the current tariff (audit only, nothing is updated)
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RepriceReport {
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private long ticketsScanned;
+    private long mismatches;
+    private double chargedTotal;
+    private double repricedTotal;
+    @Builder.Default
+    private List<Mismatch> samples = new ArrayList<>();   // first MAX_SAMPLES mismatches
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Mismatch {
+        private Long ticketId;
+        private double charged;
+        private double repriced;
+    }
+}
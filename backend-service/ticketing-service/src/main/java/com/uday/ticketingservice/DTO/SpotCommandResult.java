@@ -0,0 +1,22 @@
+package com.uday.ticketingservice.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SpotCommandResult {
+    private String commandId;
+    private Outcome outcome;
+    private String message;
+
+    public enum Outcome {
+        APPLIED,    // state changed (or was already as requested)
+        DUPLICATE,  // command id seen before, nothing done
+        REJECTED    // can never succeed, e.g. unknown spot
+    }
+}
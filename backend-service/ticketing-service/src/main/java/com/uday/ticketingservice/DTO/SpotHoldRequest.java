@@ -0,0 +1,18 @@
+package com.uday.ticketingservice.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class SpotHoldRequest {
+    private Long reservationId;
+    private Long spotId;
+    private LocalDateTime heldUntil;
+}
@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
 @Data
 @Builder
 @AllArgsConstructor
@@ -14,4 +16,5 @@ public class SystemStatsResponse {
     private long activeTickets;
     private long closedTickets;
     private long activeVehicles;
+    private Map<String, Long> reservationsByStatus;
 }
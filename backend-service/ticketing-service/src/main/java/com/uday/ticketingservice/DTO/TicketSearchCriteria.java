@@ -0,0 +1,27 @@
+package com.uday.ticketingservice.DTO;
+
+import com.uday.ticketingservice.Entity.Ticket.TicketStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Optional filters for the admin ticket search. Null fields are ignored.
+ * The entry-time range is half open: from <= entryTime < to.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TicketSearchCriteria {
+    private TicketStatus status;
+    private Long levelId;
+    private Long spotId;
+    private String vehicleNumber;
+    private String userEmail;
+    private LocalDateTime from;
+    private LocalDateTime to;
+}
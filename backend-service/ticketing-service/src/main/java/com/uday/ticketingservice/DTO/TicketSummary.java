@@ -0,0 +1,27 @@
+package com.uday.ticketingservice.DTO;
+
+import com.uday.ticketingservice.Entity.Ticket.TicketStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight ticket row selected directly by search queries
+ * (no entity is loaded into the persistence context).
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TicketSummary {
+    private Long id;
+    private String userEmail;
+    private String vehicleNumber;
+    private Long spotId;
+    private Long levelId;
+    private LocalDateTime entryTime;
+    private LocalDateTime exitTime;
+    private TicketStatus status;
+    private Double fee;
+}
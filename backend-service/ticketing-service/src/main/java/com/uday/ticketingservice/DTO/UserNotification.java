@@ -0,0 +1,24 @@
+package com.uday.ticketingservice.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A notification addressed to users by email; notification-service resolves
+ * their device tokens (POST /api/notifications/users/batch takes a list)
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserNotification {
+    private List<String> userEmails;
+    private String title;
+    private String body;
+    private Map<String, String> data;
+}
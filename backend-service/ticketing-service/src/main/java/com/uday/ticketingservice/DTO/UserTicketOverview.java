@@ -0,0 +1,20 @@
+package com.uday.ticketingservice.DTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Everything the user dashboard needs on first paint; cached per user.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class UserTicketOverview {
+    private List<TicketResponse> activeTickets;
+    private long totalTickets;
+}
@@ -0,0 +1,79 @@
+package com.uday.ticketingservice.Entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Spot command for parking-lot-service, written in the same transaction as the
+ * ticket change that caused it and delivered later by the outbox relay.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "outbox_event",
+    uniqueConstraints = {
+        @UniqueConstraint(name = "uk_outbox_command_id", columnNames = "commandId")
+    },
+    indexes = {
+        @Index(name = "idx_outbox_status_next_attempt", columnList = "status, nextAttemptAt"),
+        @Index(name = "idx_outbox_status_sent_at", columnList = "status, sentAt")
+    }
+)
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // idempotency key sent to parking-lot-service, e.g. "RELEASE-ticket-42"
+    @Column(nullable = false, length = 100)
+    private String commandId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private CommandType type;
+
+    @Column(nullable = false)
+    private Long spotId;
+
+    private Long ticketId;
+
+    private Long reservationId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private OutboxStatus status = OutboxStatus.PENDING;
+
+    @Builder.Default
+    private int attempts = 0;
+
+    @Column(nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(nullable = false, updatable = false)
+    @Builder.Default
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    private LocalDateTime sentAt;
+
+    @Column(length = 500)
+    private String lastError;
+
+    public enum CommandType {
+        OCCUPY,
+        RELEASE,
+        CONFIRM_HOLD,   // checked-in reservation takes over its held spot
+        RELEASE_HOLD    // cancelled / no-show reservation gives its held spot back
+    }
+
+    public enum OutboxStatus {
+        PENDING,    // waiting for (re)delivery
+        SENT,       // acknowledged by parking-lot-service
+        FAILED      // permanently rejected by parking-lot-service, kept for inspection
+    }
+}
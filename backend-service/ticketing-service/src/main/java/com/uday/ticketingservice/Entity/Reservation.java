@@ -12,7 +12,7 @@ import java.time.LocalDateTime;
 @Builder
 @Table(name = "reservation",
     indexes = {
-        @Index(name = "idx_reservation_user_email", columnList = "userEmail"),
+        @Index(name = "idx_reservation_user_start", columnList = "userEmail, startTime, id"),
         @Index(name = "idx_reservation_status", columnList = "status"),
         @Index(name = "idx_reservation_start_time", columnList = "startTime"),
         @Index(name = "idx_reservation_spot_time", columnList = "spotId, startTime, endTime")
@@ -52,11 +52,18 @@ public class Reservation {
 
     private Long ticketId; // set after check-in
 
+    private LocalDateTime spotHeldAt; // set once parking-lot-service holds the spot for this reservation
+
+    // claimed by ReservationReminderService when the reminder is sent
+    private LocalDateTime startReminderSentAt;
+
+    private LocalDateTime closingReminderSentAt;
+
     @Column(updatable = false)
     @Builder.Default
     private LocalDateTime createdAt = LocalDateTime.now();
 
-    private static final int GRACE_MINUTES = 10;
+    public static final int GRACE_MINUTES = 10;
 
     // check-in window: 10 min before to 10 min after start
     public boolean canCheckIn(LocalDateTime now) {
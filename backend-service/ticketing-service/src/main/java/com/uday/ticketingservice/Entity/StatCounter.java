@@ -0,0 +1,38 @@
+package com.uday.ticketingservice.Entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * One slot of a striped counter behind /ticketing/admin/stats. A counter's
+ * value is the sum of its slots; writers pick a random slot so concurrent
+ * ticket transactions do not all queue on the same row lock.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@IdClass(StatCounter.Key.class)
+@Table(name = "stat_counter")
+public class StatCounter {
+
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Id
+    private int slot;
+
+    @Column(nullable = false)
+    private long value;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String name;
+        private int slot;
+    }
+}
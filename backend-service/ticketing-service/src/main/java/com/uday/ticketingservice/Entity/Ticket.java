@@ -9,7 +9,16 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "ticket")
+@Table(name = "ticket",
+    indexes = {
+        @Index(name = "idx_ticket_entry_time", columnList = "entryTime, id"),
+        @Index(name = "idx_ticket_status_entry_time", columnList = "status, entryTime, id"),
+        @Index(name = "idx_ticket_level_entry_time", columnList = "levelId, entryTime, id"),
+        @Index(name = "idx_ticket_spot_entry_time", columnList = "spotId, entryTime, id"),
+        @Index(name = "idx_ticket_vehicle_entry_time", columnList = "vehicleNumber, entryTime, id"),
+        @Index(name = "idx_ticket_user_email_entry_time", columnList = "userEmail, entryTime, id")
+    }
+)
 public class Ticket {
 
     @Id
@@ -41,6 +50,11 @@ public class Ticket {
     // Fee calculated on exit
     private Double fee;
 
+    // Exit time and fee priced by the first exit attempt; reused while its payment is pending
+    private LocalDateTime quotedExitTime;
+
+    private Double quotedFee;
+
     public enum TicketStatus {
         ACTIVE,
         CLOSED
@@ -0,0 +1,30 @@
+package com.uday.ticketingservice.Repository;
+
+import com.uday.ticketingservice.Entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    boolean existsByCommandId(String commandId);
+
+    // rows locked by another relay instance are skipped, not waited on
+    @Query(value = "SELECT * FROM outbox_event " +
+                   "WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+                   "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockNextBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    long countByStatus(OutboxEvent.OutboxStatus status);
+
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM outbox_event WHERE id IN (" +
+                   "SELECT id FROM outbox_event WHERE status = 'SENT' AND sent_at < :cutoff LIMIT :limit)", nativeQuery = true)
+    int deleteSentBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
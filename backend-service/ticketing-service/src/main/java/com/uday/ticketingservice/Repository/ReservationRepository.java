@@ -2,7 +2,9 @@ package com.uday.ticketingservice.Repository;
 
 import com.uday.ticketingservice.Entity.Reservation;
 import com.uday.ticketingservice.Entity.ReservationStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -19,6 +21,19 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
 
     Optional<Reservation> findByIdAndUserEmail(Long id, String userEmail);
 
+    // user history keyset pages on (userEmail, startTime, id), newest first
+    @Query("SELECT r FROM Reservation r WHERE r.userEmail = :email " +
+           "ORDER BY r.startTime DESC, r.id DESC")
+    List<Reservation> findUserPage(@Param("email") String email, Pageable page);
+
+    @Query("SELECT r FROM Reservation r WHERE r.userEmail = :email " +
+           "AND (r.startTime < :time OR (r.startTime = :time AND r.id < :id)) " +
+           "ORDER BY r.startTime DESC, r.id DESC")
+    List<Reservation> findUserPageAfter(@Param("email") String email,
+                                        @Param("time") LocalDateTime time,
+                                        @Param("id") Long id,
+                                        Pageable page);
+
     @Query("SELECT r FROM Reservation r WHERE r.userEmail = :email " +
            "AND r.status IN ('CREATED', 'ACTIVE') " +
            "ORDER BY r.startTime ASC")
@@ -88,6 +103,24 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
         @Param("date") LocalDate date
     );
 
+    // for hold scheduler: not yet held, check-in window opening soon and not yet closed
+    @Query("SELECT r FROM Reservation r " +
+           "WHERE r.status = 'CREATED' " +
+           "AND r.spotHeldAt IS NULL " +
+           "AND r.startTime <= :holdFrom " +
+           "AND r.startTime > :windowClosed " +
+           "ORDER BY r.startTime ASC")
+    List<Reservation> findReservationsToHold(
+        @Param("holdFrom") LocalDateTime holdFrom,
+        @Param("windowClosed") LocalDateTime windowClosed,
+        Pageable page
+    );
+
+    @Modifying
+    @Query("UPDATE Reservation r SET r.spotHeldAt = :heldAt " +
+           "WHERE r.id IN :ids AND r.status = 'CREATED' AND r.spotHeldAt IS NULL")
+    int markSpotsHeld(@Param("ids") List<Long> ids, @Param("heldAt") LocalDateTime heldAt);
+
     // for expiry scheduler
     @Query("SELECT r FROM Reservation r " +
            "WHERE r.status = 'CREATED' " +
@@ -98,6 +131,16 @@ public interface ReservationRepository extends JpaRepository<Reservation, Long>
 
     List<Reservation> findAllByOrderByStartTimeDesc();
 
+    // (levelId, spotId) held back by live reservations starting before :until and not yet ended
+    @Query("SELECT DISTINCT r.levelId, r.spotId FROM Reservation r " +
+           "WHERE r.status IN ('CREATED', 'ACTIVE') " +
+           "AND r.startTime <= :until " +
+           "AND r.endTime > :now")
+    List<Object[]> findBlockedSpots(
+        @Param("now") LocalDateTime now,
+        @Param("until") LocalDateTime until
+    );
+
     // get spot IDs currently blocked by reservations at the given time
     @Query("SELECT DISTINCT r.spotId FROM Reservation r " +
            "WHERE r.levelId = :levelId " +
@@ -3,12 +3,15 @@ package com.uday.ticketingservice.Repository;
 import com.uday.ticketingservice.Entity.Ticket;
 import com.uday.ticketingservice.Entity.Ticket.TicketStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
-public interface TicketRepository extends JpaRepository<Ticket, Long> {
+public interface TicketRepository extends JpaRepository<Ticket, Long>, TicketSearchRepository {
 
     // Find by vehicle number
     Optional<Ticket> findByVehicleNumber(String vehicleNumber);
@@ -16,6 +19,20 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
     // Find active ticket for vehicle
     Optional<Ticket> findByVehicleNumberAndExitTimeIsNull(String vehicleNumber);
 
+    // Active ticket by normalized plate - served by the partial unique index uk_ticket_active_plate
+    @Query(value = "SELECT * FROM ticket " +
+                   "WHERE upper(regexp_replace(vehicle_number, '[[:space:]-]', '', 'g')) = :plate " +
+                   "AND exit_time IS NULL", nativeQuery = true)
+    Optional<Ticket> findActiveByNormalizedPlate(@Param("plate") String normalizedPlate);
+
+    // (id, vehicleNumber) of every open ticket, used to seed the active-plate registry
+    @Query("SELECT t.id, t.vehicleNumber FROM Ticket t WHERE t.exitTime IS NULL")
+    List<Object[]> findActiveTicketPlates();
+
+    @Modifying
+    @Query("UPDATE Ticket t SET t.quotedExitTime = :exitTime, t.quotedFee = :fee WHERE t.id = :id AND t.exitTime IS NULL")
+    int saveExitQuote(@Param("id") Long id, @Param("exitTime") LocalDateTime exitTime, @Param("fee") Double fee);
+
     // ========== USER-SPECIFIC QUERIES ==========
 
     // Find all tickets for a user
@@ -30,6 +47,8 @@ public interface TicketRepository extends JpaRepository<Ticket, Long> {
     // Find active tickets for a user by email
     List<Ticket> findByUserEmailAndStatus(String userEmail, TicketStatus status);
 
+    long countByUserEmail(String userEmail);
+
     // Find ticket by ID and user (for ownership validation)
     Optional<Ticket> findByIdAndUserId(Long id, String userId);
 
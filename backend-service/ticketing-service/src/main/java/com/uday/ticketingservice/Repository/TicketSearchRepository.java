@@ -0,0 +1,13 @@
+package com.uday.ticketingservice.Repository;
+
+import com.uday.ticketingservice.DTO.KeysetCursor;
+import com.uday.ticketingservice.DTO.TicketSearchCriteria;
+import com.uday.ticketingservice.DTO.TicketSummary;
+
+import java.util.List;
+
+public interface TicketSearchRepository {
+
+    // Keyset search ordered by (entryTime DESC, id DESC); "after" is null for the first page
+    List<TicketSummary> searchTickets(TicketSearchCriteria criteria, KeysetCursor after, int limit);
+}
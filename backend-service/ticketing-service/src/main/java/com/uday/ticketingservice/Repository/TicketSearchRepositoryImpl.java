@@ -0,0 +1,86 @@
+package com.uday.ticketingservice.Repository;
+
+import com.uday.ticketingservice.DTO.KeysetCursor;
+import com.uday.ticketingservice.DTO.TicketSearchCriteria;
+import com.uday.ticketingservice.DTO.TicketSummary;
+import com.uday.ticketingservice.Entity.Ticket;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the search query from only the filters that are present, so each
+ * request can be served by one of the composite (column, entryTime, id)
+ * indexes declared on Ticket instead of a full table scan.
+ */
+public class TicketSearchRepositoryImpl implements TicketSearchRepository {
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<TicketSummary> searchTickets(TicketSearchCriteria criteria, KeysetCursor after, int limit) {
+        CriteriaBuilder cb = em.getCriteriaBuilder();
+        CriteriaQuery<TicketSummary> query = cb.createQuery(TicketSummary.class);
+        Root<Ticket> t = query.from(Ticket.class);
+
+        Path<LocalDateTime> entryTime = t.get("entryTime");
+        Path<Long> id = t.get("id");
+
+        List<Predicate> where = new ArrayList<>();
+        if (criteria.getStatus() != null) {
+            where.add(cb.equal(t.get("status"), criteria.getStatus()));
+        }
+        if (criteria.getLevelId() != null) {
+            where.add(cb.equal(t.get("levelId"), criteria.getLevelId()));
+        }
+        if (criteria.getSpotId() != null) {
+            where.add(cb.equal(t.get("spotId"), criteria.getSpotId()));
+        }
+        if (criteria.getVehicleNumber() != null) {
+            where.add(cb.equal(t.get("vehicleNumber"), criteria.getVehicleNumber()));
+        }
+        if (criteria.getUserEmail() != null) {
+            where.add(cb.equal(t.get("userEmail"), criteria.getUserEmail()));
+        }
+        if (criteria.getFrom() != null) {
+            where.add(cb.greaterThanOrEqualTo(entryTime, criteria.getFrom()));
+        }
+        if (criteria.getTo() != null) {
+            where.add(cb.lessThan(entryTime, criteria.getTo()));
+        }
+
+        // keyset: rows strictly after the last (entryTime, id) seen, in DESC order
+        if (after != null) {
+            where.add(cb.or(
+                    cb.lessThan(entryTime, after.getTime()),
+                    cb.and(cb.equal(entryTime, after.getTime()), cb.lessThan(id, after.getId()))
+            ));
+        }
+
+        query.select(cb.construct(TicketSummary.class,
+                        id,
+                        t.get("userEmail"),
+                        t.get("vehicleNumber"),
+                        t.get("spotId"),
+                        t.get("levelId"),
+                        entryTime,
+                        t.get("exitTime"),
+                        t.get("status"),
+                        t.get("fee")))
+                .where(where.toArray(new Predicate[0]))
+                .orderBy(cb.desc(entryTime), cb.desc(id));
+
+        return em.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
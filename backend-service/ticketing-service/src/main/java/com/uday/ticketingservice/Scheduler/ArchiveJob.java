@@ -0,0 +1,59 @@
+package com.uday.ticketingservice.Scheduler;
+
+import com.uday.ticketingservice.Service.ArchiveService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ArchiveJob {
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Value("${ticketing.archive.enabled:true}")
+    private boolean enabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        ensurePartitions();
+    }
+
+    /**
+     * Once a day, make sure archive partitions exist for the coming months.
+     */
+    @Scheduled(cron = "${ticketing.archive.partition-cron:0 0 1 * * *}")
+    public void ensurePartitions() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            archiveService.ensurePartitions();
+        } catch (Exception e) {
+            System.err.println("[Scheduler] Error creating archive partitions: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Nightly move of CLOSED tickets and finished reservations older than
+     * the retention window out of the live tables.
+     */
+    @Scheduled(cron = "${ticketing.archive.cron:0 30 2 * * *}")
+    public void archiveColdData() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long archived = archiveService.archiveColdData();
+            if (archived > 0) {
+                System.out.println("[Scheduler] Archived " + archived + " rows");
+            }
+        } catch (Exception e) {
+            System.err.println("[Scheduler] Error archiving cold data: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
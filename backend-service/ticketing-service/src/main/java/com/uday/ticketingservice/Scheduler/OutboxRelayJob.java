@@ -0,0 +1,45 @@
+package com.uday.ticketingservice.Scheduler;
+
+import com.uday.ticketingservice.Service.OutboxService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class OutboxRelayJob {
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Value("${ticketing.outbox.batch-size:100}")
+    private int batchSize;
+
+    /**
+     * Drain due outbox commands to parking-lot-service, one batch at a time,
+     * until a partial batch shows the backlog is empty.
+     */
+    @Scheduled(fixedDelayString = "${ticketing.outbox.relay-interval-ms:1000}")
+    public void relay() {
+        try {
+            int handled;
+            do {
+                handled = outboxService.relayBatch();
+            } while (handled >= batchSize);
+        } catch (Exception e) {
+            System.err.println("[Scheduler] Error relaying outbox: " + e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ticketing.outbox.prune-interval-ms:3600000}")
+    public void prune() {
+        try {
+            int deleted = outboxService.pruneSent();
+            if (deleted > 0) {
+                System.out.println("[Scheduler] Pruned " + deleted + " sent outbox events");
+            }
+        } catch (Exception e) {
+            System.err.println("[Scheduler] Error pruning outbox: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.uday.ticketingservice.Scheduler;
+
+import com.uday.ticketingservice.Service.ReservationReminderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ReservationReminderJob {
+
+    @Autowired
+    private ReservationReminderService reminderService;
+
+    /**
+     * Every minute, load reminders coming due within the horizon into the timer wheel.
+     */
+    @Scheduled(initialDelay = 5000, fixedDelayString = "${ticketing.reminders.load-interval-ms:60000}")
+    public void loadUpcomingReminders() {
+        try {
+            int loaded = reminderService.loadUpcoming();
+            if (loaded > 0) {
+                System.out.println("[Scheduler] Loaded reminders for " + loaded + " reservations, "
+                        + reminderService.pending() + " pending");
+            }
+        } catch (Exception e) {
+            System.err.println("[Scheduler] Error loading reservation reminders: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Every second, send the reminders that have come due.
+     */
+    @Scheduled(initialDelay = 10000, fixedDelayString = "${ticketing.reminders.tick-ms:1000}")
+    public void sendDueReminders() {
+        try {
+            int sent = reminderService.tick();
+            if (sent > 0) {
+                System.out.println("[Scheduler] Sent " + sent + " reservation reminders");
+            }
+        } catch (Exception e) {
+            System.err.println("[Scheduler] Error sending reservation reminders: " + e.getMessage());
+        }
+    }
+}
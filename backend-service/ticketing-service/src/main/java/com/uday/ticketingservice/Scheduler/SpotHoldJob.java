@@ -0,0 +1,28 @@
+package com.uday.ticketingservice.Scheduler;
+
+import com.uday.ticketingservice.Service.ReservationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+public class SpotHoldJob {
+
+    @Autowired
+    private ReservationService reservationService;
+
+    /**
+     * Every minute, hold the spots of reservations whose check-in window is about to open.
+     */
+    @Scheduled(fixedDelayString = "${ticketing.holds.interval-ms:60000}")
+    public void holdUpcomingSpots() {
+        try {
+            int held = reservationService.holdUpcomingSpots();
+            if (held > 0) {
+                System.out.println("[Scheduler] Held spots for " + held + " upcoming reservations");
+            }
+        } catch (Exception e) {
+            System.err.println("[Scheduler] Error holding reservation spots: " + e.getMessage());
+        }
+    }
+}
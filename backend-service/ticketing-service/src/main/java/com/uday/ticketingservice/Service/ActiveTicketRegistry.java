@@ -0,0 +1,164 @@
+package com.uday.ticketingservice.Service;
+
+import com.uday.ticketingservice.Entity.Ticket;
+import com.uday.ticketingservice.Repository.TicketRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Registry of parking sessions in progress, keyed by normalized plate.
+ *
+ * A Redis hash maps plate -> active ticket id so a duplicate tap or an
+ * exit-by-plate is a single HGET plus a primary-key read; a miss is confirmed
+ * on the partial index. The database stays the source of truth:
+ * a partial unique index on the normalized plate WHERE exit_time IS NULL
+ * (see SchemaInitializer) guarantees at most one active ticket per vehicle,
+ * and a transaction-scoped advisory lock per plate serializes concurrent
+ * duplicate taps so the second one sees the first one's ticket.
+ */
+@Service
+public class ActiveTicketRegistry {
+
+    private static final String KEY = "ticketing:active-plates";
+
+    @Autowired
+    private StringRedisTemplate redis;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TicketRepository ticketRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Uppercase, no whitespace or dashes: "ka-01 ab 1234" -> "KA01AB1234".
+     * Must stay in sync with the expression of uk_ticket_active_plate.
+     */
+    public static String normalize(String plate) {
+        if (plate == null) {
+            return null;
+        }
+        return plate.replaceAll("[\\s-]", "").toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Block until no other transaction is creating a ticket for this plate.
+     * Released automatically on commit or rollback.
+     */
+    public void lockPlate(String normalizedPlate) {
+        jdbcTemplate.query("SELECT pg_advisory_xact_lock(hashtext(?))",
+                rs -> null, "ticket:" + normalizedPlate);
+    }
+
+    /**
+     * Ticket id registered for the plate.
+     * @throws org.springframework.dao.DataAccessException when Redis is unavailable,
+     *         so callers can tell an outage from a miss
+     */
+    public Optional<Long> lookup(String normalizedPlate) {
+        Object id = redis.opsForHash().get(KEY, normalizedPlate);
+        return id != null ? Optional.of(Long.valueOf(id.toString())) : Optional.empty();
+    }
+
+    /**
+     * An insert hit uk_ticket_active_plate although no open ticket was found.
+     * Re-read the open ticket in a separate transaction (the caller's is aborted
+     * by the failed insert) and register it so the next attempt sees it.
+     */
+    public Optional<Long> repair(String normalizedPlate) {
+        try {
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            tx.setReadOnly(true);
+            Optional<Long> id = tx.execute(status ->
+                    ticketRepo.findActiveByNormalizedPlate(normalizedPlate).map(Ticket::getId));
+            if (id != null && id.isPresent()) {
+                redis.opsForHash().put(KEY, normalizedPlate, id.get().toString());
+                return id;
+            }
+        } catch (Exception e) {
+            System.out.println("Could not repair active ticket registry: " + e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    // only visible once the ticket row is committed
+    public void registerAfterCommit(String normalizedPlate, Long ticketId) {
+        afterCommit(() -> redis.opsForHash().put(KEY, normalizedPlate, ticketId.toString()));
+    }
+
+    public void removeAfterCommit(String normalizedPlate) {
+        afterCommit(() -> remove(normalizedPlate));
+    }
+
+    public void remove(String normalizedPlate) {
+        try {
+            redis.opsForHash().delete(KEY, normalizedPlate);
+        } catch (Exception e) {
+            System.out.println("Failed to remove plate from active registry: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Re-seed the registry from the database on startup. Entries are only added,
+     * never cleared, so tickets created while this runs are not lost; stale
+     * entries are detected and dropped on read.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try {
+            List<Object[]> active = ticketRepo.findActiveTicketPlates();
+            Map<String, String> entries = new HashMap<>();
+            for (Object[] row : active) {
+                String plate = normalize((String) row[1]);
+                if (plate != null) {
+                    entries.put(plate, row[0].toString());
+                }
+            }
+            if (!entries.isEmpty()) {
+                redis.opsForHash().putAll(KEY, entries);
+            }
+            System.out.println("Active ticket registry loaded with " + entries.size() + " plates");
+        } catch (Exception e) {
+            System.out.println("Could not rebuild active ticket registry: " + e.getMessage());
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        Runnable safe = () -> {
+            try {
+                action.run();
+            } catch (Exception e) {
+                System.out.println("Active ticket registry update failed: " + e.getMessage());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    safe.run();
+                }
+            });
+        } else {
+            safe.run();
+        }
+    }
+}
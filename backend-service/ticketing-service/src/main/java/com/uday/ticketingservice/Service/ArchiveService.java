@@ -0,0 +1,410 @@
+package com.uday.ticketingservice.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uday.ticketingservice.DTO.KeysetCursor;
+import com.uday.ticketingservice.DTO.TicketSearchCriteria;
+import com.uday.ticketingservice.DTO.TicketSummary;
+import com.uday.ticketingservice.Entity.Reservation;
+import com.uday.ticketingservice.Entity.ReservationStatus;
+import com.uday.ticketingservice.Entity.Ticket.TicketStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the live ticket and reservation tables small by moving cold rows
+ * (CLOSED tickets, finished reservations) out of them once they are older
+ * than the retention window.
+ *
+ * TABLE mode moves rows into ticket_archive / reservation_archive, which are
+ * range-partitioned by month on entry_time / start_time. Partitions are
+ * created ahead of time and on demand for the months being archived.
+ * FILE mode appends rows to gzip'd NDJSON files (one per table and month)
+ * and deletes them from the live table.
+ *
+ * The live tables themselves stay unpartitioned: PostgreSQL requires the
+ * partition key in every unique constraint, which would break the identity
+ * primary key JPA relies on.
+ *
+ * Reads that can reach archived rows (admin ticket search, user ticket and
+ * reservation history, exports) also query the archive tables, but only when
+ * the live page reaches back past archiveCutoff(). Rows archived in FILE mode
+ * are not queryable and drop out of those reads.
+ */
+@Service
+public class ArchiveService {
+
+    public enum Mode { TABLE, FILE }
+
+    private static final String TICKET_COLD =
+            "status = 'CLOSED' AND entry_time < ?";
+    private static final String RESERVATION_COLD =
+            "(status IN ('EXPIRED', 'CANCELLED') OR (status = 'ACTIVE' AND end_time < ?)) AND start_time < ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${ticketing.archive.mode:TABLE}")
+    private Mode mode;
+
+    @Value("${ticketing.archive.retention-months:6}")
+    private int retentionMonths;
+
+    @Value("${ticketing.archive.months-ahead:2}")
+    private int monthsAhead;
+
+    @Value("${ticketing.archive.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${ticketing.archive.file-dir:archive}")
+    private String fileDir;
+
+    // ========== PARTITION MANAGEMENT ==========
+
+    /**
+     * Create the partitioned archive tables (if missing), bring their columns in
+     * line with the live tables and create partitions for the next months.
+     */
+    public void ensurePartitions() {
+        ensureArchiveTable("ticket", "ticket_archive", "entry_time");
+        ensureArchiveTable("reservation", "reservation_archive", "start_time");
+
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            createMonthlyPartition("ticket_archive", current.plusMonths(i));
+            createMonthlyPartition("reservation_archive", current.plusMonths(i));
+        }
+    }
+
+    private void ensureArchiveTable(String source, String archive, String partitionColumn) {
+        execute("CREATE TABLE IF NOT EXISTS " + archive + " (LIKE " + source + " INCLUDING DEFAULTS) " +
+                "PARTITION BY RANGE (" + partitionColumn + ")");
+        execute("CREATE TABLE IF NOT EXISTS " + archive + "_default PARTITION OF " + archive + " DEFAULT");
+        execute("CREATE INDEX IF NOT EXISTS idx_" + archive + "_id ON " + archive + " (id)");
+        execute("CREATE INDEX IF NOT EXISTS idx_" + archive + "_user_email ON " + archive + " (user_email)");
+        // newest-first keyset reads (history pages, admin search)
+        execute("CREATE INDEX IF NOT EXISTS idx_" + archive + "_user_time ON " + archive +
+                " (user_email, " + partitionColumn + ", id)");
+        execute("CREATE INDEX IF NOT EXISTS idx_" + archive + "_time ON " + archive + " (" + partitionColumn + ", id)");
+
+        // columns added to the live table after the archive was created
+        List<Map<String, Object>> missing = jdbcTemplate.queryForList(
+                "SELECT a.attname AS name, format_type(a.atttypid, a.atttypmod) AS type " +
+                "FROM pg_attribute a " +
+                "WHERE a.attrelid = ?::regclass AND a.attnum > 0 AND NOT a.attisdropped AND a.attgenerated = '' " +
+                "AND a.attname NOT IN (SELECT b.attname FROM pg_attribute b " +
+                "    WHERE b.attrelid = ?::regclass AND b.attnum > 0 AND NOT b.attisdropped)",
+                source, archive);
+        for (Map<String, Object> column : missing) {
+            execute("ALTER TABLE " + archive + " ADD COLUMN IF NOT EXISTS \"" + column.get("name") + "\" " + column.get("type"));
+        }
+    }
+
+    private void createMonthlyPartition(String archive, YearMonth month) {
+        LocalDate from = month.atDay(1);
+        LocalDate to = month.plusMonths(1).atDay(1);
+        String partition = String.format("%s_p%d_%02d", archive, month.getYear(), month.getMonthValue());
+        execute("CREATE TABLE IF NOT EXISTS " + partition + " PARTITION OF " + archive +
+                " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+    }
+
+    // ========== ARCHIVING ==========
+
+    /**
+     * Move every cold row older than the retention window out of the live tables.
+     * Runs in batches, each in its own transaction, so the live tables are never
+     * locked for long.
+     * @return number of rows archived (tickets + reservations)
+     */
+    public long archiveColdData() {
+        LocalDateTime cutoff = archiveCutoff();
+        Timestamp ts = Timestamp.valueOf(cutoff);
+
+        long tickets = archiveTable("ticket", "ticket_archive", "entry_time", TICKET_COLD, new Object[]{ts});
+        long reservations = archiveTable("reservation", "reservation_archive", "start_time", RESERVATION_COLD, new Object[]{ts, ts});
+
+        if (tickets + reservations > 0) {
+            System.out.println("[Archive] Moved " + tickets + " tickets and " + reservations +
+                    " reservations older than " + cutoff + " (" + mode + ")");
+        }
+        return tickets + reservations;
+    }
+
+    private long archiveTable(String source, String archive, String timeColumn, String coldFilter, Object[] params) {
+        if (mode == Mode.TABLE) {
+            ensureArchiveTable(source, archive, timeColumn);
+            ensurePartitionsForColdRows(source, archive, timeColumn, coldFilter, params);
+        }
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        long total = 0;
+        while (true) {
+            Integer moved = tx.execute(status -> mode == Mode.TABLE
+                    ? moveBatchToTable(source, archive, coldFilter, params)
+                    : moveBatchToFiles(source, timeColumn, coldFilter, params));
+            if (moved == null || moved == 0) {
+                return total;
+            }
+            total += moved;
+        }
+    }
+
+    private void ensurePartitionsForColdRows(String source, String archive, String timeColumn,
+                                             String coldFilter, Object[] params) {
+        Timestamp oldest = jdbcTemplate.queryForObject(
+                "SELECT min(" + timeColumn + ") FROM " + source + " WHERE " + coldFilter, Timestamp.class, params);
+        if (oldest == null) {
+            return;
+        }
+        YearMonth month = YearMonth.from(oldest.toLocalDateTime());
+        YearMonth last = YearMonth.now();
+        while (!month.isAfter(last)) {
+            createMonthlyPartition(archive, month);
+            month = month.plusMonths(1);
+        }
+    }
+
+    private int moveBatchToTable(String source, String archive, String coldFilter, Object[] params) {
+        String columns = liveColumns(source);
+        Object[] args = append(params, batchSize);
+
+        return jdbcTemplate.update(
+                "WITH moved AS (" +
+                "  DELETE FROM " + source + " WHERE id IN (" +
+                "    SELECT id FROM " + source + " WHERE " + coldFilter +
+                "    ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED)" +
+                "  RETURNING *) " +
+                "INSERT INTO " + archive + " (" + columns + ") SELECT " + columns + " FROM moved",
+                args);
+    }
+
+    /**
+     * Rows are written before they are deleted; if the delete does not commit the
+     * next run archives them again, so files may contain duplicates but never lose rows.
+     */
+    private int moveBatchToFiles(String source, String timeColumn, String coldFilter, Object[] params) {
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT * FROM " + source + " WHERE " + coldFilter + " ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED",
+                append(params, batchSize));
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        Map<YearMonth, List<Map<String, Object>>> byMonth = new LinkedHashMap<>();
+        for (Map<String, Object> row : rows) {
+            Timestamp time = (Timestamp) row.get(timeColumn);
+            YearMonth month = time != null ? YearMonth.from(time.toLocalDateTime()) : YearMonth.of(1970, 1);
+            byMonth.computeIfAbsent(month, m -> new ArrayList<>()).add(row);
+        }
+
+        try {
+            Path dir = Files.createDirectories(Paths.get(fileDir));
+            for (Map.Entry<YearMonth, List<Map<String, Object>>> entry : byMonth.entrySet()) {
+                Path file = dir.resolve(source + "-" + entry.getKey() + ".ndjson.gz");
+                // each append is a complete gzip member; concatenated members are a valid gzip stream
+                try (Writer writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(
+                        Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND)),
+                        StandardCharsets.UTF_8))) {
+                    for (Map<String, Object> row : entry.getValue()) {
+                        writer.write(objectMapper.writeValueAsString(toJsonRow(row)));
+                        writer.write('\n');
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write archive file", e);
+        }
+
+        Long[] ids = rows.stream().map(r -> ((Number) r.get("id")).longValue()).toArray(Long[]::new);
+        jdbcTemplate.update(con -> {
+            var ps = con.prepareStatement("DELETE FROM " + source + " WHERE id = ANY (?)");
+            ps.setArray(1, con.createArrayOf("bigint", ids));
+            return ps;
+        });
+        return rows.size();
+    }
+
+    // ========== READING ARCHIVED ROWS ==========
+
+    /**
+     * Every archived row is older than this, for the current retention setting
+     */
+    public LocalDateTime archiveCutoff() {
+        return YearMonth.now().minusMonths(retentionMonths).atDay(1).atStartOfDay();
+    }
+
+    public boolean hasArchiveTable(String archive) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, archive));
+    }
+
+    /**
+     * Complete a newest-first keyset page of at most limit rows with archived
+     * rows. The archive is only queried when the live page came back short or
+     * already reaches rows older than the cutoff; otherwise every archived row
+     * sorts after it.
+     */
+    public <T> List<T> withArchived(List<T> live, int limit, String archive,
+                                    Function<T, LocalDateTime> time, Function<T, Long> id,
+                                    Supplier<List<T>> archived) {
+        boolean reachesCutoff = live.size() < limit
+                || time.apply(live.get(live.size() - 1)).isBefore(archiveCutoff());
+        if (!reachesCutoff || !hasArchiveTable(archive)) {
+            return live;
+        }
+        List<T> merged = new ArrayList<>(live);
+        merged.addAll(archived.get());
+        merged.sort(Comparator.comparing(time).thenComparing(id).reversed());
+        return merged.size() > limit ? merged.subList(0, limit) : merged;
+    }
+
+    /**
+     * Archived tickets matching the search criteria, newest first. Only CLOSED
+     * tickets are ever archived.
+     */
+    public List<TicketSummary> searchArchivedTickets(TicketSearchCriteria criteria, KeysetCursor after, int limit) {
+        if (criteria.getStatus() != null && criteria.getStatus() != TicketStatus.CLOSED) {
+            return List.of();
+        }
+        StringBuilder sql = new StringBuilder(
+                "SELECT id, user_email, vehicle_number, spot_id, level_id, entry_time, exit_time, status, fee " +
+                "FROM ticket_archive WHERE TRUE");
+        List<Object> args = new ArrayList<>();
+        filter(sql, args, "level_id = ?", criteria.getLevelId());
+        filter(sql, args, "spot_id = ?", criteria.getSpotId());
+        filter(sql, args, "vehicle_number = ?", criteria.getVehicleNumber());
+        filter(sql, args, "user_email = ?", criteria.getUserEmail());
+        filter(sql, args, "entry_time >= ?", criteria.getFrom() != null ? Timestamp.valueOf(criteria.getFrom()) : null);
+        filter(sql, args, "entry_time < ?", criteria.getTo() != null ? Timestamp.valueOf(criteria.getTo()) : null);
+        keyset(sql, args, "entry_time", after);
+        sql.append(" ORDER BY entry_time DESC, id DESC LIMIT ?");
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), (rs, n) -> new TicketSummary(
+                rs.getLong("id"),
+                rs.getString("user_email"),
+                rs.getString("vehicle_number"),
+                rs.getObject("spot_id", Long.class),
+                rs.getObject("level_id", Long.class),
+                toLocal(rs.getTimestamp("entry_time")),
+                toLocal(rs.getTimestamp("exit_time")),
+                TicketStatus.valueOf(rs.getString("status")),
+                rs.getObject("fee", Double.class)), args.toArray());
+    }
+
+    /**
+     * A user's archived reservations, newest start first, as detached entities
+     */
+    public List<Reservation> findArchivedUserReservations(String email, KeysetCursor after, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM reservation_archive WHERE user_email = ?");
+        List<Object> args = new ArrayList<>(List.of(email));
+        keyset(sql, args, "start_time", after);
+        sql.append(" ORDER BY start_time DESC, id DESC LIMIT ?");
+        args.add(limit);
+
+        return jdbcTemplate.query(sql.toString(), (rs, n) -> Reservation.builder()
+                .id(rs.getLong("id"))
+                .userId(rs.getString("user_id"))
+                .userEmail(rs.getString("user_email"))
+                .vehicleNumber(rs.getString("vehicle_number"))
+                .spotId(rs.getLong("spot_id"))
+                .levelId(rs.getLong("level_id"))
+                .startTime(toLocal(rs.getTimestamp("start_time")))
+                .endTime(toLocal(rs.getTimestamp("end_time")))
+                .status(ReservationStatus.valueOf(rs.getString("status")))
+                .ticketId(rs.getObject("ticket_id", Long.class))
+                .createdAt(toLocal(rs.getTimestamp("created_at")))
+                .build(), args.toArray());
+    }
+
+    private void filter(StringBuilder sql, List<Object> args, String condition, Object value) {
+        if (value != null) {
+            sql.append(" AND ").append(condition);
+            args.add(value);
+        }
+    }
+
+    // rows strictly after the last (time, id) seen, in DESC order
+    private void keyset(StringBuilder sql, List<Object> args, String timeColumn, KeysetCursor after) {
+        if (after != null) {
+            Timestamp time = Timestamp.valueOf(after.getTime());
+            sql.append(" AND (").append(timeColumn).append(" < ? OR (").append(timeColumn).append(" = ? AND id < ?))");
+            args.add(time);
+            args.add(time);
+            args.add(after.getId());
+        }
+    }
+
+    private static LocalDateTime toLocal(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private String liveColumns(String table) {
+        List<String> names = jdbcTemplate.queryForList(
+                "SELECT attname FROM pg_attribute WHERE attrelid = ?::regclass AND attnum > 0 AND NOT attisdropped " +
+                "AND attgenerated = '' ORDER BY attnum", String.class, table);
+        return names.stream().map(n -> "\"" + n + "\"").collect(Collectors.joining(", "));
+    }
+
+    private Map<String, Object> toJsonRow(Map<String, Object> row) {
+        Map<String, Object> json = new HashMap<>(row.size());
+        row.forEach((k, v) -> {
+            if (v instanceof Timestamp t) {
+                json.put(k, t.toLocalDateTime().toString());
+            } else if (v == null || v instanceof Number || v instanceof String || v instanceof Boolean) {
+                json.put(k, v);
+            } else {
+                json.put(k, v.toString()); // driver types such as the reservation period range
+            }
+        });
+        return json;
+    }
+
+    private Object[] append(Object[] params, Object last) {
+        Object[] args = new Object[params.length + 1];
+        System.arraycopy(params, 0, args, 0, params.length);
+        args[params.length] = last;
+        return args;
+    }
+
+    private void execute(String sql) {
+        try {
+            jdbcTemplate.execute(sql);
+        } catch (Exception e) {
+            System.err.println("[Archive] Failed: " + sql + " -> " + e.getMessage());
+        }
+    }
+}
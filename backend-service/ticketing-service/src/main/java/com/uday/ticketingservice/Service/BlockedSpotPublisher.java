@@ -0,0 +1,122 @@
+package com.uday.ticketingservice.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uday.ticketingservice.DTO.BlockedSpotSnapshot;
+import com.uday.ticketingservice.Repository.ReservationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Publishes the spots that reservations currently hold back, so the parking-lot
+ * allocator can skip them without calling ticketing-service per entry.
+ *
+ * A spot is blocked from GRACE minutes before its reservation starts until the
+ * reservation ends. The snapshot is stored under a Redis key (read on startup)
+ * and announced on a pub/sub channel. Reservation commits only mark the set
+ * dirty; a short-delay job coalesces bursts into one publish, and a periodic
+ * recompute picks up reservations entering or leaving their window.
+ */
+@Service
+public class BlockedSpotPublisher {
+
+    public static final String SNAPSHOT_KEY = "parking:blocked-spots";
+    public static final String CHANNEL = "parking:blocked-spots";
+    private static final String VERSION_KEY = "parking:blocked-spots:version";
+
+    @Autowired
+    private ReservationRepository reservationRepo;
+
+    @Autowired
+    private StringRedisTemplate redis;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${ticketing.blocked-spots.lookahead-minutes:10}")
+    private long lookaheadMinutes;
+
+    @Value("${ticketing.blocked-spots.snapshot-ttl-seconds:300}")
+    private long snapshotTtlSeconds;
+
+    private final AtomicBoolean dirty = new AtomicBoolean(true);
+
+    private volatile Map<Long, String> lastPublished;
+    private volatile Long lastVersion;
+
+    @TransactionalEventListener
+    public void onReservationChanged(ReservationChangedEvent event) {
+        dirty.set(true);
+    }
+
+    @Scheduled(fixedDelayString = "${ticketing.blocked-spots.publish-delay-ms:500}")
+    public void publishIfDirty() {
+        if (dirty.getAndSet(false)) {
+            safePublish(false);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ticketing.blocked-spots.refresh-interval-ms:30000}")
+    public void refresh() {
+        safePublish(true);
+    }
+
+    private void safePublish(boolean refreshOnly) {
+        try {
+            publish(refreshOnly);
+        } catch (Exception e) {
+            dirty.set(true);
+            System.err.println("[BlockedSpots] Failed to publish: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Recompute the blocked sets and store and announce them. A new version is
+     * only taken when the sets changed; an unchanged snapshot is re-stamped with
+     * the current time so subscribers keep trusting it (they drop snapshots older
+     * than their max-age).
+     */
+    public synchronized void publish(boolean refreshOnly) throws Exception {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> rows = reservationRepo.findBlockedSpots(now, now.plusMinutes(lookaheadMinutes));
+
+        Map<Long, BitSet> bits = new HashMap<>();
+        for (Object[] row : rows) {
+            Long levelId = (Long) row[0];
+            Long spotId = (Long) row[1];
+            bits.computeIfAbsent(levelId, id -> new BitSet()).set(Math.toIntExact(spotId));
+        }
+        Map<Long, String> levels = new TreeMap<>();
+        bits.forEach((levelId, set) -> levels.put(levelId, Base64.getEncoder().encodeToString(set.toByteArray())));
+
+        boolean changed = lastVersion == null || !levels.equals(lastPublished);
+        if (!refreshOnly || changed) {
+            Long version = redis.opsForValue().increment(VERSION_KEY);
+            lastVersion = version != null ? version : System.currentTimeMillis();
+        }
+
+        BlockedSpotSnapshot snapshot = BlockedSpotSnapshot.builder()
+                .version(lastVersion)
+                .generatedAt(System.currentTimeMillis())
+                .levels(levels)
+                .build();
+        String json = objectMapper.writeValueAsString(snapshot);
+
+        redis.opsForValue().set(SNAPSHOT_KEY, json, Duration.ofSeconds(snapshotTtlSeconds));
+        redis.convertAndSend(CHANNEL, json);
+        lastPublished = levels;
+    }
+}
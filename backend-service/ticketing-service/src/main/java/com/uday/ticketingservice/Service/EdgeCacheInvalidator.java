@@ -0,0 +1,42 @@
+package com.uday.ticketingservice.Service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tells the API gateway to drop its cached /api/reservations/slots responses
+ * once a reservation change commits. Bursts are coalesced into one message.
+ */
+@Service
+public class EdgeCacheInvalidator {
+
+    public static final String CHANNEL = "gateway:cache-invalidate";
+    public static final String TAG = "reservations";
+
+    @Autowired
+    private StringRedisTemplate redis;
+
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    @TransactionalEventListener
+    public void onReservationChanged(ReservationChangedEvent event) {
+        dirty.set(true);
+    }
+
+    @Scheduled(fixedDelayString = "${ticketing.edge-cache.publish-delay-ms:200}")
+    public void publishIfDirty() {
+        if (!dirty.getAndSet(false)) {
+            return;
+        }
+        try {
+            redis.convertAndSend(CHANNEL, TAG);
+        } catch (Exception e) {
+            System.err.println("[EdgeCache] Failed to publish invalidation: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.uday.ticketingservice.Service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Streams ticket and reservation rows straight from a forward-only JDBC
+ * cursor to an output stream. Only one row is held in memory at a time,
+ * so heap use does not grow with the size of the export. Ranges reaching
+ * back past the archive cutoff also read the archive tables.
+ */
+@Service
+public class ExportService {
+
+    // rows pulled per round trip; PostgreSQL only honours this inside a transaction
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String TICKET_COLUMNS =
+            "SELECT id, user_id AS \"userId\", user_email AS \"userEmail\", " +
+            "vehicle_number AS \"vehicleNumber\", spot_id AS \"spotId\", level_id AS \"levelId\", " +
+            "entry_time AS \"entryTime\", exit_time AS \"exitTime\", status, fee FROM ";
+
+    private static final String RESERVATION_COLUMNS =
+            "SELECT id, user_id AS \"userId\", user_email AS \"userEmail\", " +
+            "vehicle_number AS \"vehicleNumber\", spot_id AS \"spotId\", level_id AS \"levelId\", " +
+            "start_time AS \"startTime\", end_time AS \"endTime\", status, ticket_id AS \"ticketId\", " +
+            "created_at AS \"createdAt\" FROM ";
+
+    public enum Format {
+        CSV("text/csv", "csv"),
+        NDJSON("application/x-ndjson", "ndjson");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format from(String value) {
+            try {
+                return Format.valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format: " + value + " (use csv or ndjson)");
+            }
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ArchiveService archive;
+
+    public long exportTickets(LocalDateTime from, LocalDateTime to, Format format, OutputStream out) {
+        return exportRange(TICKET_COLUMNS, "ticket", "ticket_archive", "entry_time", "entryTime", from, to, format, out);
+    }
+
+    public long exportReservations(LocalDateTime from, LocalDateTime to, Format format, OutputStream out) {
+        return exportRange(RESERVATION_COLUMNS, "reservation", "reservation_archive", "start_time", "startTime", from, to, format, out);
+    }
+
+    /**
+     * Every ticket, live and archived, with id > afterId in id order as NDJSON
+     * (id, status, fee, entryTime, exitTime). Feeds payment reconciliation.
+     */
+    public long exportTicketsAfter(long afterId, OutputStream out) {
+        String columns = "SELECT id, status, fee, entry_time AS \"entryTime\", exit_time AS \"exitTime\" FROM ";
+        boolean hasArchive = archive.hasArchiveTable("ticket_archive");
+        String sql = hasArchive
+                ? "SELECT * FROM (" + columns + "ticket WHERE id > ? UNION ALL " + columns + "ticket_archive WHERE id > ?) t ORDER BY id"
+                : columns + "ticket WHERE id > ? ORDER BY id";
+        Object[] params = hasArchive ? new Object[]{afterId, afterId} : new Object[]{afterId};
+        return export(sql, params, Format.NDJSON, out);
+    }
+
+    /**
+     * Rows with timeColumn in [from, to) in time order; the archive is only
+     * read when the range starts before the archive cutoff
+     */
+    private long exportRange(String columns, String table, String archiveTable, String timeColumn, String timeAlias,
+                             LocalDateTime from, LocalDateTime to, Format format, OutputStream out) {
+        Timestamp start = Timestamp.valueOf(from);
+        Timestamp end = Timestamp.valueOf(to);
+        String range = " WHERE " + timeColumn + " >= ? AND " + timeColumn + " < ?";
+        String live = columns + table + range;
+
+        if (from.isBefore(archive.archiveCutoff()) && archive.hasArchiveTable(archiveTable)) {
+            String sql = "SELECT * FROM (" + live + " UNION ALL " + columns + archiveTable + range + ") t " +
+                    "ORDER BY \"" + timeAlias + "\", id";
+            return export(sql, new Object[]{start, end, start, end}, format, out);
+        }
+        return export(live + " ORDER BY " + timeColumn + ", id", new Object[]{start, end}, format, out);
+    }
+
+    private long export(String sql, Object[] params, Format format, OutputStream out) {
+        // runs on the async response thread, so open the (read-only) transaction here
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+
+        Long rows = tx.execute(status -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < params.length; i++) {
+                ps.setObject(i + 1, params[i]);
+            }
+            return ps;
+        }, (ResultSetExtractor<Long>) rs -> writeRows(rs, format, out)));
+
+        return rows != null ? rows : 0;
+    }
+
+    private long writeRows(ResultSet rs, Format format, OutputStream out) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int columns = meta.getColumnCount();
+        String[] names = new String[columns];
+        for (int i = 0; i < columns; i++) {
+            names[i] = meta.getColumnLabel(i + 1);
+        }
+
+        long count = 0;
+        try {
+            if (format == Format.CSV) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+                writeCsvLine(writer, names);
+                String[] values = new String[columns];
+                while (rs.next()) {
+                    for (int i = 0; i < columns; i++) {
+                        values[i] = stringValue(rs.getObject(i + 1));
+                    }
+                    writeCsvLine(writer, values);
+                    count++;
+                }
+                writer.flush();
+            } else {
+                JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+                while (rs.next()) {
+                    json.writeStartObject();
+                    for (int i = 0; i < columns; i++) {
+                        writeJsonField(json, names[i], rs.getObject(i + 1));
+                    }
+                    json.writeEndObject();
+                    json.writeRaw('\n');
+                    count++;
+                }
+                json.flush();
+            }
+        } catch (IOException e) {
+            // client went away - abort the cursor instead of reading the rest of the table
+            throw new UncheckedIOException(e);
+        }
+
+        System.out.println("Exported " + count + " rows as " + format);
+        return count;
+    }
+
+    private void writeCsvLine(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String v = values[i];
+            if (v == null) {
+                continue;
+            }
+            if (v.indexOf(',') >= 0 || v.indexOf('"') >= 0 || v.indexOf('\n') >= 0 || v.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(v.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(v);
+            }
+        }
+        writer.write('\n');
+    }
+
+    private void writeJsonField(JsonGenerator json, String name, Object value) throws IOException {
+        if (value == null) {
+            json.writeNullField(name);
+        } else if (value instanceof Long l) {
+            json.writeNumberField(name, l);
+        } else if (value instanceof Integer n) {
+            json.writeNumberField(name, n);
+        } else if (value instanceof Double d) {
+            json.writeNumberField(name, d);
+        } else {
+            json.writeStringField(name, stringValue(value));
+        }
+    }
+
+    private String stringValue(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Timestamp ts) {
+            return ts.toLocalDateTime().toString();
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,129 @@
+package com.uday.ticketingservice.Service;
+
+import com.uday.ticketingservice.DTO.FeeQuote;
+import com.uday.ticketingservice.DTO.RepriceReport;
+import com.uday.ticketingservice.Entity.Ticket;
+import com.uday.ticketingservice.Repository.TicketRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Fee quotes for open tickets and audit re-pricing of closed ones, both through TariffEngine.
+ */
+@Service
+public class FeeService {
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int MAX_SAMPLES = 100;
+
+    private static final String CLOSED_TICKETS_SQL =
+            "SELECT id, spot_id, level_id, entry_time, exit_time, fee FROM ticket " +
+            "WHERE status = 'CLOSED' AND exit_time >= ? AND exit_time < ? ORDER BY id";
+
+    @Autowired
+    private TicketRepository ticketRepo;
+
+    @Autowired
+    private TariffEngine tariff;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Quote the fee if the ticket exited now. Cached briefly (feeQuotes) so a kiosk
+     * polling while the driver pays does not hit the database; evicted on exit.
+     */
+    @Cacheable(value = "feeQuotes", key = "#ticketId")
+    public FeeQuote quote(Long ticketId) {
+        Ticket ticket = ticketRepo.findById(ticketId)
+                .orElseThrow(() -> new IllegalArgumentException("Ticket not found: " + ticketId));
+
+        LocalDateTime now = LocalDateTime.now();
+        boolean closed = ticket.getExitTime() != null;
+        LocalDateTime until = closed ? ticket.getExitTime() : now;
+        long minutes = Math.max(0, ChronoUnit.MINUTES.between(ticket.getEntryTime(), until));
+        int typeIndex = tariff.typeIndexOf(ticket.getSpotId());
+
+        double amount = closed && ticket.getFee() != null
+                ? ticket.getFee()
+                : tariff.feeFor(ticket.getSpotId(), ticket.getLevelId(), ticket.getEntryTime(), until);
+
+        return FeeQuote.builder()
+                .ticketId(ticket.getId())
+                .vehicleNumber(ticket.getVehicleNumber())
+                .spotId(ticket.getSpotId())
+                .levelId(ticket.getLevelId())
+                .spotType(tariff.typeName(typeIndex))
+                .entryTime(ticket.getEntryTime())
+                .quotedAt(now)
+                .validUntil(closed ? null : now.plusMinutes(tariff.minutesUntilChange(minutes)).truncatedTo(ChronoUnit.MINUTES))
+                .durationMinutes(minutes)
+                .billedHours(tariff.billedHours(minutes))
+                .amount(amount)
+                .closed(closed)
+                .build();
+    }
+
+    /**
+     * Re-price every ticket closed in [from, to) under the current tariff and
+     * compare with the fee charged. Streams rows with a forward-only cursor.
+     */
+    public RepriceReport reprice(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+
+        RepriceReport report = RepriceReport.builder().from(from).to(to).build();
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(true);
+
+        tx.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(CLOSED_TICKETS_SQL,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(FETCH_SIZE);
+            ps.setTimestamp(1, Timestamp.valueOf(from));
+            ps.setTimestamp(2, Timestamp.valueOf(to));
+            return ps;
+        }, (RowCallbackHandler) rs -> {
+            long spotId = rs.getLong("spot_id");
+            int typeIndex = rs.wasNull() ? 0 : tariff.typeIndexOf(spotId);
+            long levelId = rs.getLong("level_id");
+            if (rs.wasNull()) levelId = -1;
+
+            LocalDateTime entry = rs.getTimestamp("entry_time").toLocalDateTime();
+            LocalDateTime exit = rs.getTimestamp("exit_time").toLocalDateTime();
+            long minutes = Math.max(0, ChronoUnit.MINUTES.between(entry, exit));
+            double charged = rs.getDouble("fee");
+
+            double repriced = tariff.fee(typeIndex, levelId, entry.getHour() * 60 + entry.getMinute(), minutes);
+
+            report.setTicketsScanned(report.getTicketsScanned() + 1);
+            report.setChargedTotal(report.getChargedTotal() + charged);
+            report.setRepricedTotal(report.getRepricedTotal() + repriced);
+            if (Math.abs(repriced - charged) >= 0.01) {
+                report.setMismatches(report.getMismatches() + 1);
+                if (report.getSamples().size() < MAX_SAMPLES) {
+                    report.getSamples().add(new RepriceReport.Mismatch(rs.getLong("id"), charged, repriced));
+                }
+            }
+        }));
+
+        System.out.println("[Tariff] Repriced " + report.getTicketsScanned() + " closed tickets, "
+                + report.getMismatches() + " mismatches");
+        return report;
+    }
+}
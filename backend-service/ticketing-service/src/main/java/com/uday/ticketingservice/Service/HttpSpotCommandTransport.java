@@ -0,0 +1,34 @@
+package com.uday.ticketingservice.Service;
+
+import com.uday.ticketingservice.DTO.SpotCommand;
+import com.uday.ticketingservice.DTO.SpotCommandResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Default transport: one POST per batch to parking-lot-service.
+ */
+@Component
+@ConditionalOnProperty(name = "ticketing.outbox.transport", havingValue = "http", matchIfMissing = true)
+public class HttpSpotCommandTransport implements SpotCommandTransport {
+
+    @Autowired
+    private WebClient webClient;
+
+    @Override
+    public List<SpotCommandResult> send(List<SpotCommand> commands) {
+        List<SpotCommandResult> results = webClient.post()
+                .uri("http://PARKING-LOT-SERVICE:8084/parking/spots/commands")
+                .bodyValue(commands)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<List<SpotCommandResult>>() {})
+                .block(Duration.ofSeconds(10));
+        return results != null ? results : List.of();
+    }
+}
@@ -0,0 +1,184 @@
+package com.uday.ticketingservice.Service;
+
+import com.uday.ticketingservice.DTO.SpotCommand;
+import com.uday.ticketingservice.DTO.SpotCommandResult;
+import com.uday.ticketingservice.Entity.OutboxEvent;
+import com.uday.ticketingservice.Entity.OutboxEvent.CommandType;
+import com.uday.ticketingservice.Entity.OutboxEvent.OutboxStatus;
+import com.uday.ticketingservice.Repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Transactional outbox for spot state changes in parking-lot-service.
+ *
+ * Commands are inserted in the caller's transaction, so they exist if and only
+ * if the ticket change committed. The relay delivers them in batches and keeps
+ * retrying with capped exponential backoff until parking-lot-service answers,
+ * so a release is never dropped. Command ids are deterministic and
+ * parking-lot-service ignores ids it has already applied, which makes
+ * redelivery safe.
+ */
+@Service
+public class OutboxService {
+
+    private static final long MAX_BACKOFF_SECONDS = 300;
+    private static final int PRUNE_BATCH_SIZE = 1000;
+
+    @Autowired
+    private OutboxEventRepository outboxRepo;
+
+    @Autowired
+    private SpotCommandTransport transport;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${ticketing.outbox.batch-size:100}")
+    private int batchSize;
+
+    // longer than the slowest transport call (HTTP read timeout)
+    @Value("${ticketing.outbox.claim-lease-ms:30000}")
+    private long claimLeaseMs;
+
+    @Value("${ticketing.outbox.retention-days:7}")
+    private long retentionDays;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueRelease(Long ticketId, Long spotId) {
+        enqueue(CommandType.RELEASE, "RELEASE-ticket-" + ticketId, spotId, ticketId);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueOccupy(Long ticketId, Long spotId) {
+        enqueue(CommandType.OCCUPY, "OCCUPY-ticket-" + ticketId, spotId, ticketId);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueConfirmHold(Long reservationId, Long ticketId, Long spotId) {
+        enqueue(CommandType.CONFIRM_HOLD, "CONFIRM_HOLD-reservation-" + reservationId, spotId, ticketId, reservationId);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void enqueueReleaseHold(Long reservationId, Long spotId) {
+        enqueue(CommandType.RELEASE_HOLD, "RELEASE_HOLD-reservation-" + reservationId, spotId, null, reservationId);
+    }
+
+    private void enqueue(CommandType type, String commandId, Long spotId, Long ticketId) {
+        enqueue(type, commandId, spotId, ticketId, null);
+    }
+
+    private void enqueue(CommandType type, String commandId, Long spotId, Long ticketId, Long reservationId) {
+        if (spotId == null || outboxRepo.existsByCommandId(commandId)) {
+            return;
+        }
+        outboxRepo.save(OutboxEvent.builder()
+                .commandId(commandId)
+                .type(type)
+                .spotId(spotId)
+                .ticketId(ticketId)
+                .reservationId(reservationId)
+                .nextAttemptAt(LocalDateTime.now())
+                .build());
+    }
+
+    /**
+     * Deliver one batch of due commands. The batch is claimed in a short
+     * transaction (SKIP LOCKED, then leased by pushing nextAttemptAt out by
+     * claim-lease-ms) so several relay instances never send the same batch,
+     * sent without holding a transaction, and its outcome recorded in a
+     * second transaction. A relay that dies mid-send leaves the lease to
+     * expire and the batch is redelivered.
+     * @return number of commands handled in this batch
+     */
+    public int relayBatch() {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        List<OutboxEvent> batch = tx.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            List<OutboxEvent> claimed = outboxRepo.lockNextBatch(now, batchSize);
+            LocalDateTime leaseUntil = now.plus(claimLeaseMs, ChronoUnit.MILLIS);
+            claimed.forEach(event -> event.setNextAttemptAt(leaseUntil));
+            return outboxRepo.saveAll(claimed);
+        });
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        List<SpotCommand> commands = batch.stream()
+                .map(e -> SpotCommand.builder()
+                        .commandId(e.getCommandId())
+                        .type(e.getType().name())
+                        .spotId(e.getSpotId())
+                        .reservationId(e.getReservationId())
+                        .build())
+                .collect(Collectors.toList());
+
+        Map<String, SpotCommandResult> results = null;
+        String error = null;
+        try {
+            results = transport.send(commands).stream()
+                    .collect(Collectors.toMap(SpotCommandResult::getCommandId, Function.identity(), (a, b) -> a));
+        } catch (Exception e) {
+            System.out.println("[Outbox] Delivery of " + batch.size() + " commands failed: " + e.getMessage());
+            error = e.getMessage();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (OutboxEvent event : batch) {
+            SpotCommandResult result = results != null ? results.get(event.getCommandId()) : null;
+            if (result == null) {
+                scheduleRetry(event, error != null ? error : "No result returned");
+            } else if (result.getOutcome() == SpotCommandResult.Outcome.REJECTED) {
+                event.setStatus(OutboxStatus.FAILED);
+                event.setLastError(truncate(result.getMessage()));
+                System.out.println("[Outbox] Command " + event.getCommandId() + " rejected: " + result.getMessage());
+            } else {
+                event.setStatus(OutboxStatus.SENT);
+                event.setSentAt(now);
+            }
+        }
+        tx.executeWithoutResult(status -> outboxRepo.saveAll(batch));
+        return batch.size();
+    }
+
+    /**
+     * Delete delivered commands after retention-days; FAILED rows stay for inspection
+     */
+    public int pruneSent() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(retentionDays);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = outboxRepo.deleteSentBefore(cutoff, PRUNE_BATCH_SIZE);
+            total += deleted;
+        } while (deleted == PRUNE_BATCH_SIZE);
+        return total;
+    }
+
+    private void scheduleRetry(OutboxEvent event, String error) {
+        int attempts = event.getAttempts() + 1;
+        long backoff = Math.min(MAX_BACKOFF_SECONDS, 1L << Math.min(attempts, 16));
+        event.setAttempts(attempts);
+        event.setNextAttemptAt(LocalDateTime.now().plusSeconds(backoff));
+        event.setLastError(truncate(error));
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+}
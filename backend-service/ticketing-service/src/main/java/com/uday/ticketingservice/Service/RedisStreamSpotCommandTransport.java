@@ -0,0 +1,63 @@
+package com.uday.ticketingservice.Service;
+
+import com.uday.ticketingservice.DTO.SpotCommand;
+import com.uday.ticketingservice.DTO.SpotCommandResult;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optional transport (ticketing.outbox.transport=redis-stream): appends commands
+ * to a Redis Stream consumed by a group in parking-lot-service. A command counts
+ * as delivered once XADD succeeds; the consumer acks after applying it and
+ * de-duplicates on commandId. The stream is trimmed to about max-length
+ * entries after each batch.
+ */
+@Component
+@ConditionalOnProperty(name = "ticketing.outbox.transport", havingValue = "redis-stream")
+public class RedisStreamSpotCommandTransport implements SpotCommandTransport {
+
+    @Autowired
+    private StringRedisTemplate redis;
+
+    @Value("${ticketing.outbox.stream-key:parking:spot-commands}")
+    private String streamKey;
+
+    // approximate (MAXLEN ~); far above any consumer backlog
+    @Value("${ticketing.outbox.stream-max-length:100000}")
+    private long maxLength;
+
+    @Override
+    public List<SpotCommandResult> send(List<SpotCommand> commands) {
+        List<SpotCommandResult> results = new ArrayList<>(commands.size());
+        for (SpotCommand command : commands) {
+            Map<String, String> fields = new HashMap<>();
+            fields.put("commandId", command.getCommandId());
+            fields.put("type", command.getType());
+            fields.put("spotId", command.getSpotId().toString());
+            if (command.getReservationId() != null) {
+                fields.put("reservationId", command.getReservationId().toString());
+            }
+            redis.opsForStream().add(StreamRecords.string(fields).withStreamKey(streamKey));
+
+            results.add(SpotCommandResult.builder()
+                    .commandId(command.getCommandId())
+                    .outcome(SpotCommandResult.Outcome.APPLIED)
+                    .build());
+        }
+        try {
+            redis.opsForStream().trim(streamKey, maxLength, true);
+        } catch (Exception e) {
+            System.err.println("[Outbox] Stream trim failed: " + e.getMessage());
+        }
+        return results;
+    }
+}
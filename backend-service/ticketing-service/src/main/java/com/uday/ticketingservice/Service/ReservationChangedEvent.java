@@ -0,0 +1,7 @@
+package com.uday.ticketingservice.Service;
+
+/**
+ * Published inside a reservation transaction; listeners run after it commits.
+ */
+public record ReservationChangedEvent(Long reservationId) {
+}
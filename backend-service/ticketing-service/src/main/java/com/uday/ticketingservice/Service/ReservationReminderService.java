@@ -0,0 +1,326 @@
+package com.uday.ticketingservice.Service;
+
+import com.uday.ticketingservice.DTO.UserNotification;
+import com.uday.ticketingservice.Entity.Reservation;
+import com.uday.ticketingservice.Entity.ReservationStatus;
+import com.uday.ticketingservice.Repository.ReservationRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends "starting soon" and "check-in window closing" reminders for CREATED
+ * reservations through notification-service.
+ *
+ * Reminders due within the next horizon-minutes are loaded from the database
+ * (keyset pages over the unsent-reminder index) into a TimerWheel of packed
+ * longs, capped at max-pending; reservations created after the loader passed
+ * them are added when their transaction commits. Memory therefore depends on
+ * the horizon, not on how many reservations exist.
+ *
+ * The database stays the source of truth: when a reminder fires, its sent-at
+ * column is claimed with a conditional UPDATE that also checks the
+ * reservation is still CREATED and the reminder still useful. Cancelled or
+ * checked-in reservations are skipped there, a reminder claimed by another
+ * instance is not sent twice, and after a restart the loader picks up exactly
+ * the reminders that were never claimed. Reminders whose delivery fails are
+ * released and retried later.
+ */
+@Service
+public class ReservationReminderService {
+
+    private static final int STARTING_SOON = 0;
+    private static final int WINDOW_CLOSING = 1;
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm");
+
+    private static final String PENDING_SQL =
+            "SELECT id, start_time, start_reminder_sent_at IS NULL AS start_due, closing_reminder_sent_at IS NULL AS closing_due " +
+            "FROM reservation WHERE status = 'CREATED' " +
+            "AND (start_reminder_sent_at IS NULL OR closing_reminder_sent_at IS NULL) " +
+            "AND (start_time, id) > (?, ?) AND start_time < ? " +
+            "ORDER BY start_time, id LIMIT ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReservationRepository reservationRepo;
+
+    @Autowired
+    private WebClient webClient;
+
+    @Value("${ticketing.reminders.enabled:true}")
+    private boolean enabled;
+
+    @Value("${ticketing.reminders.horizon-minutes:60}")
+    private long horizonMinutes;
+
+    @Value("${ticketing.reminders.starting-soon-minutes:10}")
+    private long startingSoonMinutes;
+
+    @Value("${ticketing.reminders.closing-warning-minutes:3}")
+    private long closingWarningMinutes;
+
+    @Value("${ticketing.reminders.max-pending:200000}")
+    private int maxPending;
+
+    @Value("${ticketing.reminders.batch-size:500}")
+    private int batchSize;
+
+    @Value("${ticketing.reminders.retry-delay-ms:60000}")
+    private long retryDelayMs;
+
+    @Value("${ticketing.reminders.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    @Value("${ticketing.reminders.notify-url:http://NOTIFICATION-SERVICE/api/notifications/users/batch}")
+    private String notifyUrl;
+
+    private TimerWheel wheel;
+
+    // loader keyset position: everything up to here is in the wheel (or was sent)
+    private LocalDateTime loadedStart;
+    private long loadedId;
+
+    @PostConstruct
+    public void init() {
+        wheel = new TimerWheel(1000, 4096, System.currentTimeMillis());
+        // reminders still worth sending after a restart
+        loadedStart = LocalDateTime.now().minusMinutes(Reservation.GRACE_MINUTES);
+        loadedId = 0;
+    }
+
+    /**
+     * Move pending reminders due within the horizon from the database into the wheel
+     * @return number of reservations loaded
+     */
+    public int loadUpcoming() {
+        if (!enabled) {
+            return 0;
+        }
+        LocalDateTime until = LocalDateTime.now().plusMinutes(horizonMinutes);
+        int loaded = 0;
+        while (true) {
+            int room;
+            LocalDateTime fromStart;
+            long fromId;
+            synchronized (this) {
+                room = Math.min(batchSize, maxPending - wheel.size());
+                fromStart = loadedStart;
+                fromId = loadedId;
+            }
+            if (room <= 0) {
+                System.err.println("[Reminders] Wheel full (" + maxPending + " pending), loading paused");
+                return loaded;
+            }
+
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList(PENDING_SQL,
+                    Timestamp.valueOf(fromStart), fromId, Timestamp.valueOf(until), room);
+            synchronized (this) {
+                for (Map<String, Object> row : rows) {
+                    long id = ((Number) row.get("id")).longValue();
+                    LocalDateTime start = ((Timestamp) row.get("start_time")).toLocalDateTime();
+                    schedule(id, start, Boolean.TRUE.equals(row.get("start_due")), Boolean.TRUE.equals(row.get("closing_due")));
+                    loadedStart = start;
+                    loadedId = id;
+                }
+            }
+            loaded += rows.size();
+            if (rows.size() < room) {
+                return loaded;
+            }
+        }
+    }
+
+    /**
+     * New reservations behind the loader's position would otherwise be missed
+     */
+    @TransactionalEventListener
+    public void onReservationChanged(ReservationChangedEvent event) {
+        if (!enabled || event.reservationId() == null) {
+            return;
+        }
+        reservationRepo.findById(event.reservationId()).ifPresent(r -> {
+            if (r.getStatus() != ReservationStatus.CREATED) {
+                return;
+            }
+            synchronized (this) {
+                boolean behindLoader = r.getStartTime().isBefore(loadedStart)
+                        || (r.getStartTime().isEqual(loadedStart) && r.getId() <= loadedId);
+                if (!behindLoader) {
+                    return;
+                }
+                if (wheel.size() < maxPending) {
+                    schedule(r.getId(), r.getStartTime(), r.getStartReminderSentAt() == null, r.getClosingReminderSentAt() == null);
+                } else {
+                    // no room: rewind the loader to it; re-loaded duplicates are harmless, the claim sends once
+                    loadedStart = r.getStartTime();
+                    loadedId = r.getId() - 1;
+                }
+            }
+        });
+    }
+
+    /**
+     * Fire every reminder that has come due
+     * @return number of notifications handed to notification-service
+     */
+    public int tick() {
+        if (!enabled) {
+            return 0;
+        }
+        List<Long> startingSoon = new ArrayList<>();
+        List<Long> closing = new ArrayList<>();
+        synchronized (this) {
+            wheel.advance(System.currentTimeMillis(), packed ->
+                    ((packed & 1) == STARTING_SOON ? startingSoon : closing).add(packed >>> 1));
+        }
+
+        int sent = 0;
+        for (int i = 0; i < startingSoon.size(); i += batchSize) {
+            sent += fire(STARTING_SOON, startingSoon.subList(i, Math.min(i + batchSize, startingSoon.size())));
+        }
+        for (int i = 0; i < closing.size(); i += batchSize) {
+            sent += fire(WINDOW_CLOSING, closing.subList(i, Math.min(i + batchSize, closing.size())));
+        }
+        return sent;
+    }
+
+    public synchronized int pending() {
+        return wheel.size();
+    }
+
+    // ========== INTERNALS ==========
+
+    // caller holds the monitor
+    private void schedule(long reservationId, LocalDateTime start, boolean startDue, boolean closingDue) {
+        if (startDue) {
+            wheel.add(epochMillis(start.minusMinutes(startingSoonMinutes)), reservationId << 1 | STARTING_SOON);
+        }
+        if (closingDue) {
+            wheel.add(epochMillis(start.plusMinutes(Reservation.GRACE_MINUTES - closingWarningMinutes)),
+                    reservationId << 1 | WINDOW_CLOSING);
+        }
+    }
+
+    private int fire(int kind, List<Long> ids) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Reservation> claimed = claim(kind, ids, now);
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        List<UserNotification> notifications = new ArrayList<>(claimed.size());
+        for (Reservation r : claimed) {
+            notifications.add(kind == STARTING_SOON ? startingSoon(r) : windowClosing(r));
+        }
+
+        try {
+            webClient.post()
+                    .uri(notifyUrl)
+                    .bodyValue(notifications)
+                    .retrieve()
+                    .toBodilessEntity()
+                    .block(Duration.ofMillis(sendTimeoutMs));
+            return notifications.size();
+        } catch (Exception e) {
+            System.err.println("[Reminders] Sending " + notifications.size() + " reminders failed, retrying later: " + e.getMessage());
+            release(kind, claimed, now);
+            synchronized (this) {
+                long retryAt = System.currentTimeMillis() + retryDelayMs;
+                for (Reservation r : claimed) {
+                    wheel.add(retryAt, r.getId() << 1 | kind);
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Mark reminders sent, for reservations that are still CREATED and where the
+     * reminder is still useful; returns the reservations claimed
+     */
+    private List<Reservation> claim(int kind, List<Long> ids, LocalDateTime now) {
+        String column = kind == STARTING_SOON ? "start_reminder_sent_at" : "closing_reminder_sent_at";
+        // starting-soon is pointless once the reservation started; closing once the window closed
+        LocalDateTime startAfter = kind == STARTING_SOON ? now : now.minusMinutes(Reservation.GRACE_MINUTES);
+        String sql = "UPDATE reservation SET " + column + " = ? " +
+                "WHERE id = ANY(?) AND status = 'CREATED' AND " + column + " IS NULL AND start_time > ? " +
+                "RETURNING id, user_email, vehicle_number, spot_id, level_id, start_time";
+
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql);
+            ps.setTimestamp(1, Timestamp.valueOf(now));
+            ps.setArray(2, con.createArrayOf("bigint", ids.toArray()));
+            ps.setTimestamp(3, Timestamp.valueOf(startAfter));
+            return ps;
+        }, (rs, i) -> Reservation.builder()
+                .id(rs.getLong("id"))
+                .userEmail(rs.getString("user_email"))
+                .vehicleNumber(rs.getString("vehicle_number"))
+                .spotId(rs.getLong("spot_id"))
+                .levelId(rs.getLong("level_id"))
+                .startTime(rs.getTimestamp("start_time").toLocalDateTime())
+                .build());
+    }
+
+    private void release(int kind, List<Reservation> claimed, LocalDateTime claimedAt) {
+        String column = kind == STARTING_SOON ? "start_reminder_sent_at" : "closing_reminder_sent_at";
+        Long[] ids = claimed.stream().map(Reservation::getId).toArray(Long[]::new);
+        try {
+            jdbcTemplate.update(con -> {
+                PreparedStatement ps = con.prepareStatement(
+                        "UPDATE reservation SET " + column + " = NULL WHERE id = ANY(?) AND " + column + " = ?");
+                Array array = con.createArrayOf("bigint", ids);
+                ps.setArray(1, array);
+                ps.setTimestamp(2, Timestamp.valueOf(claimedAt));
+                return ps;
+            });
+        } catch (Exception e) {
+            System.err.println("[Reminders] Could not release reminders " + Arrays.toString(ids) + ": " + e.getMessage());
+        }
+    }
+
+    private UserNotification startingSoon(Reservation r) {
+        LocalDateTime start = r.getStartTime();
+        return UserNotification.builder()
+                .userEmails(List.of(r.getUserEmail()))
+                .title("Your parking reservation starts soon")
+                .body("Spot " + r.getSpotId() + " on level " + r.getLevelId() + " is reserved for " + r.getVehicleNumber()
+                        + " at " + start.format(TIME) + ". Check in between "
+                        + start.minusMinutes(Reservation.GRACE_MINUTES).format(TIME) + " and "
+                        + start.plusMinutes(Reservation.GRACE_MINUTES).format(TIME) + ".")
+                .data(Map.of("type", "RESERVATION_STARTING_SOON", "reservationId", String.valueOf(r.getId())))
+                .build();
+    }
+
+    private UserNotification windowClosing(Reservation r) {
+        return UserNotification.builder()
+                .userEmails(List.of(r.getUserEmail()))
+                .title("Check-in window closing")
+                .body("Check in by " + r.getStartTime().plusMinutes(Reservation.GRACE_MINUTES).format(TIME)
+                        + " or your reservation for spot " + r.getSpotId() + " will expire.")
+                .data(Map.of("type", "RESERVATION_CHECKIN_CLOSING", "reservationId", String.valueOf(r.getId())))
+                .build();
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -5,9 +5,16 @@ import com.uday.ticketingservice.Entity.Reservation;
 import com.uday.ticketingservice.Entity.ReservationStatus;
 import com.uday.ticketingservice.Repository.ReservationRepository;
 import com.uday.ticketingservice.ticketService;
+import com.uday.ticketingservice.config.SchemaInitializer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.time.Duration;
@@ -30,6 +37,27 @@ public class ReservationService {
     @Autowired
     private WebClient webClient;
 
+    @Autowired
+    private StatsCounterService stats;
+
+    @Autowired
+    private UserViewCache userViews;
+
+    @Autowired
+    private SchemaInitializer schema;
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ArchiveService archive;
+
     // booking constraints
     private static final int MAX_ADVANCE_DAYS = 3;
     private static final int MAX_HOURS = 4;
@@ -37,19 +65,27 @@ public class ReservationService {
     private static final int GRACE_MINUTES = 10;
     private static final LocalTime OPEN_TIME = LocalTime.of(6, 0);
     private static final LocalTime CLOSE_TIME = LocalTime.of(22, 0);
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int HOLD_BATCH_SIZE = 200;
+    private static final int HOLD_MARGIN_MINUTES = 10;
+
+    private static final String SPOT_CONFLICT = "Spot is already reserved for this time slot";
+    private static final String VEHICLE_CONFLICT = "You already have a reservation during this time";
 
     @Transactional
     public ReservationResponse createReservation(CreateReservationRequest req) {
         validateTimeWindow(req.getStartTime(), req.getEndTime());
 
-        // check conflicts
-        if (reservationRepo.existsSpotConflict(req.getSpotId(), req.getStartTime(), req.getEndTime())) {
-            throw new IllegalStateException("Spot is already reserved for this time slot");
-        }
-
         String vehicleNum = req.getVehicleNumber().toUpperCase();
-        if (reservationRepo.existsVehicleConflict(vehicleNum, req.getStartTime(), req.getEndTime())) {
-            throw new IllegalStateException("You already have a reservation during this time");
+
+        // overlaps are rejected by the exclusion constraints on insert; query only without them
+        if (!schema.isReservationOverlapEnforced()) {
+            if (reservationRepo.existsSpotConflict(req.getSpotId(), req.getStartTime(), req.getEndTime())) {
+                throw new IllegalStateException(SPOT_CONFLICT);
+            }
+            if (reservationRepo.existsVehicleConflict(vehicleNum, req.getStartTime(), req.getEndTime())) {
+                throw new IllegalStateException(VEHICLE_CONFLICT);
+            }
         }
 
         Reservation reservation = Reservation.builder()
@@ -63,7 +99,10 @@ public class ReservationService {
             .status(ReservationStatus.CREATED)
             .build();
 
-        reservation = reservationRepo.save(reservation);
+        reservation = insertReservation(reservation);
+        stats.reservationTransition(null, ReservationStatus.CREATED, 1);
+        userViews.evictAfterCommit(UserViewCache.ACTIVE_RESERVATIONS, reservation.getUserEmail());
+        events.publishEvent(new ReservationChangedEvent(reservation.getId()));
         System.out.println("Created reservation #" + reservation.getId());
 
         return toResponse(reservation, "Reservation confirmed successfully");
@@ -76,11 +115,51 @@ public class ReservationService {
             .collect(Collectors.toList());
     }
 
-    public List<ReservationResponse> getUserActiveReservations(String email) {
-        return reservationRepo.findActiveReservationsByEmail(email)
-            .stream()
+    /**
+     * A page of the user's reservations, newest start first, including archived ones
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<ReservationResponse> getUserReservationsPage(String email, String cursor, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+
+        KeysetCursor after = (cursor == null || cursor.isBlank()) ? null : KeysetCursor.decode(cursor);
+        List<Reservation> live = after == null
+            ? reservationRepo.findUserPage(email, page)
+            : reservationRepo.findUserPageAfter(email, after.getTime(), after.getId(), page);
+        List<Reservation> rows = archive.withArchived(live, pageSize + 1, "reservation_archive",
+            Reservation::getStartTime, Reservation::getId,
+            () -> archive.findArchivedUserReservations(email, after, pageSize + 1));
+
+        List<ReservationResponse> mapped = rows.stream()
             .map(r -> toResponse(r, null))
             .collect(Collectors.toList());
+        return CursorPage.of(mapped, pageSize, r -> new KeysetCursor(r.getStartTime(), r.getId()));
+    }
+
+    /**
+     * Upcoming and in-progress reservations from the per-user cache.
+     * Time-dependent fields are recomputed on every read, not cached.
+     */
+    public List<ReservationResponse> getUserActiveReservations(String email) {
+        List<ReservationResponse> cached = userViews.get(UserViewCache.ACTIVE_RESERVATIONS, email, () ->
+            reservationRepo.findActiveReservationsByEmail(email)
+                .stream()
+                .map(r -> toResponse(r, null))
+                .collect(Collectors.toCollection(ArrayList::new)));
+
+        LocalDateTime now = LocalDateTime.now();
+        for (ReservationResponse res : cached) {
+            Reservation r = Reservation.builder()
+                .status(res.getStatus())
+                .startTime(res.getStartTime())
+                .endTime(res.getEndTime())
+                .build();
+            res.setCanCheckIn(r.canCheckIn(now));
+            res.setCanCancel(r.canCancel(now));
+            res.setMinutesUntilStart(Math.max(0, Duration.between(now, res.getStartTime()).toMinutes()));
+        }
+        return cached;
     }
 
     public ReservationResponse getReservation(Long id, String email) {
@@ -100,6 +179,12 @@ public class ReservationService {
 
         r.setStatus(ReservationStatus.CANCELLED);
         reservationRepo.save(r);
+        if (r.getSpotHeldAt() != null) {
+            outboxService.enqueueReleaseHold(r.getId(), r.getSpotId());
+        }
+        stats.reservationTransition(ReservationStatus.CREATED, ReservationStatus.CANCELLED, 1);
+        userViews.evictAfterCommit(UserViewCache.ACTIVE_RESERVATIONS, r.getUserEmail());
+        events.publishEvent(new ReservationChangedEvent(r.getId()));
 
         return toResponse(r, "Reservation cancelled successfully");
     }
@@ -124,7 +209,24 @@ public class ReservationService {
             throw new IllegalStateException("Cannot check in to this reservation");
         }
 
-        // create ticket from reservation
+        // normally held ahead of time by the hold job; otherwise hold it now
+        if (r.getSpotHeldAt() == null) {
+            SpotHoldResult hold;
+            try {
+                hold = requestHolds(List.of(r)).stream().findFirst()
+                    .orElseThrow(() -> new IllegalStateException("Spot is not available"));
+            } catch (IllegalStateException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to reserve parking spot: " + e.getMessage());
+            }
+            if (!hold.isHeld()) {
+                throw new IllegalStateException("Spot is not available: " + hold.getMessage());
+            }
+            r.setSpotHeldAt(now);
+        }
+
+        // create ticket from reservation; the hold is confirmed asynchronously
         CreateTicketRequest ticketReq = new CreateTicketRequest();
         ticketReq.setUserId(r.getUserId());
         ticketReq.setUserEmail(r.getUserEmail());
@@ -132,11 +234,13 @@ public class ReservationService {
         ticketReq.setSpotId(r.getSpotId());
         ticketReq.setLevelId(r.getLevelId());
 
-        var ticket = ticketService.createTicket(ticketReq);
+        var ticket = ticketService.createTicketForHeldSpot(ticketReq, r.getId());
 
         r.setStatus(ReservationStatus.ACTIVE);
         r.setTicketId(ticket.getId());
         reservationRepo.save(r);
+        stats.reservationTransition(ReservationStatus.CREATED, ReservationStatus.ACTIVE, 1);
+        userViews.evictAfterCommit(UserViewCache.ACTIVE_RESERVATIONS, r.getUserEmail());
 
         System.out.println("Check-in: reservation #" + reservationId + " -> ticket #" + ticket.getId());
 
@@ -187,6 +291,53 @@ public class ReservationService {
         return reservationRepo.findCurrentlyBlockedSpotIds(levelId, LocalDateTime.now());
     }
 
+    /**
+     * Ask parking-lot-service to hold the spots of reservations whose check-in
+     * window opens within GRACE_MINUTES, so check-in is a local write.
+     * Spots that cannot be held yet (still occupied) are retried on the next run;
+     * a hold the reservation never uses lapses on its own in parking-lot-service.
+     * @return number of reservations newly held
+     */
+    public int holdUpcomingSpots() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Reservation> due = reservationRepo.findReservationsToHold(
+            now.plusMinutes(GRACE_MINUTES), now.minusMinutes(GRACE_MINUTES), PageRequest.of(0, HOLD_BATCH_SIZE));
+        if (due.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> held = requestHolds(due).stream()
+            .filter(SpotHoldResult::isHeld)
+            .map(SpotHoldResult::getReservationId)
+            .collect(Collectors.toList());
+        if (held.isEmpty()) {
+            return 0;
+        }
+
+        Integer marked = new TransactionTemplate(transactionManager)
+            .execute(status -> reservationRepo.markSpotsHeld(held, now));
+        return marked != null ? marked : 0;
+    }
+
+    private List<SpotHoldResult> requestHolds(List<Reservation> reservations) {
+        List<SpotHoldRequest> requests = reservations.stream()
+            .map(r -> SpotHoldRequest.builder()
+                .reservationId(r.getId())
+                .spotId(r.getSpotId())
+                // outlives the check-in window so the expiry job, not the hold, decides no-shows
+                .heldUntil(r.getStartTime().plusMinutes(GRACE_MINUTES + HOLD_MARGIN_MINUTES))
+                .build())
+            .collect(Collectors.toList());
+
+        List<SpotHoldResult> results = webClient.post()
+            .uri("http://PARKING-LOT-SERVICE:8084/parking/spots/holds")
+            .bodyValue(requests)
+            .retrieve()
+            .bodyToMono(new ParameterizedTypeReference<List<SpotHoldResult>>() {})
+            .block(Duration.ofSeconds(10));
+        return results != null ? results : List.of();
+    }
+
     @Transactional
     public int expireNoShowReservations() {
         LocalDateTime cutoff = LocalDateTime.now().minusMinutes(GRACE_MINUTES);
@@ -194,10 +345,19 @@ public class ReservationService {
 
         for (Reservation r : expired) {
             r.setStatus(ReservationStatus.EXPIRED);
+            if (r.getSpotHeldAt() != null) {
+                outboxService.enqueueReleaseHold(r.getId(), r.getSpotId());
+            }
         }
 
         if (!expired.isEmpty()) {
             reservationRepo.saveAll(expired);
+            stats.reservationTransition(ReservationStatus.CREATED, ReservationStatus.EXPIRED, expired.size());
+            expired.stream()
+                .map(Reservation::getUserEmail)
+                .distinct()
+                .forEach(email -> userViews.evictAfterCommit(UserViewCache.ACTIVE_RESERVATIONS, email));
+            events.publishEvent(new ReservationChangedEvent(null));
             System.out.println("Expired " + expired.size() + " no-show reservations");
         }
 
@@ -206,6 +366,21 @@ public class ReservationService {
 
     // --- private helpers ---
 
+    private Reservation insertReservation(Reservation reservation) {
+        try {
+            return reservationRepo.saveAndFlush(reservation);
+        } catch (DataIntegrityViolationException e) {
+            String cause = String.valueOf(e.getMostSpecificCause().getMessage());
+            if (cause.contains(SchemaInitializer.SPOT_OVERLAP_CONSTRAINT)) {
+                throw new IllegalStateException(SPOT_CONFLICT);
+            }
+            if (cause.contains(SchemaInitializer.VEHICLE_OVERLAP_CONSTRAINT)) {
+                throw new IllegalStateException(VEHICLE_CONFLICT);
+            }
+            throw e;
+        }
+    }
+
     private void validateTimeWindow(LocalDateTime start, LocalDateTime end) {
         LocalDateTime now = LocalDateTime.now();
 
@@ -0,0 +1,15 @@
+package com.uday.ticketingservice.Service;
+
+import com.uday.ticketingservice.DTO.SpotCommand;
+import com.uday.ticketingservice.DTO.SpotCommandResult;
+
+import java.util.List;
+
+/**
+ * Delivers a batch of outbox commands to parking-lot-service.
+ * Commands missing from the returned list are retried; throwing retries the whole batch.
+ */
+public interface SpotCommandTransport {
+
+    List<SpotCommandResult> send(List<SpotCommand> commands);
+}
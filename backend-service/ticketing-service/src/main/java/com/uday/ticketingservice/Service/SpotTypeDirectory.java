@@ -0,0 +1,74 @@
+package com.uday.ticketingservice.Service;
+
+import com.uday.ticketingservice.DTO.LevelDetails;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Spot id -> spot type, loaded from parking-lot-service so the tariff engine can
+ * price by spot type without a remote call per fee. Stored as an array indexed
+ * by spot id and swapped whole on refresh; unknown spots price at the default rate.
+ */
+@Service
+public class SpotTypeDirectory {
+
+    private static final int MAX_SPOT_ID = 1_000_000;
+
+    @Autowired
+    private WebClient webClient;
+
+    private volatile String[] typeBySpotId = new String[0];
+
+    public String typeOf(Long spotId) {
+        String[] types = typeBySpotId;
+        if (spotId == null || spotId < 0 || spotId >= types.length) {
+            return null;
+        }
+        return types[spotId.intValue()];
+    }
+
+    @Scheduled(initialDelay = 5000, fixedDelayString = "${ticketing.tariff.spot-refresh-interval-ms:300000}")
+    public void refresh() {
+        try {
+            List<LevelDetails> levels = webClient.get()
+                    .uri("http://PARKING-LOT-SERVICE:8084/parking/levels/details")
+                    .retrieve()
+                    .bodyToMono(new ParameterizedTypeReference<List<LevelDetails>>() {})
+                    .block(Duration.ofSeconds(10));
+            if (levels == null) {
+                return;
+            }
+
+            long maxId = -1;
+            for (LevelDetails level : levels) {
+                if (level.getSpots() == null) continue;
+                for (LevelDetails.Spot spot : level.getSpots()) {
+                    if (spot.getId() != null) maxId = Math.max(maxId, spot.getId());
+                }
+            }
+
+            String[] types = new String[(int) Math.min(maxId + 1, MAX_SPOT_ID)];
+            int count = 0;
+            for (LevelDetails level : levels) {
+                if (level.getSpots() == null) continue;
+                for (LevelDetails.Spot spot : level.getSpots()) {
+                    if (spot.getId() != null && spot.getId() < types.length && spot.getSpotType() != null) {
+                        types[spot.getId().intValue()] = spot.getSpotType().toUpperCase().intern();
+                        count++;
+                    }
+                }
+            }
+            typeBySpotId = types;
+            System.out.println("[Tariff] Loaded spot types for " + count + " spots");
+        } catch (Exception e) {
+            // keep the previous table; spot types rarely change
+            System.err.println("[Tariff] Spot type refresh failed: " + e.getMessage());
+        }
+    }
+}
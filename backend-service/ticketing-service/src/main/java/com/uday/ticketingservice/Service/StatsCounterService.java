@@ -0,0 +1,164 @@
+package com.uday.ticketingservice.Service;
+
+import com.uday.ticketingservice.DTO.SystemStatsResponse;
+import com.uday.ticketingservice.Entity.ReservationStatus;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Ticket and reservation counters maintained in the same transaction as each
+ * state change, so reading stats is a sum over a handful of rows instead of
+ * counting the ticket and reservation tables.
+ *
+ * Counters are lifetime totals: archiving (ArchiveService) moves rows out of
+ * the live tables but does not change them. Active vehicles equals active
+ * tickets because a plate can only have one open ticket (uk_ticket_active_plate).
+ */
+@Service
+public class StatsCounterService implements SmartInitializingSingleton {
+
+    private static final int SLOTS = 8;
+
+    private static final String TICKETS_TOTAL = "tickets.total";
+    private static final String TICKETS_ACTIVE = "tickets.active";
+    private static final String TICKETS_CLOSED = "tickets.closed";
+    private static final String RESERVATIONS_PREFIX = "reservations.";
+    // marker row written by every recount; its absence means the counters were never seeded
+    private static final String SEEDED = "stats.seeded";
+
+    private static final String UPSERT_SQL =
+        "INSERT INTO stat_counter (name, slot, value) VALUES (?, ?, ?) " +
+        "ON CONFLICT (name, slot) DO UPDATE SET value = stat_counter.value + EXCLUDED.value";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void ticketOpened() {
+        add(TICKETS_TOTAL, 1);
+        add(TICKETS_ACTIVE, 1);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void ticketClosed() {
+        add(TICKETS_ACTIVE, -1);
+        add(TICKETS_CLOSED, 1);
+    }
+
+    /**
+     * Record a reservation status change; from is null for a new reservation
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reservationTransition(ReservationStatus from, ReservationStatus to, int count) {
+        if (count == 0 || from == to) {
+            return;
+        }
+        if (from != null) {
+            add(RESERVATIONS_PREFIX + from.name(), -count);
+        }
+        add(RESERVATIONS_PREFIX + to.name(), count);
+    }
+
+    private void add(String name, long delta) {
+        jdbcTemplate.update(UPSERT_SQL, name, ThreadLocalRandom.current().nextInt(SLOTS), delta);
+    }
+
+    @Transactional(readOnly = true)
+    public SystemStatsResponse snapshot() {
+        Map<String, Long> values = new HashMap<>();
+        jdbcTemplate.query("SELECT name, SUM(value) FROM stat_counter GROUP BY name",
+                rs -> { values.put(rs.getString(1), rs.getLong(2)); });
+
+        Map<String, Long> reservations = new LinkedHashMap<>();
+        for (ReservationStatus status : ReservationStatus.values()) {
+            reservations.put(status.name(), values.getOrDefault(RESERVATIONS_PREFIX + status.name(), 0L));
+        }
+
+        long active = values.getOrDefault(TICKETS_ACTIVE, 0L);
+        return SystemStatsResponse.builder()
+                .totalTickets(values.getOrDefault(TICKETS_TOTAL, 0L))
+                .activeTickets(active)
+                .closedTickets(values.getOrDefault(TICKETS_CLOSED, 0L))
+                .activeVehicles(active)
+                .reservationsByStatus(reservations)
+                .build();
+    }
+
+    /**
+     * Seed the counters before the web server takes requests. The marker is
+     * checked under the same locks as rebuild, so increments another instance
+     * committed first are recounted instead of passing for a seeded table.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                lockForRecount();
+                Integer seeded = jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM stat_counter WHERE name = ?", Integer.class, SEEDED);
+                if (seeded == null || seeded == 0) {
+                    recount();
+                }
+            });
+        } catch (Exception e) {
+            System.err.println("[Stats] Failed to seed counters: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Recount everything from the live and archive tables. Writers are blocked
+     * (SHARE lock) for the duration so no increment is lost or double counted.
+     */
+    @Transactional
+    public SystemStatsResponse rebuild() {
+        lockForRecount();
+        recount();
+        return snapshot();
+    }
+
+    private void lockForRecount() {
+        jdbcTemplate.execute("LOCK TABLE ticket, reservation IN SHARE MODE");
+        jdbcTemplate.execute("LOCK TABLE stat_counter IN EXCLUSIVE MODE");
+    }
+
+    private void recount() {
+        jdbcTemplate.update("DELETE FROM stat_counter");
+
+        String tickets = withArchive("ticket", "ticket_archive", "status");
+        jdbcTemplate.update(
+            "INSERT INTO stat_counter (name, slot, value) " +
+            "SELECT ?, 0, COUNT(*) FROM (" + tickets + ") t " +
+            "UNION ALL SELECT ?, 0, COUNT(*) FROM (" + tickets + ") t WHERE status = 'ACTIVE' " +
+            "UNION ALL SELECT ?, 0, COUNT(*) FROM (" + tickets + ") t WHERE status = 'CLOSED'",
+            TICKETS_TOTAL, TICKETS_ACTIVE, TICKETS_CLOSED);
+
+        jdbcTemplate.update(
+            "INSERT INTO stat_counter (name, slot, value) " +
+            "SELECT ? || status, 0, COUNT(*) FROM (" + withArchive("reservation", "reservation_archive", "status") + ") r " +
+            "GROUP BY status",
+            RESERVATIONS_PREFIX);
+
+        jdbcTemplate.update("INSERT INTO stat_counter (name, slot, value) VALUES (?, 0, 1)", SEEDED);
+        System.out.println("[Stats] Counters rebuilt from ticket and reservation tables");
+    }
+
+    private String withArchive(String table, String archive, String column) {
+        Boolean hasArchive = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, archive);
+        String sql = "SELECT " + column + " FROM " + table;
+        return Boolean.TRUE.equals(hasArchive) ? sql + " UNION ALL SELECT " + column + " FROM " + archive : sql;
+    }
+}
@@ -0,0 +1,199 @@
+package com.uday.ticketingservice.Service;
+
+import com.uday.ticketingservice.config.TariffProperties;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single source of parking fees for ticketing-service and parking-lot-service.
+ *
+ * The configured rules are compiled once into immutable tables: an hourly rate
+ * per spot type for every minute of the day (time bands already applied) and a
+ * multiplier per level id. Evaluating a fee is then plain array reads and
+ * arithmetic on primitives, so quoting and bulk re-pricing allocate nothing
+ * per ticket.
+ */
+@Service
+public class TariffEngine {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    @Autowired
+    private TariffProperties properties;
+
+    @Autowired
+    private SpotTypeDirectory spotTypes;
+
+    private volatile Compiled tariff;
+
+    @PostConstruct
+    public void compile() {
+        tariff = Compiled.from(properties);
+        System.out.println("[Tariff] Compiled " + tariff.typeNames.length + " spot types, "
+                + properties.getTimeBands().size() + " time bands");
+    }
+
+    /**
+     * Fee for a stay in the given spot from entry to exit, in whole rupees
+     */
+    public double feeFor(Long spotId, Long levelId, LocalDateTime entry, LocalDateTime exit) {
+        long minutes = Math.max(0, ChronoUnit.MINUTES.between(entry, exit));
+        int entryMinuteOfDay = entry.getHour() * 60 + entry.getMinute();
+        return fee(typeIndexOf(spotId), levelId == null ? -1 : levelId, entryMinuteOfDay, minutes);
+    }
+
+    public int typeIndexOf(Long spotId) {
+        return tariff.typeIndex(spotTypes.typeOf(spotId));
+    }
+
+    public String typeName(int typeIndex) {
+        return typeIndex == 0 ? null : tariff.typeNames[typeIndex];
+    }
+
+    public long billedHours(long durationMinutes) {
+        Compiled t = tariff;
+        if (t.graceMinutes > 0 && durationMinutes <= t.graceMinutes) {
+            return 0;
+        }
+        return t.billStartedHours ? (durationMinutes + 59) / 60 : durationMinutes / 60;
+    }
+
+    /**
+     * Minutes from now until the fee for a stay of this length next changes,
+     * i.e. how long a quote stays exact.
+     */
+    public long minutesUntilChange(long durationMinutes) {
+        Compiled t = tariff;
+        if (t.graceMinutes > 0 && durationMinutes <= t.graceMinutes) {
+            return t.graceMinutes - durationMinutes + 1;
+        }
+        long intoHour = durationMinutes % 60;
+        if (t.billStartedHours) {
+            return intoHour == 0 ? 1 : 60 - intoHour + 1;
+        }
+        return 60 - intoHour;
+    }
+
+    /**
+     * Core evaluation on primitives only.
+     * @param typeIndex index from typeIndexOf (0 = default rate)
+     * @param levelId level id, or -1 when unknown
+     */
+    public double fee(int typeIndex, long levelId, int entryMinuteOfDay, long durationMinutes) {
+        Compiled t = tariff;
+        if (t.graceMinutes > 0 && durationMinutes <= t.graceMinutes) {
+            return 0;
+        }
+
+        long hours = t.billStartedHours ? (durationMinutes + 59) / 60 : durationMinutes / 60;
+        double[] rates = t.ratePerMinuteOfDay[typeIndex];
+        double multiplier = levelId >= 0 && levelId < t.levelMultiplier.length ? t.levelMultiplier[(int) levelId] : 1.0;
+
+        double total = 0;
+        double day = 0;
+        int minute = entryMinuteOfDay;
+        for (long h = 0; h < hours; h++) {
+            if (h > 0 && h % 24 == 0) {
+                total += t.dailyCap > 0 ? Math.min(day, t.dailyCap) : day;
+                day = 0;
+            }
+            day += rates[minute] * multiplier;
+            minute += 60;
+            if (minute >= MINUTES_PER_DAY) {
+                minute -= MINUTES_PER_DAY;
+            }
+        }
+        total += t.dailyCap > 0 ? Math.min(day, t.dailyCap) : day;
+
+        // whole rupees, rounded half-up: the unit payments are charged in
+        return Math.round(Math.max(t.minimumFee, total));
+    }
+
+    /**
+     * Immutable compiled form of TariffProperties
+     */
+    private static final class Compiled {
+        final String[] typeNames;            // index 0 = default
+        final double[][] ratePerMinuteOfDay; // [type][minute of day] -> hourly rate
+        final double[] levelMultiplier;      // [level id] -> multiplier
+        final int graceMinutes;
+        final double dailyCap;
+        final double minimumFee;
+        final boolean billStartedHours;
+
+        private Compiled(String[] typeNames, double[][] rates, double[] levelMultiplier, TariffProperties p) {
+            this.typeNames = typeNames;
+            this.ratePerMinuteOfDay = rates;
+            this.levelMultiplier = levelMultiplier;
+            this.graceMinutes = p.getGraceMinutes();
+            this.dailyCap = p.getDailyCap();
+            this.minimumFee = p.getMinimumFee();
+            this.billStartedHours = p.isBillStartedHours();
+        }
+
+        static Compiled from(TariffProperties p) {
+            double[] bandMultiplier = new double[MINUTES_PER_DAY];
+            Arrays.fill(bandMultiplier, 1.0);
+            for (TariffProperties.TimeBand band : p.getTimeBands()) {
+                int from = minuteOfDay(band.getFrom());
+                int to = minuteOfDay(band.getTo());
+                for (int m = from; m != to; m = (m + 1) % MINUTES_PER_DAY) {
+                    bandMultiplier[m] = band.getMultiplier();
+                }
+            }
+
+            List<String> names = new ArrayList<>();
+            names.add("DEFAULT");
+            List<Double> hourly = new ArrayList<>();
+            hourly.add(p.getDefaultHourlyRate());
+            for (Map.Entry<String, Double> rate : p.getHourlyRates().entrySet()) {
+                names.add(rate.getKey().toUpperCase());
+                hourly.add(rate.getValue());
+            }
+
+            double[][] rates = new double[names.size()][MINUTES_PER_DAY];
+            for (int type = 0; type < names.size(); type++) {
+                for (int m = 0; m < MINUTES_PER_DAY; m++) {
+                    rates[type][m] = hourly.get(type) * bandMultiplier[m];
+                }
+            }
+
+            long maxLevel = p.getLevelMultipliers().keySet().stream().mapToLong(Long::longValue).max().orElse(-1);
+            double[] levels = new double[(int) Math.min(maxLevel + 1, 100_000)];
+            Arrays.fill(levels, 1.0);
+            p.getLevelMultipliers().forEach((levelId, multiplier) -> {
+                if (levelId >= 0 && levelId < levels.length) {
+                    levels[levelId.intValue()] = multiplier;
+                }
+            });
+
+            return new Compiled(names.toArray(new String[0]), rates, levels, p);
+        }
+
+        int typeIndex(String typeName) {
+            if (typeName == null) {
+                return 0;
+            }
+            for (int i = 1; i < typeNames.length; i++) {
+                if (typeNames[i].equals(typeName)) {
+                    return i;
+                }
+            }
+            return 0;
+        }
+
+        private static int minuteOfDay(String hhmm) {
+            LocalTime time = LocalTime.parse(hhmm);
+            return time.getHour() * 60 + time.getMinute();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.uday.ticketingservice.Service;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Hashed timer wheel over primitive longs. Each entry is a (due time, payload)
+ * pair stored inline in its slot's array, 16 bytes per timer with no per-entry
+ * objects, so a few hundred thousand pending timers cost a few megabytes.
+ * Adding is O(1); advancing visits only the slots for the elapsed ticks, and
+ * entries due in a later revolution simply stay in their slot.
+ *
+ * Not thread-safe; callers synchronize.
+ */
+public class TimerWheel {
+
+    private final long tickMillis;
+    private final long[][] slots;      // per slot: due0, payload0, due1, payload1, ...
+    private final int[] lengths;       // used longs per slot
+    private long lastTick;
+    private int size;
+
+    public TimerWheel(long tickMillis, int slotCount, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.slots = new long[slotCount][];
+        this.lengths = new int[slotCount];
+        this.lastTick = nowMillis / tickMillis;
+    }
+
+    /**
+     * Schedule a payload; a due time in the past fires on the next advance
+     */
+    public void add(long dueMillis, long payload) {
+        long tick = Math.max(dueMillis / tickMillis, lastTick + 1);
+        int slot = (int) (tick % slots.length);
+        long[] entries = slots[slot];
+        int length = lengths[slot];
+        if (entries == null) {
+            entries = slots[slot] = new long[8];
+        } else if (length + 2 > entries.length) {
+            long[] grown = new long[entries.length * 2];
+            System.arraycopy(entries, 0, grown, 0, length);
+            entries = slots[slot] = grown;
+        }
+        entries[length] = tick * tickMillis;
+        entries[length + 1] = payload;
+        lengths[slot] = length + 2;
+        size++;
+    }
+
+    /**
+     * Fire every entry due up to now, in tick order
+     */
+    public void advance(long nowMillis, LongConsumer fire) {
+        long nowTick = nowMillis / tickMillis;
+        // after a long pause one full revolution visits every slot
+        long from = Math.max(lastTick + 1, nowTick - slots.length + 1);
+        for (long tick = from; tick <= nowTick; tick++) {
+            int slot = (int) (tick % slots.length);
+            long[] entries = slots[slot];
+            int length = lengths[slot];
+            int kept = 0;
+            for (int i = 0; i < length; i += 2) {
+                if (entries[i] <= nowMillis) {
+                    size--;
+                    fire.accept(entries[i + 1]);
+                } else {
+                    entries[kept] = entries[i];
+                    entries[kept + 1] = entries[i + 1];
+                    kept += 2;
+                }
+            }
+            lengths[slot] = kept;
+            if (kept == 0 && entries != null && entries.length > 64) {
+                slots[slot] = null;   // give back arrays grown by a burst
+            }
+        }
+        lastTick = Math.max(lastTick, nowTick);
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,67 @@
+package com.uday.ticketingservice.Service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * Small per-user caches for the "active" views (dashboard, My Tickets active tab,
+ * upcoming reservations). Entries are keyed by email and evicted only for the
+ * user whose ticket or reservation changed, after the change commits.
+ */
+@Component
+public class UserViewCache {
+
+    public static final String TICKET_OVERVIEW = "userTicketOverview";
+    public static final String ACTIVE_RESERVATIONS = "userActiveReservations";
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String cacheName, String email, Supplier<T> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null || email == null) {
+            return loader.get();
+        }
+        Cache.ValueWrapper hit = cache.get(email);
+        if (hit != null && hit.get() != null) {
+            return (T) hit.get();
+        }
+        T value = loader.get();
+        cache.put(email, value);
+        return value;
+    }
+
+    /**
+     * Evict once the current transaction commits, so a concurrent reader cannot
+     * re-cache the pre-change rows; evicts immediately outside a transaction.
+     */
+    public void evictAfterCommit(String cacheName, String email) {
+        if (email == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(cacheName, email);
+                }
+            });
+        } else {
+            evict(cacheName, email);
+        }
+    }
+
+    private void evict(String cacheName, String email) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(email);
+        }
+    }
+}
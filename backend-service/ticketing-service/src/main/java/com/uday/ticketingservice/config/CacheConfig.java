@@ -30,9 +30,15 @@ public class CacheConfig {
 
         // Ticketing caches with custom TTLs
         cacheConfigs.put("tickets", defaultConfig.entryTtl(Duration.ofMinutes(2)));
-        cacheConfigs.put("ticketingStats", defaultConfig.entryTtl(Duration.ofMinutes(1)));
         cacheConfigs.put("adminTickets", defaultConfig.entryTtl(Duration.ofMinutes(1)));
 
+        // Per-user active views, evicted per email on every change
+        cacheConfigs.put("userTicketOverview", defaultConfig.entryTtl(Duration.ofMinutes(10)));
+        cacheConfigs.put("userActiveReservations", defaultConfig.entryTtl(Duration.ofMinutes(10)));
+
+        // Exit kiosk fee quotes; short-lived since the fee grows with time, evicted on exit
+        cacheConfigs.put("feeQuotes", defaultConfig.entryTtl(Duration.ofSeconds(30)));
+
         return RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(cacheConfigs)
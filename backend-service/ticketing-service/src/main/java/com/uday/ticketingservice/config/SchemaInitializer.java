@@ -0,0 +1,91 @@
+package com.uday.ticketingservice.config;
+
+import com.uday.ticketingservice.Entity.OutboxEvent;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * PostgreSQL-specific DDL that JPA annotations cannot express (partial
+ * indexes, constraints). Runs right after Hibernate has updated the schema.
+ * Every statement is idempotent and a failure is logged, not fatal.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SchemaInitializer {
+
+    public static final String SPOT_OVERLAP_CONSTRAINT = "ex_reservation_spot_period";
+    public static final String VEHICLE_OVERLAP_CONSTRAINT = "ex_reservation_vehicle_period";
+
+    private static final List<String> STATEMENTS = List.of(
+        // Hibernate's enum check constraint predates the hold commands and is not updated by ddl-auto; rebuild it from the enum
+        "ALTER TABLE outbox_event DROP CONSTRAINT IF EXISTS outbox_event_type_check",
+        "ALTER TABLE outbox_event ADD CONSTRAINT outbox_event_type_check CHECK (type IN (" +
+            Arrays.stream(OutboxEvent.CommandType.values()).map(v -> "'" + v.name() + "'").collect(Collectors.joining(", ")) + "))",
+        // hot-path lookups only ever look at live reservations / active tickets
+        "CREATE INDEX IF NOT EXISTS idx_reservation_live_spot_time ON reservation (spot_id, start_time, end_time) " +
+            "WHERE status IN ('CREATED', 'ACTIVE')",
+        "CREATE INDEX IF NOT EXISTS idx_reservation_live_vehicle_time ON reservation (vehicle_number, start_time, end_time) " +
+            "WHERE status IN ('CREATED', 'ACTIVE')",
+        "CREATE INDEX IF NOT EXISTS idx_ticket_active ON ticket (id) WHERE status = 'ACTIVE'",
+        // reminder loader: keyset over reservations with a reminder still to send
+        "CREATE INDEX IF NOT EXISTS idx_reservation_reminder_pending ON reservation (start_time, id) " +
+            "WHERE status = 'CREATED' AND (start_reminder_sent_at IS NULL OR closing_reminder_sent_at IS NULL)",
+        // at most one open ticket per vehicle; expression must match ActiveTicketRegistry.normalize
+        "CREATE UNIQUE INDEX IF NOT EXISTS uk_ticket_active_plate ON ticket " +
+            "((upper(regexp_replace(vehicle_number, '[[:space:]-]', '', 'g')))) WHERE exit_time IS NULL",
+        // no two live reservations may overlap on the same spot or for the same vehicle
+        "CREATE EXTENSION IF NOT EXISTS btree_gist",
+        "ALTER TABLE reservation ADD COLUMN IF NOT EXISTS period tsrange " +
+            "GENERATED ALWAYS AS (tsrange(start_time, end_time, '[)')) STORED",
+        exclusion(SPOT_OVERLAP_CONSTRAINT, "spot_id"),
+        exclusion(VEHICLE_OVERLAP_CONSTRAINT, "vehicle_number")
+    );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private volatile boolean reservationOverlapEnforced;
+
+    @PostConstruct
+    public void initialize() {
+        for (String sql : STATEMENTS) {
+            try {
+                jdbcTemplate.execute(sql);
+            } catch (Exception e) {
+                System.err.println("[Schema] Failed to apply: " + sql + " -> " + e.getMessage());
+            }
+        }
+
+        Integer installed = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_constraint WHERE conname IN (?, ?)", Integer.class,
+                SPOT_OVERLAP_CONSTRAINT, VEHICLE_OVERLAP_CONSTRAINT);
+        reservationOverlapEnforced = installed != null && installed == 2;
+        if (!reservationOverlapEnforced) {
+            System.err.println("[Schema] Reservation exclusion constraints missing, using conflict queries");
+        }
+    }
+
+    /**
+     * True when both reservation exclusion constraints exist, so inserts can skip
+     * the conflict pre-check queries
+     */
+    public boolean isReservationOverlapEnforced() {
+        return reservationOverlapEnforced;
+    }
+
+    // ADD CONSTRAINT has no IF NOT EXISTS; fails (and is logged) if live rows already overlap
+    private static String exclusion(String name, String column) {
+        return "DO $$ BEGIN " +
+            "IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = '" + name + "') THEN " +
+            "ALTER TABLE reservation ADD CONSTRAINT " + name + " EXCLUDE USING gist (" +
+            column + " WITH =, period WITH &&) WHERE (status IN ('CREATED', 'ACTIVE')); " +
+            "END IF; END $$";
+    }
+}
@@ -0,0 +1,52 @@
+package com.uday.ticketingservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tariff rules (ticketing.tariff.*), compiled into lookup tables by TariffEngine.
+ * Completed hours are billed at the rate in force when each hour starts; with
+ * billStartedHours a partial last hour is billed in full as well. Fees are
+ * rounded half-up to whole rupees.
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "ticketing.tariff")
+public class TariffProperties {
+
+    // hourly rate for spot types without their own rate
+    private double defaultHourlyRate = 50;
+
+    // spot type (CAR, BIKE, EV, HANDICAPPED) -> hourly rate
+    private Map<String, Double> hourlyRates = new HashMap<>();
+
+    // level id -> rate multiplier, e.g. 1.2 for a covered level
+    private Map<Long, Double> levelMultipliers = new HashMap<>();
+
+    // time-of-day multipliers applied on top of the hourly rate
+    private List<TimeBand> timeBands = new ArrayList<>();
+
+    // stays up to this long are free (0 = no grace period)
+    private int graceMinutes = 0;
+
+    // most charged per 24h from entry (0 = no cap)
+    private double dailyCap = 0;
+
+    private double minimumFee = 50;
+
+    // when true, partial hours are billed as whole hours; otherwise only completed hours count
+    private boolean billStartedHours = false;
+
+    @Data
+    public static class TimeBand {
+        private String from;        // HH:mm, inclusive
+        private String to;          // HH:mm, exclusive; may wrap past midnight
+        private double multiplier = 1.0;
+    }
+}
@@ -1,27 +1,42 @@
 package com.uday.ticketingservice;
 
 import com.uday.ticketingservice.DTO.CreateTicketRequest;
+import com.uday.ticketingservice.DTO.CursorPage;
+import com.uday.ticketingservice.DTO.KeysetCursor;
 import com.uday.ticketingservice.DTO.PaymentRequest;
 import com.uday.ticketingservice.DTO.PaymentResponse;
 import com.uday.ticketingservice.DTO.SystemStatsResponse;
 import com.uday.ticketingservice.DTO.TicketResponse;
+import com.uday.ticketingservice.DTO.TicketSearchCriteria;
+import com.uday.ticketingservice.DTO.TicketSummary;
+import com.uday.ticketingservice.DTO.UserTicketOverview;
 import com.uday.ticketingservice.Entity.Reservation;
 import com.uday.ticketingservice.Entity.Ticket;
 import com.uday.ticketingservice.Entity.Ticket.TicketStatus;
 import com.uday.ticketingservice.Repository.ReservationRepository;
 import com.uday.ticketingservice.Repository.TicketRepository;
+import com.uday.ticketingservice.Service.ActiveTicketRegistry;
+import com.uday.ticketingservice.Service.ArchiveService;
+import com.uday.ticketingservice.Service.OutboxService;
+import com.uday.ticketingservice.Service.StatsCounterService;
+import com.uday.ticketingservice.Service.TariffEngine;
+import com.uday.ticketingservice.Service.UserViewCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -38,19 +53,42 @@ public class ticketService {
     @Autowired
     private WebClient webClient;
 
+    @Autowired
+    private ActiveTicketRegistry activeTickets;
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private StatsCounterService stats;
+
+    @Autowired
+    private UserViewCache userViews;
+
+    @Autowired
+    private TariffEngine tariff;
+
+    @Autowired
+    private ArchiveService archive;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     private static final DateTimeFormatter TIME_FMT = DateTimeFormatter.ofPattern("HH:mm");
+    private static final int MAX_PAGE_SIZE = 200;
 
     @Transactional
     @Caching(evict = {
         @CacheEvict(value = "tickets", allEntries = true),
-        @CacheEvict(value = "ticketingStats", allEntries = true),
         @CacheEvict(value = "adminTickets", allEntries = true)
     })
     public Ticket createTicket(CreateTicketRequest req) {
         System.out.println("Creating ticket (caches will be evicted)");
+        String plate = ActiveTicketRegistry.normalize(req.getVehicleNumber());
 
-        // check for existing active ticket
-        Optional<Ticket> existing = ticketRepo.findByVehicleNumberAndExitTimeIsNull(req.getVehicleNumber());
+        // serialize concurrent requests for the same plate, then check for existing active ticket
+        activeTickets.lockPlate(plate);
+        Optional<Ticket> existing = findActiveTicket(plate);
         if (existing.isPresent()) {
             System.out.println("Active ticket already exists for vehicle: " + req.getVehicleNumber());
             return existing.get();
@@ -60,7 +98,11 @@ public class ticketService {
         LocalDateTime now = LocalDateTime.now();
         checkForBlockingReservation(req.getSpotId(), now);
 
-        // occupy spot first (with pessimistic locking in parking-lot-service)
+        // insert first so a failed occupy rolls the ticket back with it
+        Ticket saved = saveActiveTicket(newTicket(req), plate);
+        stats.ticketOpened();
+
+        // occupy spot (with pessimistic locking in parking-lot-service)
         try {
             occupySpot(req.getSpotId());
             System.out.println("Spot " + req.getSpotId() + " occupied successfully");
@@ -72,7 +114,42 @@ public class ticketService {
             throw new IllegalStateException("Failed to reserve parking spot: " + e.getMessage());
         }
 
-        Ticket ticket = Ticket.builder()
+        activeTickets.registerAfterCommit(plate, saved.getId());
+        userViews.evictAfterCommit(UserViewCache.TICKET_OVERVIEW, saved.getUserEmail());
+        return saved;
+    }
+
+    /**
+     * Check-in for a reservation whose spot parking-lot-service already holds.
+     * Only local writes: the hold is confirmed through the outbox after commit,
+     * and the reservation itself is not treated as blocking.
+     */
+    @Transactional
+    @Caching(evict = {
+        @CacheEvict(value = "tickets", allEntries = true),
+        @CacheEvict(value = "adminTickets", allEntries = true)
+    })
+    public Ticket createTicketForHeldSpot(CreateTicketRequest req, Long reservationId) {
+        String plate = ActiveTicketRegistry.normalize(req.getVehicleNumber());
+        activeTickets.lockPlate(plate);
+        // binding the reservation to an unrelated open ticket would leave the hold to lapse
+        Optional<Ticket> existing = findActiveTicket(plate);
+        if (existing.isPresent()) {
+            throw new IllegalStateException("Vehicle " + req.getVehicleNumber()
+                    + " already has an active ticket (#" + existing.get().getId() + "); close it before checking in");
+        }
+
+        Ticket saved = saveActiveTicket(newTicket(req), plate);
+        stats.ticketOpened();
+        outboxService.enqueueConfirmHold(reservationId, saved.getId(), saved.getSpotId());
+
+        activeTickets.registerAfterCommit(plate, saved.getId());
+        userViews.evictAfterCommit(UserViewCache.TICKET_OVERVIEW, saved.getUserEmail());
+        return saved;
+    }
+
+    private Ticket newTicket(CreateTicketRequest req) {
+        return Ticket.builder()
                 .userId(req.getUserId())
                 .userEmail(req.getUserEmail())
                 .vehicleNumber(req.getVehicleNumber())
@@ -81,8 +158,44 @@ public class ticketService {
                 .entryTime(LocalDateTime.now())
                 .status(TicketStatus.ACTIVE)
                 .build();
+    }
+
+    /**
+     * Open ticket for a plate; callers hold the plate lock. A registry hit loads
+     * the ticket by primary key, which also catches a missed removal. A miss is
+     * confirmed on uk_ticket_active_plate: the registry is only written after
+     * commit, so a duplicate that waited on the lock sees the first request's
+     * ticket in the index before Redis has it.
+     */
+    private Optional<Ticket> findActiveTicket(String plate) {
+        if (plate == null) {
+            return Optional.empty();
+        }
+        Optional<Long> cachedId;
+        try {
+            cachedId = activeTickets.lookup(plate);
+        } catch (Exception e) {
+            System.out.println("Active ticket registry unavailable: " + e.getMessage());
+            cachedId = Optional.empty();
+        }
+        if (cachedId.isPresent()) {
+            Optional<Ticket> ticket = ticketRepo.findById(cachedId.get()).filter(Ticket::isActive);
+            if (ticket.isPresent()) {
+                return ticket;
+            }
+            activeTickets.remove(plate);
+        }
+        return ticketRepo.findActiveByNormalizedPlate(plate);
+    }
 
-        return ticketRepo.save(ticket);
+    private Ticket saveActiveTicket(Ticket ticket, String plate) {
+        try {
+            return ticketRepo.saveAndFlush(ticket);
+        } catch (DataIntegrityViolationException e) {
+            // only reachable by a writer that skipped the plate lock; register its ticket so a retry finds it
+            String existing = activeTickets.repair(plate).map(id -> " (#" + id + ")").orElse("");
+            throw new IllegalStateException("An active ticket already exists for vehicle " + ticket.getVehicleNumber() + existing);
+        }
     }
 
     private void checkForBlockingReservation(Long spotId, LocalDateTime ticketStartTime) {
@@ -114,7 +227,9 @@ public class ticketService {
     // legacy create method (backward compatible)
     @Transactional
     public Ticket createTicket(Long spotId, String vehicleNumber) {
-        Optional<Ticket> existing = ticketRepo.findByVehicleNumberAndExitTimeIsNull(vehicleNumber);
+        String plate = ActiveTicketRegistry.normalize(vehicleNumber);
+        activeTickets.lockPlate(plate);
+        Optional<Ticket> existing = findActiveTicket(plate);
         if (existing.isPresent()) {
             System.out.println("Active ticket already exists");
             return existing.get();
@@ -130,7 +245,21 @@ public class ticketService {
         ticket.setUserId("system");
         ticket.setUserEmail("system@parking.com");
 
-        return ticketRepo.save(ticket);
+        Ticket saved = saveActiveTicket(ticket, plate);
+        stats.ticketOpened();
+        activeTickets.registerAfterCommit(plate, saved.getId());
+        userViews.evictAfterCommit(UserViewCache.TICKET_OVERVIEW, saved.getUserEmail());
+        return saved;
+    }
+
+    /**
+     * Open ticket for a plate (any formatting), e.g. for exit-by-plate at a gate
+     */
+    public TicketResponse getActiveTicketByPlate(String vehicleNumber) {
+        String plate = ActiveTicketRegistry.normalize(vehicleNumber);
+        Ticket ticket = findActiveTicket(plate)
+                .orElseThrow(() -> new RuntimeException("No active ticket for vehicle: " + vehicleNumber));
+        return toResponse(ticket);
     }
 
     public List<TicketResponse> getUserTickets(String userEmail) {
@@ -140,11 +269,30 @@ public class ticketService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * A page of the user's history, newest first, on the (userEmail, entryTime, id) index
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<TicketSummary> getUserTicketsPage(String userEmail, String cursor, int limit) {
+        TicketSearchCriteria criteria = TicketSearchCriteria.builder().userEmail(userEmail).build();
+        return searchTickets(criteria, cursor, limit);
+    }
+
     public List<TicketResponse> getUserActiveTickets(String userEmail) {
-        return ticketRepo.findByUserEmailAndStatus(userEmail, TicketStatus.ACTIVE)
-                .stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return getUserTicketOverview(userEmail).getActiveTickets();
+    }
+
+    /**
+     * Active tickets plus history size for the dashboard, served from the per-user cache
+     */
+    public UserTicketOverview getUserTicketOverview(String userEmail) {
+        return userViews.get(UserViewCache.TICKET_OVERVIEW, userEmail, () -> UserTicketOverview.builder()
+                .activeTickets(ticketRepo.findByUserEmailAndStatus(userEmail, TicketStatus.ACTIVE)
+                        .stream()
+                        .map(this::toResponse)
+                        .collect(Collectors.toCollection(ArrayList::new)))
+                .totalTickets(ticketRepo.countByUserEmail(userEmail))
+                .build());
     }
 
     public TicketResponse getUserTicket(Long ticketId, String userEmail) {
@@ -156,8 +304,8 @@ public class ticketService {
     @Transactional
     @Caching(evict = {
         @CacheEvict(value = "tickets", allEntries = true),
-        @CacheEvict(value = "ticketingStats", allEntries = true),
-        @CacheEvict(value = "adminTickets", allEntries = true)
+        @CacheEvict(value = "adminTickets", allEntries = true),
+        @CacheEvict(value = "feeQuotes", key = "#ticketId")
     })
     public TicketResponse exitUserVehicle(Long ticketId, String userEmail) {
         System.out.println("Exiting vehicle (caches will be evicted)");
@@ -168,31 +316,72 @@ public class ticketService {
             throw new IllegalStateException("Ticket already closed");
         }
 
-        double fee = calculateFee(ticket.getEntryTime());
+        priceExit(ticket);
 
         // payment must succeed before closing
-        processPayment(ticketId, ticket.getVehicleNumber(), (int) fee);
+        processPayment(ticketId, ticket.getVehicleNumber(), wholeRupees(ticket.getQuotedFee()));
         System.out.println("Payment processed successfully for ticket " + ticketId);
 
-        ticket.setExitTime(LocalDateTime.now());
+        ticket.setExitTime(ticket.getQuotedExitTime());
         ticket.setStatus(TicketStatus.CLOSED);
-        ticket.setFee(fee);
+        ticket.setFee(ticket.getQuotedFee());
 
         Ticket saved = ticketRepo.save(ticket);
+        activeTickets.removeAfterCommit(ActiveTicketRegistry.normalize(saved.getVehicleNumber()));
+        stats.ticketClosed();
+        userViews.evictAfterCommit(UserViewCache.TICKET_OVERVIEW, saved.getUserEmail());
 
-        try {
-            releaseSpot(saved.getSpotId());
-            System.out.println("Spot " + saved.getSpotId() + " released successfully");
-        } catch (Exception e) {
-            System.out.println("Warning: Failed to release spot: " + e.getMessage());
-            // don't fail exit - ticket already closed and payment processed
-        }
+        // released asynchronously by the outbox relay, committed together with the ticket
+        outboxService.enqueueRelease(saved.getId(), saved.getSpotId());
 
         TicketResponse response = toResponse(saved);
         response.setMessage("Payment successful. Vehicle exited. Fee: Rs." + saved.getFee());
         return response;
     }
 
+    /**
+     * Price the exit once. The first attempt's time and fee are saved in their
+     * own transaction, because a PENDING payment rolls the exit back, and
+     * retries reuse them while the ledger still holds a payment of that amount.
+     * After a failed or abandoned payment the exit is priced again.
+     */
+    private void priceExit(Ticket ticket) {
+        if (ticket.getQuotedExitTime() != null && paymentHeldFor(ticket.getId(), wholeRupees(ticket.getQuotedFee()))) {
+            return;
+        }
+        LocalDateTime exitTime = LocalDateTime.now();
+        double fee = tariff.feeFor(ticket.getSpotId(), ticket.getLevelId(), ticket.getEntryTime(), exitTime);
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        tx.executeWithoutResult(status -> ticketRepo.saveExitQuote(ticket.getId(), exitTime, fee));
+        ticket.setQuotedExitTime(exitTime);
+        ticket.setQuotedFee(fee);
+    }
+
+    // latest ledger attempt is a pending or successful payment of this amount
+    private boolean paymentHeldFor(Long ticketId, int amount) {
+        try {
+            PaymentResponse status = webClient.get()
+                    .uri("http://PAYMENT-SERVICE:8083/payments/status/{ticketId}", ticketId)
+                    .retrieve()
+                    .bodyToMono(PaymentResponse.class)
+                    .block();
+            return status != null
+                    && ("SUCCESS".equalsIgnoreCase(status.getStatus()) || "PENDING".equalsIgnoreCase(status.getStatus()))
+                    && status.getAmount() != null && status.getAmount() == amount;
+        } catch (Exception e) {
+            // keep the quote; the create call answers with the ledger's state anyway
+            System.out.println("Payment status unavailable for ticket " + ticketId + ": " + e.getMessage());
+            return true;
+        }
+    }
+
+    // TariffEngine already rounds fees to whole rupees; this only guards the conversion
+    private static int wholeRupees(double fee) {
+        return Math.toIntExact(Math.round(fee));
+    }
+
     private void processPayment(Long ticketId, String vehicleNumber, int amount) {
         PaymentRequest paymentReq = PaymentRequest.builder()
                 .ticketId(ticketId)
@@ -212,14 +401,30 @@ public class ticketService {
                 throw new IllegalStateException("Payment service returned no response");
             }
 
+            // gateway orders settle later; the ticket stays open until the webhook lands
+            if ("PENDING".equalsIgnoreCase(response.getStatus())) {
+                throw new IllegalStateException("Payment pending (ref " + response.getPaymentRef()
+                        + "). Complete the payment and retry the exit.");
+            }
+
             if (!"SUCCESS".equalsIgnoreCase(response.getStatus())) {
                 String reason = response.getReason() != null ? response.getReason() :
                                response.getError() != null ? response.getError() : "Unknown error";
                 throw new IllegalStateException("Payment failed: " + reason);
             }
 
+            // a repeat request returns the recorded payment; never close for a fee that was not charged
+            if (response.getAmount() == null || response.getAmount() != amount) {
+                throw new IllegalStateException("Payment recorded for ticket " + ticketId + " is Rs." + response.getAmount()
+                        + " but the fee is Rs." + amount);
+            }
+
             System.out.println("Payment successful: " + response.getPaymentId());
 
+        } catch (WebClientResponseException.Conflict e) {
+            // already paid or pending for a different amount
+            System.out.println("Payment conflict: " + e.getResponseBodyAsString());
+            throw new IllegalStateException("Payment conflict: " + e.getResponseBodyAsString());
         } catch (WebClientResponseException e) {
             System.out.println("Payment service error: " + e.getResponseBodyAsString());
             throw new IllegalStateException("Payment service error: " + e.getMessage());
@@ -231,14 +436,6 @@ public class ticketService {
         }
     }
 
-    private void releaseSpot(Long spotId) {
-        webClient.put()
-                .uri("http://PARKING-LOT-SERVICE:8084/parking/spots/{spotId}/release", spotId)
-                .retrieve()
-                .bodyToMono(Void.class)
-                .block();
-    }
-
     // admin operations
 
     public List<TicketResponse> getAllTickets() {
@@ -255,20 +452,28 @@ public class ticketService {
                 .collect(Collectors.toList());
     }
 
-    @Cacheable(value = "ticketingStats", key = "'system'")
+    /**
+     * Filtered admin search with keyset pagination on (entryTime, id).
+     * Each page is a single index range scan regardless of table size;
+     * pages reaching past the archive cutoff also read ticket_archive.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<TicketSummary> searchTickets(TicketSearchCriteria criteria, String cursor, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+        KeysetCursor after = (cursor == null || cursor.isBlank()) ? null : KeysetCursor.decode(cursor);
+
+        List<TicketSummary> rows = archive.withArchived(ticketRepo.searchTickets(criteria, after, pageSize + 1),
+                pageSize + 1, "ticket_archive", TicketSummary::getEntryTime, TicketSummary::getId,
+                () -> archive.searchArchivedTickets(criteria, after, pageSize + 1));
+        return CursorPage.of(rows, pageSize, t -> new KeysetCursor(t.getEntryTime(), t.getId()));
+    }
+
     public SystemStatsResponse getSystemStats() {
-        System.out.println("Fetching ticketing stats from database (cache miss)");
-        long total = ticketRepo.count();
-        long active = ticketRepo.countByStatus(TicketStatus.ACTIVE);
-        long closed = ticketRepo.countByStatus(TicketStatus.CLOSED);
-        long activeVehicles = ticketRepo.countActiveVehicles();
-
-        return SystemStatsResponse.builder()
-                .totalTickets(total)
-                .activeTickets(active)
-                .closedTickets(closed)
-                .activeVehicles(activeVehicles)
-                .build();
+        return stats.snapshot();
+    }
+
+    public SystemStatsResponse rebuildSystemStats() {
+        return stats.rebuild();
     }
 
     @Cacheable(value = "tickets", key = "#ticketId")
@@ -281,8 +486,8 @@ public class ticketService {
     @Transactional
     @Caching(evict = {
         @CacheEvict(value = "tickets", allEntries = true),
-        @CacheEvict(value = "ticketingStats", allEntries = true),
-        @CacheEvict(value = "adminTickets", allEntries = true)
+        @CacheEvict(value = "adminTickets", allEntries = true),
+        @CacheEvict(value = "feeQuotes", key = "#ticketId")
     })
     public Ticket exit(Long ticketId) {
         System.out.println("Admin exiting vehicle (caches will be evicted)");
@@ -293,32 +498,26 @@ public class ticketService {
             throw new IllegalStateException("Ticket already closed");
         }
 
-        double fee = calculateFee(ticket.getEntryTime());
+        priceExit(ticket);
 
-        processPayment(ticketId, ticket.getVehicleNumber(), (int) fee);
+        processPayment(ticketId, ticket.getVehicleNumber(), wholeRupees(ticket.getQuotedFee()));
         System.out.println("Payment processed successfully for ticket " + ticketId + " (admin exit)");
 
-        ticket.setExitTime(LocalDateTime.now());
+        ticket.setExitTime(ticket.getQuotedExitTime());
         ticket.setStatus(TicketStatus.CLOSED);
-        ticket.setFee(fee);
+        ticket.setFee(ticket.getQuotedFee());
 
         Ticket saved = ticketRepo.save(ticket);
+        activeTickets.removeAfterCommit(ActiveTicketRegistry.normalize(saved.getVehicleNumber()));
+        stats.ticketClosed();
+        userViews.evictAfterCommit(UserViewCache.TICKET_OVERVIEW, saved.getUserEmail());
 
-        try {
-            releaseSpot(saved.getSpotId());
-            System.out.println("Spot " + saved.getSpotId() + " released successfully (admin exit)");
-        } catch (Exception e) {
-            System.out.println("Warning: Failed to release spot: " + e.getMessage());
-        }
+        // released asynchronously by the outbox relay, committed together with the ticket
+        outboxService.enqueueRelease(saved.getId(), saved.getSpotId());
 
         return saved;
     }
 
-    private double calculateFee(LocalDateTime entryTime) {
-        long hours = ChronoUnit.HOURS.between(entryTime, LocalDateTime.now());
-        return Math.max(50, hours * 50); // minimum Rs.50, then Rs.50/hour
-    }
-
     private TicketResponse toResponse(Ticket t) {
         return TicketResponse.builder()
                 .id(t.getId())
@@ -0,0 +1,339 @@
+package com.uday.vehicleservice;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over registered normalized plates, so lookups for plates that
+ * were never registered (most ANPR reads) are answered without Redis or Postgres.
+ *
+ * Plates are added on save and broadcast over Redis pub/sub to the other
+ * instances. Deleted plates cannot be removed from a Bloom filter; they only
+ * cost a false positive until the next scheduled rebuild from the table. Until
+ * the first build finishes, every plate is reported as possibly present.
+ *
+ * A plate broadcast that never arrives would be a false negative, so each
+ * instance pings itself over the same channel every heartbeat. When a ping is
+ * not echoed the subscription may have missed plates: the filter is marked
+ * stale and reports every plate as possibly present (the database decides)
+ * until the subscription is back and a rebuild has finished. Broadcasts that
+ * fail on the sending side are queued and resent on the next heartbeat.
+ */
+@Component
+public class PlateBloomFilter {
+
+    public static final String CHANNEL = "vehicle:plates:added";
+    private static final int FETCH_SIZE = 5000;
+    private static final int MAX_UNSENT = 100_000;
+    // contains a space, which normalization strips, so it can never collide with a plate
+    private static final String PING_PREFIX = "#ping ";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private StringRedisTemplate redis;
+
+    @Autowired
+    private RedisMessageListenerContainer listenerContainer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${vehicle.bloom.expected-plates:1000000}")
+    private long expectedPlates;
+
+    @Value("${vehicle.bloom.target-fpp:0.01}")
+    private double targetFpp;
+
+    private volatile Bits current;
+    private volatile Bits building;   // receives concurrent adds while a rebuild runs
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final AtomicLong pingsSent = new AtomicLong();
+    private volatile long lastPingEchoed;
+    private volatile boolean started;
+    private volatile boolean subscribed = true;
+    private volatile boolean stale;   // broadcasts may have been missed since the last rebuild
+    private final ConcurrentLinkedQueue<String> unsent = new ConcurrentLinkedQueue<>();
+
+    // lookups of absent plates: rejected by the filter vs. passed it and missed in the DB
+    private final AtomicLong definiteMisses = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        // one plate per line, so a batch import is a single message
+        listenerContainer.addMessageListener(
+                (message, pattern) -> {
+                    String body = new String(message.getBody(), StandardCharsets.UTF_8);
+                    if (body.startsWith(PING_PREFIX)) {
+                        onPing(body.substring(PING_PREFIX.length()));
+                        return;
+                    }
+                    for (String plate : body.split("\n")) {
+                        if (!plate.isEmpty()) addLocal(plate);
+                    }
+                },
+                new ChannelTopic(CHANNEL));
+
+        Gauge.builder("vehicle.plate.bloom.fpp.observed", this, PlateBloomFilter::observedFalsePositiveRate)
+                .description("Share of lookups for unregistered plates that passed the Bloom filter")
+                .register(meterRegistry);
+        Gauge.builder("vehicle.plate.bloom.fpp.expected", this, PlateBloomFilter::expectedFalsePositiveRate)
+                .description("False-positive probability implied by the filter's fill ratio")
+                .register(meterRegistry);
+        Gauge.builder("vehicle.plate.bloom.plates", this, f -> f.current == null ? 0 : f.current.inserted.get())
+                .register(meterRegistry);
+
+        started = true;
+        rebuild();
+    }
+
+    /**
+     * False means the plate is definitely not registered
+     */
+    public boolean mightContain(String normalizedPlate) {
+        Bits bits = current;
+        if (bits == null || stale) {
+            return true;
+        }
+        boolean maybe = bits.mightContain(normalizedPlate);
+        if (!maybe) {
+            definiteMisses.incrementAndGet();
+        }
+        return maybe;
+    }
+
+    /**
+     * The filter said "maybe" but the database had no such plate
+     */
+    public void recordFalsePositive() {
+        falsePositives.incrementAndGet();
+    }
+
+    /**
+     * Add a newly registered plate here and on every other instance
+     */
+    public void add(String normalizedPlate) {
+        addAll(List.of(normalizedPlate));
+    }
+
+    public void addAll(Collection<String> normalizedPlates) {
+        if (normalizedPlates.isEmpty()) {
+            return;
+        }
+        normalizedPlates.forEach(this::addLocal);
+        publish(normalizedPlates);
+    }
+
+    private void publish(Collection<String> normalizedPlates) {
+        try {
+            redis.convertAndSend(CHANNEL, String.join("\n", normalizedPlates));
+        } catch (Exception e) {
+            if (unsent.size() + normalizedPlates.size() > MAX_UNSENT) {
+                // other instances pick these plates up on their next scheduled rebuild
+                System.err.println("[PlateFilter] Broadcast failed, resend queue full: " + e.getMessage());
+                return;
+            }
+            unsent.addAll(normalizedPlates);
+            System.err.println("[PlateFilter] Broadcast failed, will resend: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Detect a lost subscription by pinging ourselves; resend failed broadcasts
+     */
+    @Scheduled(fixedDelayString = "${vehicle.bloom.heartbeat-ms:10000}")
+    public void heartbeat() {
+        if (!started) {
+            return;
+        }
+        boolean echoed = lastPingEchoed == pingsSent.get();
+        if (!echoed) {
+            if (subscribed) {
+                System.err.println("[PlateFilter] Plate broadcasts not arriving, deferring unknown plates to the database");
+            }
+            stale = true;
+        }
+        subscribed = echoed;
+        if (echoed && (stale || current == null)) {
+            rebuild();
+        }
+
+        List<String> pending = new ArrayList<>();
+        String plate;
+        while ((plate = unsent.poll()) != null) {
+            pending.add(plate);
+        }
+        if (!pending.isEmpty()) {
+            publish(pending);
+        }
+        try {
+            redis.convertAndSend(CHANNEL, PING_PREFIX + instanceId + " " + pingsSent.incrementAndGet());
+        } catch (Exception e) {
+            // reported as a missing echo on the next heartbeat
+        }
+    }
+
+    private void onPing(String ping) {
+        int space = ping.indexOf(' ');
+        if (space < 0 || !ping.substring(0, space).equals(instanceId)) {
+            return;
+        }
+        try {
+            lastPingEchoed = Math.max(lastPingEchoed, Long.parseLong(ping.substring(space + 1)));
+        } catch (NumberFormatException ignored) {
+        }
+    }
+
+    private void addLocal(String normalizedPlate) {
+        Bits bits = current;
+        if (bits != null) {
+            bits.add(normalizedPlate);
+        }
+        Bits next = building;
+        if (next != null) {
+            next.add(normalizedPlate);
+        }
+    }
+
+    @Scheduled(cron = "${vehicle.bloom.rebuild-cron:0 15 * * * *}")
+    public synchronized long rebuild() {
+        try {
+            Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM vehicle", Long.class);
+            long capacity = Math.max(expectedPlates, (rows != null ? rows : 0) * 2);
+            Bits next = new Bits(capacity, targetFpp);
+            building = next;
+
+            TransactionTemplate tx = new TransactionTemplate(transactionManager);
+            tx.setReadOnly(true);
+            tx.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(
+                        "SELECT normalized_plate FROM vehicle WHERE normalized_plate IS NOT NULL",
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(FETCH_SIZE);
+                return ps;
+            }, (RowCallbackHandler) rs -> next.add(rs.getString(1))));
+
+            current = next;
+            building = null;
+            // a rebuild during an outage still misses plates broadcast after it; stay stale
+            stale = !subscribed;
+            definiteMisses.set(0);
+            falsePositives.set(0);
+            System.out.println("[PlateFilter] Rebuilt with " + next.inserted.get() + " plates ("
+                    + next.size + " bits, " + next.hashes + " hashes)");
+            return next.inserted.get();
+        } catch (Exception e) {
+            building = null;
+            System.err.println("[PlateFilter] Rebuild failed, keeping previous filter: " + e.getMessage());
+            return -1;
+        }
+    }
+
+    public double observedFalsePositiveRate() {
+        long fp = falsePositives.get();
+        long absent = fp + definiteMisses.get();
+        return absent == 0 ? 0.0 : (double) fp / absent;
+    }
+
+    public double expectedFalsePositiveRate() {
+        Bits bits = current;
+        return bits == null ? 1.0 : Math.pow(bits.fillRatio(), bits.hashes);
+    }
+
+    /**
+     * Fixed-size bit array with k hash positions derived from two 64-bit hashes
+     */
+    private static final class Bits {
+        final AtomicLongArray words;
+        final long size;
+        final int hashes;
+        final AtomicLong inserted = new AtomicLong();
+
+        Bits(long expected, double fpp) {
+            long bits = (long) Math.ceil(-expected * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+            this.size = Math.max(64, bits);
+            this.hashes = Math.max(1, (int) Math.round((double) size / expected * Math.log(2)));
+            this.words = new AtomicLongArray((int) ((size + 63) / 64));
+        }
+
+        void add(String plate) {
+            long h1 = hash(plate, 0x9E3779B97F4A7C15L);
+            long h2 = hash(plate, 0xC2B2AE3D27D4EB4FL);
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, size);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long old;
+                do {
+                    old = words.get(word);
+                } while ((old & mask) == 0 && !words.compareAndSet(word, old, old | mask));
+            }
+            inserted.incrementAndGet();
+        }
+
+        boolean mightContain(String plate) {
+            long h1 = hash(plate, 0x9E3779B97F4A7C15L);
+            long h2 = hash(plate, 0xC2B2AE3D27D4EB4FL);
+            for (int i = 0; i < hashes; i++) {
+                long bit = Math.floorMod(h1 + i * h2, size);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        double fillRatio() {
+            long set = 0;
+            for (int i = 0; i < words.length(); i++) {
+                set += Long.bitCount(words.get(i));
+            }
+            return (double) set / size;
+        }
+
+        // FNV-1a over the chars, finished with a murmur3 fmix64
+        private static long hash(String s, long seed) {
+            long h = 0xcbf29ce484222325L ^ seed;
+            for (int i = 0; i < s.length(); i++) {
+                h ^= s.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            h ^= h >>> 33;
+            h *= 0xff51afd7ed558ccdL;
+            h ^= h >>> 33;
+            h *= 0xc4ceb9fe1a85ec53L;
+            h ^= h >>> 33;
+            return h;
+        }
+    }
+}
@@ -1,60 +1,378 @@
 package com.uday.vehicleservice;
 
+import com.uday.vehicleservice.dto.BatchImportResult;
+import com.uday.vehicleservice.dto.BatchLookupResult;
+import com.uday.vehicleservice.dto.CursorPage;
+import com.uday.vehicleservice.dto.VehicleSummary;
 import com.uday.vehicleservice.entity.Vehicle;
 import com.uday.vehicleservice.repository.VehicleRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.cache.CacheKeyPrefix;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
 @Service
 public class VehicleService {
 
+    private static final String PLATE_CACHE = "vehicleByPlate";
+    private static final String MISS_CACHE = "vehiclePlateMisses";
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_BATCH_SIZE = 5000;
+    private static final int JDBC_BATCH_SIZE = 500;
+
+    // registers new plates; an existing row keeps its values and only has blank type/owner filled in,
+    // so the row count is 0 for vehicles already known
+    private static final String UPSERT_SQL =
+            "INSERT INTO vehicle (license_plate, normalized_plate, type, is_disabled, owner_name) " +
+            "VALUES (?, ?, ?, ?, ?) " +
+            "ON CONFLICT (normalized_plate) DO UPDATE SET " +
+            "type = COALESCE(vehicle.type, EXCLUDED.type), " +
+            "owner_name = COALESCE(vehicle.owner_name, EXCLUDED.owner_name) " +
+            "WHERE (vehicle.type IS NULL AND EXCLUDED.type IS NOT NULL) " +
+            "OR (vehicle.owner_name IS NULL AND EXCLUDED.owner_name IS NOT NULL)";
+
     @Autowired
     private VehicleRepository repo;
 
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private PlateBloomFilter plateFilter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StringRedisTemplate redis;
+
+    /**
+     * Rebuild the plate Bloom filter from the table; returns the number of plates loaded
+     */
+    public long rebuildPlateFilter() {
+        return plateFilter.rebuild();
+    }
+
     /**
-     * Save vehicle - evicts all vehicle caches
+     * Upsert keyed on the normalized plate. Returns the existing row untouched
+     * when nothing changed; only then are no caches written at all. Fields the
+     * request leaves unset (type, disabled, ownerName) keep their stored values.
+     * The plate's cache entry is replaced (not the whole cache flushed) after commit.
      */
-    @Caching(evict = {
-        @CacheEvict(value = "vehicles", allEntries = true),
-        @CacheEvict(value = "vehicleByPlate", allEntries = true)
-    })
+    @Transactional
     public Vehicle saveVehicle(Vehicle vehicle) {
-        System.out.println("Saving vehicle (cache will be evicted)");
-        return repo.save(vehicle);
+        String plate = Vehicle.normalize(vehicle.getLicensePlate());
+        if (plate == null || plate.isEmpty()) {
+            throw new IllegalArgumentException("License plate is required");
+        }
+
+        Optional<Vehicle> existing = repo.findByNormalizedPlate(plate);
+        if (existing.isEmpty()) {
+            int inserted = repo.insertIfAbsent(vehicle.getLicensePlate().trim(), plate,
+                    vehicle.getType() != null ? vehicle.getType().name() : null,
+                    vehicle.isDisabled(), vehicle.getOwnerName());
+            Vehicle saved = repo.findByNormalizedPlate(plate)
+                    .orElseThrow(() -> new IllegalStateException("Vehicle vanished after insert: " + plate));
+            if (inserted == 0) {
+                // a concurrent save won the insert; apply this request as an update
+                return update(saved, vehicle);
+            }
+            System.out.println("Registered vehicle " + plate);
+            refreshCachesAfterCommit(saved);
+            return saved;
+        }
+        return update(existing.get(), vehicle);
+    }
+
+    /**
+     * Upsert many vehicles in one transaction: de-duplicated by normalized plate,
+     * written with JDBC batches, and caches invalidated once after commit.
+     * Known vehicles are not overwritten (a re-registration from parking-lot
+     * carries no type and the entry-time disabled flag); only their missing
+     * type or owner name is filled in. Use /vehicle/save to edit a vehicle.
+     */
+    @Transactional
+    public BatchImportResult saveVehicles(List<Vehicle> vehicles) {
+        if (vehicles == null || vehicles.isEmpty()) {
+            throw new IllegalArgumentException("No vehicles in request");
+        }
+        if (vehicles.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " vehicles per batch");
+        }
+
+        BatchImportResult result = BatchImportResult.builder().received(vehicles.size()).build();
+        Map<String, Vehicle> byPlate = new LinkedHashMap<>();
+        for (Vehicle v : vehicles) {
+            String plate = v == null ? null : Vehicle.normalize(v.getLicensePlate());
+            if (plate == null || plate.isEmpty()) {
+                result.getRejected().add(v == null ? null : v.getLicensePlate());
+                continue;
+            }
+            byPlate.put(plate, v);
+        }
+        result.setUnique(byPlate.size());
+        if (byPlate.isEmpty()) {
+            return result;
+        }
+
+        Set<String> existing = new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT normalized_plate FROM vehicle WHERE normalized_plate = ANY (?)", String.class,
+                (Object) byPlate.keySet().toArray(new String[0])));
+
+        List<String> plates = new ArrayList<>(byPlate.keySet());
+        int[][] counts = jdbcTemplate.batchUpdate(UPSERT_SQL, plates, JDBC_BATCH_SIZE, (ps, plate) -> {
+            Vehicle v = byPlate.get(plate);
+            ps.setString(1, v.getLicensePlate().trim());
+            ps.setString(2, plate);
+            ps.setString(3, v.getType() != null ? v.getType().name() : null);
+            ps.setBoolean(4, v.isDisabled());
+            ps.setString(5, v.getOwnerName());
+        });
+
+        List<String> changed = new ArrayList<>();
+        int i = 0;
+        for (int[] chunk : counts) {
+            for (int count : chunk) {
+                String plate = plates.get(i++);
+                if (count == 0) {
+                    result.setUnchanged(result.getUnchanged() + 1);
+                    continue;
+                }
+                changed.add(plate);
+                if (existing.contains(plate)) {
+                    result.setUpdated(result.getUpdated() + 1);
+                } else {
+                    result.setInserted(result.getInserted() + 1);
+                }
+            }
+        }
+
+        if (!changed.isEmpty()) {
+            afterCommit(() -> {
+                plateFilter.addAll(changed);
+                List<String> keys = new ArrayList<>(changed.size() * 2);
+                for (String plate : changed) {
+                    keys.add(CacheKeyPrefix.simple().compute(PLATE_CACHE) + plate);
+                    keys.add(CacheKeyPrefix.simple().compute(MISS_CACHE) + plate);
+                }
+                redis.delete(keys);
+            });
+        }
+        System.out.println("Batch import: " + result.getInserted() + " inserted, " + result.getUpdated()
+                + " updated, " + result.getUnchanged() + " unchanged");
+        return result;
     }
 
     /**
-     * Get all vehicles - cached for 5 minutes
+     * Resolve many plates with one query; plates ruled out by the Bloom filter are not queried
+     */
+    public BatchLookupResult getVehiclesByLicense(List<String> licensePlates) {
+        if (licensePlates == null || licensePlates.isEmpty()) {
+            throw new IllegalArgumentException("No plates in request");
+        }
+        if (licensePlates.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_BATCH_SIZE + " plates per lookup");
+        }
+
+        Set<String> requested = new LinkedHashSet<>();
+        for (String p : licensePlates) {
+            String plate = Vehicle.normalize(p);
+            if (plate != null && !plate.isEmpty()) {
+                requested.add(plate);
+            }
+        }
+
+        List<String> candidates = new ArrayList<>();
+        for (String plate : requested) {
+            if (plateFilter.mightContain(plate)) {
+                candidates.add(plate);
+            }
+        }
+
+        Map<String, VehicleSummary> byPlate = new HashMap<>();
+        if (!candidates.isEmpty()) {
+            for (VehicleSummary v : repo.findSummariesByNormalizedPlateIn(candidates)) {
+                byPlate.put(Vehicle.normalize(v.getLicensePlate()), v);
+            }
+        }
+
+        BatchLookupResult result = new BatchLookupResult();
+        for (String plate : requested) {
+            VehicleSummary v = byPlate.get(plate);
+            if (v != null) {
+                result.getFound().put(plate, v);
+            } else {
+                result.getMissing().add(plate);
+            }
+        }
+        return result;
+    }
+
+    private Vehicle update(Vehicle current, Vehicle incoming) {
+        boolean changed = false;
+        if (incoming.getType() != null && incoming.getType() != current.getType()) {
+            current.setType(incoming.getType());
+            changed = true;
+        }
+        if (incoming.disabledFlag() != null && incoming.isDisabled() != current.isDisabled()) {
+            current.setDisabled(incoming.isDisabled());
+            changed = true;
+        }
+        if (incoming.getOwnerName() != null && !Objects.equals(incoming.getOwnerName(), current.getOwnerName())) {
+            current.setOwnerName(incoming.getOwnerName());
+            changed = true;
+        }
+        if (!changed) {
+            return current;
+        }
+        Vehicle saved = repo.save(current);
+        System.out.println("Updated vehicle " + saved.getNormalizedPlate());
+        refreshCachesAfterCommit(saved);
+        return saved;
+    }
+
+    /**
+     * Get all vehicles. Not cached: the list grows without bound, use listVehicles for paging.
      */
-    @Cacheable(value = "vehicles", key = "'all'")
     public List<Vehicle> getAllVehicles() {
-        System.out.println("Fetching all vehicles from database (cache miss)");
         return repo.findAll();
     }
 
     /**
-     * Get vehicle by license plate - cached for 10 minutes
+     * Keyset page of vehicles, newest first
+     */
+    public CursorPage<VehicleSummary> listVehicles(String cursor, int limit) {
+        int pageSize = pageSize(limit);
+        List<VehicleSummary> rows = repo.findPage(after(cursor), PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize);
+    }
+
+    /**
+     * Plate search on the normalized plate: prefix (KA01 -> KA01%) or substring
+     * (01AB -> %01AB%). Substring terms shorter than 3 characters fall back to a
+     * prefix match, since the trigram index cannot serve them.
      */
-    @Cacheable(value = "vehicleByPlate", key = "#licensePlate")
+    public CursorPage<VehicleSummary> searchVehicles(String query, boolean contains, String cursor, int limit) {
+        String term = Vehicle.normalize(query);
+        if (term == null || term.isEmpty()) {
+            throw new IllegalArgumentException("Search term is required");
+        }
+        String escaped = term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+        String pattern = (contains && term.length() >= 3 ? "%" : "") + escaped + "%";
+
+        int pageSize = pageSize(limit);
+        List<VehicleSummary> rows = repo.searchByPlate(pattern, after(cursor), PageRequest.of(0, pageSize + 1));
+        return CursorPage.of(rows, pageSize);
+    }
+
+    private static int pageSize(int limit) {
+        return Math.min(Math.max(limit, 1), MAX_PAGE_SIZE);
+    }
+
+    private static Long after(String cursor) {
+        Long id = CursorPage.decode(cursor);
+        return id != null ? id : Long.MAX_VALUE;
+    }
+
+    /**
+     * Get vehicle by license plate (any spacing/case). Returns a list of at most
+     * one vehicle for compatibility with existing clients.
+     *
+     * Plates the Bloom filter rules out return immediately; otherwise hits come
+     * from vehicleByPlate (10 min) and recent misses from vehiclePlateMisses
+     * (short TTL) before the database is queried.
+     */
+    @SuppressWarnings("unchecked")
     public List<Vehicle> getVehicleByLicense(String licensePlate) {
-        System.out.println("Fetching vehicle by plate from database (cache miss): " + licensePlate);
-        return repo.findByLicensePlate(licensePlate);
+        String plate = Vehicle.normalize(licensePlate);
+        if (plate == null || plate.isEmpty() || !plateFilter.mightContain(plate)) {
+            return new ArrayList<>(0);
+        }
+
+        Cache plates = cacheManager.getCache(PLATE_CACHE);
+        Cache.ValueWrapper hit = plates != null ? plates.get(plate) : null;
+        if (hit != null && hit.get() instanceof List<?> cached && !cached.isEmpty()) {
+            return (List<Vehicle>) cached;
+        }
+        Cache misses = cacheManager.getCache(MISS_CACHE);
+        if (misses != null && misses.get(plate) != null) {
+            return new ArrayList<>(0);
+        }
+
+        System.out.println("Fetching vehicle by plate from database (cache miss): " + plate);
+        List<Vehicle> result = new ArrayList<>(1);
+        repo.findByNormalizedPlate(plate).ifPresent(result::add);
+        if (result.isEmpty()) {
+            plateFilter.recordFalsePositive();
+            if (misses != null) {
+                misses.put(plate, Boolean.TRUE);
+            }
+        } else if (plates != null) {
+            plates.put(plate, result);
+        }
+        return result;
     }
 
     /**
-     * Delete vehicle - evicts all vehicle caches
+     * Delete vehicle - evicts only that plate's entry
      */
-    @Caching(evict = {
-        @CacheEvict(value = "vehicles", allEntries = true),
-        @CacheEvict(value = "vehicleByPlate", allEntries = true)
-    })
+    @Transactional
     public void deleteVehicle(Long id) {
-        System.out.println("Deleting vehicle (cache will be evicted)");
-        repo.deleteById(id);
+        System.out.println("Deleting vehicle " + id);
+        repo.findById(id).ifPresent(vehicle -> {
+            repo.delete(vehicle);
+            afterCommit(() -> evict(PLATE_CACHE, vehicle.getNormalizedPlate()));
+        });
+    }
+
+    private void refreshCachesAfterCommit(Vehicle saved) {
+        afterCommit(() -> {
+            plateFilter.add(saved.getNormalizedPlate());
+            evict(MISS_CACHE, saved.getNormalizedPlate());
+            Cache plates = cacheManager.getCache(PLATE_CACHE);
+            if (plates != null) {
+                List<Vehicle> value = new ArrayList<>(1);
+                value.add(saved);
+                plates.put(saved.getNormalizedPlate(), value);
+            }
+        });
+    }
+
+    private void evict(String cacheName, String key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 }
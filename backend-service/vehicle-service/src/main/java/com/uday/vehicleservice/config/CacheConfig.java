@@ -29,9 +29,11 @@ public class CacheConfig {
         Map<String, RedisCacheConfiguration> cacheConfigs = new HashMap<>();
 
         // Vehicle caches with custom TTLs
-        cacheConfigs.put("vehicles", defaultConfig.entryTtl(Duration.ofMinutes(5)));
         cacheConfigs.put("vehicleByPlate", defaultConfig.entryTtl(Duration.ofMinutes(10)));
 
+        // Recent lookups of unregistered plates that got past the Bloom filter; evicted on save
+        cacheConfigs.put("vehiclePlateMisses", defaultConfig.entryTtl(Duration.ofSeconds(60)));
+
         return RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(cacheConfigs)
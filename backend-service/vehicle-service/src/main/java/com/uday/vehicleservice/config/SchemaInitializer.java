@@ -0,0 +1,62 @@
+package com.uday.vehicleservice.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Backfills vehicle.normalized_plate for rows saved before it existed and removes
+ * the duplicate rows that repeated /vehicle/save calls created, keeping the
+ * oldest row per plate, then creates the plate lookup and search indexes.
+ * Runs right after Hibernate has updated the schema; every statement is
+ * idempotent and a failure is logged, not fatal.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class SchemaInitializer {
+
+    // must match Vehicle.normalize
+    private static final String NORMALIZED = "upper(regexp_replace(%s, '[[:space:]-]', '', 'g'))";
+
+    private static final List<String> STATEMENTS = List.of(
+        // keep the first-registered row, carrying over an owner name recorded only on a duplicate
+        "UPDATE vehicle k SET owner_name = d.owner_name FROM vehicle d " +
+            "WHERE k.owner_name IS NULL AND d.owner_name IS NOT NULL AND d.id > k.id " +
+            "AND " + norm("d.license_plate") + " = " + norm("k.license_plate"),
+        "DELETE FROM vehicle d USING vehicle k WHERE d.id > k.id " +
+            "AND " + norm("d.license_plate") + " = " + norm("k.license_plate"),
+        "UPDATE vehicle SET normalized_plate = " + norm("license_plate") +
+            " WHERE normalized_plate IS DISTINCT FROM " + norm("license_plate"),
+        // upsert target for VehicleRepository.insertIfAbsent; created only once duplicates are gone
+        "CREATE UNIQUE INDEX IF NOT EXISTS uk_vehicle_normalized_plate ON vehicle (normalized_plate)",
+        // plate search: LIKE 'KA01%' uses the pattern-ops btree, LIKE '%01AB%' the trigram index
+        "CREATE INDEX IF NOT EXISTS idx_vehicle_plate_prefix ON vehicle (normalized_plate text_pattern_ops)",
+        "CREATE EXTENSION IF NOT EXISTS pg_trgm",
+        "CREATE INDEX IF NOT EXISTS idx_vehicle_plate_trgm ON vehicle USING gin (normalized_plate gin_trgm_ops)"
+    );
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void initialize() {
+        for (String sql : STATEMENTS) {
+            try {
+                int rows = jdbcTemplate.update(sql);
+                if (rows > 0) {
+                    System.out.println("[Schema] " + rows + " rows: " + sql);
+                }
+            } catch (Exception e) {
+                System.err.println("[Schema] Failed to apply: " + sql + " -> " + e.getMessage());
+            }
+        }
+    }
+
+    private static String norm(String column) {
+        return String.format(NORMALIZED, column);
+    }
+}
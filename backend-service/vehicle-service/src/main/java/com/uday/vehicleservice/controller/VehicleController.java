@@ -7,6 +7,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/vehicle")
@@ -15,10 +16,74 @@ public class VehicleController {
     @Autowired
     private VehicleService vehicleService;
 
+    /**
+     * Register or update a vehicle; idempotent per normalized plate
+     * POST /vehicle/save
+     */
     @PostMapping("/save")
-    public ResponseEntity<Vehicle> saveVehicle(@RequestBody Vehicle vehicle) {
-        Vehicle saved = vehicleService.saveVehicle(vehicle);
-        return ResponseEntity.ok(saved);
+    public ResponseEntity<?> saveVehicle(@RequestBody Vehicle vehicle) {
+        try {
+            Vehicle saved = vehicleService.saveVehicle(vehicle);
+            return ResponseEntity.ok(saved);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Register many vehicles at once (fleet import); known vehicles keep their values
+     * POST /vehicle/batch
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> saveVehicles(@RequestBody List<Vehicle> vehicles) {
+        try {
+            return ResponseEntity.ok(vehicleService.saveVehicles(vehicles));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Resolve many plates in one call
+     * GET /vehicle/batch?plates=KA01AB1234,KA02CD5678
+     */
+    @GetMapping("/batch")
+    public ResponseEntity<?> getVehiclesByLicense(@RequestParam List<String> plates) {
+        try {
+            return ResponseEntity.ok(vehicleService.getVehiclesByLicense(plates));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Keyset page of vehicles, newest first
+     * GET /vehicle/page?cursor=...&limit=50
+     */
+    @GetMapping("/page")
+    public ResponseEntity<?> getVehiclePage(@RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(vehicleService.listVehicles(cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Search by plate prefix, or substring with mode=contains
+     * GET /vehicle/search?q=KA01&mode=prefix&cursor=...&limit=50
+     */
+    @GetMapping("/search")
+    public ResponseEntity<?> searchVehicles(@RequestParam String q,
+                                            @RequestParam(defaultValue = "prefix") String mode,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(vehicleService.searchVehicles(q, "contains".equalsIgnoreCase(mode), cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
     }
 
     @GetMapping("/all")
@@ -41,6 +106,19 @@ public class VehicleController {
         return ResponseEntity.ok(vehicles);
     }
 
+    /**
+     * Rebuild the registered-plate Bloom filter from the database (admin)
+     * POST /vehicle/admin/plate-filter/rebuild
+     */
+    @PostMapping("/admin/plate-filter/rebuild")
+    public ResponseEntity<?> rebuildPlateFilter() {
+        long plates = vehicleService.rebuildPlateFilter();
+        if (plates < 0) {
+            return ResponseEntity.status(500).body(Map.of("error", "Rebuild failed, previous filter kept"));
+        }
+        return ResponseEntity.ok(Map.of("plates", plates));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteVehicle(@PathVariable Long id) {
         vehicleService.deleteVehicle(id);
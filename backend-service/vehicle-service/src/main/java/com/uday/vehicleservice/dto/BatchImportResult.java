@@ -0,0 +1,27 @@
+package com.uday.vehicleservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of POST /vehicle/batch. Counts refer to unique normalized plates;
+ * when a plate appears more than once the last occurrence wins.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchImportResult {
+    private int received;
+    private int unique;
+    private int inserted;
+    private int updated;
+    private int unchanged;
+    @Builder.Default
+    private List<String> rejected = new ArrayList<>();   // entries without a usable plate
+}
@@ -0,0 +1,26 @@
+package com.uday.vehicleservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of GET /vehicle/batch: registered vehicles keyed by normalized plate,
+ * plus the normalized plates that are not registered
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchLookupResult {
+    @Builder.Default
+    private Map<String, VehicleSummary> found = new LinkedHashMap<>();
+    @Builder.Default
+    private List<String> missing = new ArrayList<>();
+}
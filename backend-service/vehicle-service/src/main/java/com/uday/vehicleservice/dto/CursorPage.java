@@ -0,0 +1,60 @@
+package com.uday.vehicleservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * One page of a keyset query ordered by id DESC. nextCursor is the opaque
+ * position of the last item and is null on the last page.
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+
+    /**
+     * Build a page from a query that fetched pageSize + 1 rows.
+     * The extra row only signals that another page exists and is dropped.
+     */
+    public static CursorPage<VehicleSummary> of(List<VehicleSummary> rows, int pageSize) {
+        boolean hasMore = rows.size() > pageSize;
+        List<VehicleSummary> items = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        String next = hasMore ? encode(items.get(items.size() - 1).getId()) : null;
+
+        return CursorPage.<VehicleSummary>builder()
+                .items(items)
+                .nextCursor(next)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    public static String encode(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(String.valueOf(id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Id to continue after, or null for the first page
+     */
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
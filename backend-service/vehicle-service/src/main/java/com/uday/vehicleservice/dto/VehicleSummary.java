@@ -0,0 +1,20 @@
+package com.uday.vehicleservice.dto;
+
+import com.uday.vehicleservice.entity.VehicleType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Vehicle row returned by listing and search (selected directly, no entity loaded)
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class VehicleSummary {
+    private Long id;
+    private String licensePlate;
+    private VehicleType type;
+    private boolean disabled;
+    private String ownerName;
+}
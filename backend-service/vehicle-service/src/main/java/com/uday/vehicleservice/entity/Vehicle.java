@@ -2,6 +2,8 @@ package com.uday.vehicleservice.entity;
 
 import jakarta.persistence.*;
 
+import java.util.Locale;
+
 @Entity
 public class Vehicle {
 
@@ -11,10 +13,16 @@ public class Vehicle {
 
     private String licensePlate;
 
+    // upsert key: uppercase plate without spaces or dashes, kept in sync with licensePlate
+    // (unique index uk_vehicle_normalized_plate is created by SchemaInitializer after de-duplication)
+    @Column(name = "normalized_plate")
+    private String normalizedPlate;
+
     @Enumerated(EnumType.STRING)
     private VehicleType type;
 
-    private boolean isDisabled;
+    // null only on incoming requests that do not set it; stored rows always have a value
+    private Boolean isDisabled;
 
     private String ownerName;
 
@@ -29,6 +37,21 @@ public class Vehicle {
 
     public void setLicensePlate(String licensePlate) {
         this.licensePlate = licensePlate;
+        this.normalizedPlate = normalize(licensePlate);
+    }
+
+    public String getNormalizedPlate() {
+        return normalizedPlate;
+    }
+
+    /**
+     * Must match the expression used to backfill normalized_plate in SchemaInitializer
+     */
+    public static String normalize(String plate) {
+        if (plate == null) {
+            return null;
+        }
+        return plate.replaceAll("[\\s-]", "").toUpperCase(Locale.ROOT);
     }
 
     public VehicleType getType() {
@@ -40,13 +63,20 @@ public class Vehicle {
     }
 
     public boolean isDisabled() {
-        return isDisabled;
+        return Boolean.TRUE.equals(isDisabled);
     }
 
-    public void setDisabled(boolean disabled) {
+    public void setDisabled(Boolean disabled) {
         isDisabled = disabled;
     }
 
+    /**
+     * The flag as sent, or null when the request did not set it
+     */
+    public Boolean disabledFlag() {
+        return isDisabled;
+    }
+
     public String getOwnerName() {
         return ownerName;
     }
@@ -1,12 +1,48 @@
 package com.uday.vehicleservice.repository;
 
+import com.uday.vehicleservice.dto.VehicleSummary;
 import com.uday.vehicleservice.entity.Vehicle;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface VehicleRepository extends JpaRepository<Vehicle, Long> {
     List<Vehicle> findByLicensePlate(String licensePlate);
+
+    Optional<Vehicle> findByNormalizedPlate(String normalizedPlate);
+
+    @Query("SELECT new com.uday.vehicleservice.dto.VehicleSummary(v.id, v.licensePlate, v.type, v.isDisabled, v.ownerName) " +
+            "FROM Vehicle v WHERE v.normalizedPlate IN :plates")
+    List<VehicleSummary> findSummariesByNormalizedPlateIn(@Param("plates") Collection<String> normalizedPlates);
+
+    // keyset pages, newest first; pass Long.MAX_VALUE as afterId for the first page
+    @Query("SELECT new com.uday.vehicleservice.dto.VehicleSummary(v.id, v.licensePlate, v.type, v.isDisabled, v.ownerName) " +
+            "FROM Vehicle v WHERE v.id < :afterId ORDER BY v.id DESC")
+    List<VehicleSummary> findPage(@Param("afterId") Long afterId, Pageable limit);
+
+    // pattern is matched against normalized_plate (prefix or trigram index)
+    @Query("SELECT new com.uday.vehicleservice.dto.VehicleSummary(v.id, v.licensePlate, v.type, v.isDisabled, v.ownerName) " +
+            "FROM Vehicle v WHERE v.normalizedPlate LIKE :pattern ESCAPE '\\' AND v.id < :afterId ORDER BY v.id DESC")
+    List<VehicleSummary> searchByPlate(@Param("pattern") String pattern, @Param("afterId") Long afterId, Pageable limit);
+
+    /**
+     * Insert unless a vehicle with the same normalized plate exists; returns rows inserted (0 or 1)
+     */
+    @Modifying
+    @Query(value = "INSERT INTO vehicle (license_plate, normalized_plate, type, is_disabled, owner_name) " +
+            "VALUES (:plate, :normalized, :type, :disabled, :owner) " +
+            "ON CONFLICT (normalized_plate) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("plate") String licensePlate,
+                       @Param("normalized") String normalizedPlate,
+                       @Param("type") String type,
+                       @Param("disabled") boolean disabled,
+                       @Param("owner") String ownerName);
 }
@@ -3,3 +3,11 @@ import api from './axiosConfig';
 // Send a notification
 export const sendNotification = (payload) =>
   api.post('/notifications/send', payload);
+
+// Register (or refresh) this device's push token for a user
+export const registerDeviceToken = (userEmail, token, platform = 'WEB') =>
+  api.post('/notifications/tokens', { userEmail, token, platform });
+
+// Remove this device's push token, e.g. on logout
+export const unregisterDeviceToken = (token) =>
+  api.delete('/notifications/tokens', { params: { token } });
@@ -7,3 +7,7 @@ export const createPayment = (ticketId, amount) =>
 // Verify payment (for Razorpay callback)
 export const verifyPayment = (paymentData) =>
   api.post('/payments/verify', paymentData);
+
+// Whether a ticket has been paid (from the payment ledger)
+export const getPaymentStatus = (ticketId) =>
+  api.get(`/payments/status/${ticketId}`);
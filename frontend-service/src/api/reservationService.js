@@ -10,6 +10,10 @@ export const createReservation = (data) =>
 export const getUserReservations = (email) =>
   api.get('/reservations', { params: { email } });
 
+// Get a page of user's reservations, newest first (pass nextCursor for the next page)
+export const getUserReservationsPage = (email, cursor, limit = 20) =>
+  api.get('/reservations/page', { params: { email, cursor, limit } });
+
 // Get user's active/upcoming reservations
 export const getUserActiveReservations = (email) =>
   api.get('/reservations/active', { params: { email } });
@@ -47,3 +51,10 @@ export const getBlockedSpots = (levelId) =>
 // Get all reservations (admin)
 export const getAllReservations = () =>
   api.get('/reservations/admin/all');
+
+// Download reservations starting between two dates (inclusive) as csv or ndjson (admin)
+export const exportReservations = (from, to, format = 'csv') =>
+  api.get('/reservations/admin/export', {
+    params: { from, to, format },
+    responseType: 'blob'
+  });
@@ -10,6 +10,14 @@ export const createUserTicket = (ticketData) =>
 export const getUserTickets = (email) =>
   api.get('/ticketing/user/tickets', { params: { email } });
 
+// Get a page of a user's tickets, newest first (pass nextCursor for the next page)
+export const getUserTicketsPage = (email, cursor, limit = 20) =>
+  api.get('/ticketing/user/tickets/page', { params: { email, cursor, limit } });
+
+// Get active tickets and total ticket count for the dashboard
+export const getUserTicketOverview = (email) =>
+  api.get('/ticketing/user/overview', { params: { email } });
+
 // Get active tickets for a user
 export const getUserActiveTickets = (email) =>
   api.get('/ticketing/user/tickets/active', { params: { email } });
@@ -32,6 +40,18 @@ export const getAllTickets = () =>
 export const getAllActiveTickets = () =>
   api.get('/ticketing/admin/tickets/active');
 
+// Search tickets with filters and cursor pagination (admin only)
+// params: { status, levelId, spotId, vehicleNumber, email, from, to, cursor, limit }
+export const searchTickets = (params) =>
+  api.get('/ticketing/admin/tickets/search', { params });
+
+// Download tickets entered between two dates (inclusive) as csv or ndjson (admin only)
+export const exportTickets = (from, to, format = 'csv') =>
+  api.get('/ticketing/admin/tickets/export', {
+    params: { from, to, format },
+    responseType: 'blob'
+  });
+
 // Get system statistics (admin only)
 export const getSystemStats = () =>
   api.get('/ticketing/admin/stats');
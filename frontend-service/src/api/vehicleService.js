@@ -4,9 +4,25 @@ import api from './axiosConfig';
 export const registerVehicle = (vehicle) =>
   api.post('/vehicle/save', vehicle);
 
+// Register or update many vehicles at once (fleet import)
+export const registerVehiclesBatch = (vehicles) =>
+  api.post('/vehicle/batch', vehicles);
+
+// Resolve many plates in one call
+export const getVehiclesBatch = (plates) =>
+  api.get('/vehicle/batch', { params: { plates: plates.join(',') } });
+
 // Get all vehicles
 export const getAllVehicles = () => api.get('/vehicle/all');
 
+// Get a page of vehicles, newest first (pass nextCursor for the next page)
+export const getVehiclesPage = (cursor, limit = 50) =>
+  api.get('/vehicle/page', { params: { cursor, limit } });
+
+// Search vehicles by plate; mode is 'prefix' or 'contains'
+export const searchVehicles = (q, mode = 'prefix', cursor, limit = 50) =>
+  api.get('/vehicle/search', { params: { q, mode, cursor, limit } });
+
 // Get vehicle by license plate
 export const getVehicleByLicense = (licensePlate) =>
   api.get("/vehicle/" + encodeURIComponent(licensePlate));
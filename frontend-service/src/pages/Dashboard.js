@@ -2,7 +2,7 @@ import React, { useState, useEffect } from 'react';
 import { Link, Navigate } from 'react-router-dom';
 import { useAuth } from '../context/AuthContext';
 import { getParkingStats, getLevelsWithDetails } from '../api/parkingLotService';
-import { getUserTickets, getUserActiveTickets } from '../api/ticketService';
+import { getUserTicketOverview } from '../api/ticketService';
 
 export default function Dashboard() {
   const { user, isAdmin, isUser } = useAuth();
@@ -30,15 +30,15 @@ export default function Dashboard() {
 
         // Fetch user-specific stats if user role
         if (user?.email && isUser()) {
-          const [totalRes, activeRes] = await Promise.allSettled([
-            getUserTickets(user.email),
-            getUserActiveTickets(user.email)
-          ]);
-
-          setUserStats({
-            totalTickets: totalRes.status === 'fulfilled' ? (totalRes.value.data?.length || 0) : 0,
-            activeTickets: activeRes.status === 'fulfilled' ? (activeRes.value.data?.length || 0) : 0
-          });
+          try {
+            const overviewRes = await getUserTicketOverview(user.email);
+            setUserStats({
+              totalTickets: overviewRes.data?.totalTickets || 0,
+              activeTickets: overviewRes.data?.activeTickets?.length || 0
+            });
+          } catch (err) {
+            setUserStats({ totalTickets: 0, activeTickets: 0 });
+          }
         }
       } catch (err) {
         console.error('Failed to load dashboard data:', err);
@@ -1,7 +1,7 @@
 import React, { useState, useEffect, useCallback } from 'react';
 import { Link, useNavigate } from 'react-router-dom';
 import { useAuth } from '../context/AuthContext';
-import { getUserReservations, cancelReservation, checkInReservation } from '../api/reservationService';
+import { getUserReservationsPage, cancelReservation, checkInReservation } from '../api/reservationService';
 import Loading from '../components/Loading';
 import ErrorMessage from '../components/ErrorMessage';
 
@@ -14,6 +14,8 @@ export default function MyReservations() {
   const [error, setError] = useState(null);
   const [actionLoading, setActionLoading] = useState(null); // ID of reservation being acted on
   const [filter, setFilter] = useState('all');
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
 
   const fetchReservations = useCallback(async () => {
     if (!user?.email) return;
@@ -21,8 +23,9 @@ export default function MyReservations() {
     setLoading(true);
     setError(null);
     try {
-      const res = await getUserReservations(user.email);
-      setReservations(res.data || []);
+      const res = await getUserReservationsPage(user.email);
+      setReservations(res.data?.items || []);
+      setNextCursor(res.data?.hasMore ? res.data.nextCursor : null);
     } catch (err) {
       setError(err);
     } finally {
@@ -30,6 +33,21 @@ export default function MyReservations() {
     }
   }, [user?.email]);
 
+  const loadMoreReservations = async () => {
+    if (!user?.email || !nextCursor) return;
+
+    setLoadingMore(true);
+    try {
+      const res = await getUserReservationsPage(user.email, nextCursor);
+      setReservations(prev => [...prev, ...(res.data?.items || [])]);
+      setNextCursor(res.data?.hasMore ? res.data.nextCursor : null);
+    } catch (err) {
+      setError(err);
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   useEffect(() => {
     fetchReservations();
   }, [fetchReservations]);
@@ -281,6 +299,14 @@ export default function MyReservations() {
           ))}
         </div>
       )}
+
+      {!loading && !error && nextCursor && (
+        <div className="text-center mb-4">
+          <button className="btn btn-outline-primary" onClick={loadMoreReservations} disabled={loadingMore}>
+            {loadingMore ? 'Loading...' : 'Load More'}
+          </button>
+        </div>
+      )}
     </div>
   );
 }
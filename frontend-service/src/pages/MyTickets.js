@@ -1,7 +1,7 @@
 import React, { useState, useEffect } from 'react';
 import { Link } from 'react-router-dom';
 import { useAuth } from '../context/AuthContext';
-import { getUserTickets, getUserActiveTickets, exitUserVehicle } from '../api/ticketService';
+import { getUserTicketsPage, getUserActiveTickets, exitUserVehicle } from '../api/ticketService';
 
 export default function MyTickets() {
   const { user } = useAuth();
@@ -11,6 +11,8 @@ export default function MyTickets() {
   const [filter, setFilter] = useState('all'); // 'all' or 'active'
   const [exitingTicketId, setExitingTicketId] = useState(null);
   const [successMessage, setSuccessMessage] = useState(null);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
 
   const fetchTickets = async () => {
     if (!user?.email) return;
@@ -19,28 +21,41 @@ export default function MyTickets() {
     setError(null);
 
     try {
-      let response;
       if (filter === 'active') {
-        response = await getUserActiveTickets(user.email);
+        const response = await getUserActiveTickets(user.email);
+        setTickets(Array.isArray(response.data) ? response.data : []);
+        setNextCursor(null);
       } else {
-        response = await getUserTickets(user.email);
-      }
-
-      const data = response.data;
-      if (Array.isArray(data)) {
-        setTickets(data);
-      } else {
-        setTickets([]);
+        const response = await getUserTicketsPage(user.email);
+        setTickets(response.data?.items || []);
+        setNextCursor(response.data?.hasMore ? response.data.nextCursor : null);
       }
     } catch (err) {
       console.error('Failed to load tickets:', err);
       setError(err.response?.data?.message || err.message || 'Failed to load tickets');
       setTickets([]);
+      setNextCursor(null);
     } finally {
       setLoading(false);
     }
   };
 
+  const loadMoreTickets = async () => {
+    if (!user?.email || !nextCursor) return;
+
+    setLoadingMore(true);
+    try {
+      const response = await getUserTicketsPage(user.email, nextCursor);
+      setTickets(prev => [...prev, ...(response.data?.items || [])]);
+      setNextCursor(response.data?.hasMore ? response.data.nextCursor : null);
+    } catch (err) {
+      console.error('Failed to load more tickets:', err);
+      setError(err.response?.data?.error || err.message || 'Failed to load more tickets');
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   useEffect(() => {
     fetchTickets();
   }, [user?.email, filter]);
@@ -232,6 +247,13 @@ export default function MyTickets() {
               ))}
             </tbody>
           </table>
+          {nextCursor && (
+            <div className="text-center">
+              <button className="btn btn-outline-primary" onClick={loadMoreTickets} disabled={loadingMore}>
+                {loadingMore ? 'Loading...' : 'Load More'}
+              </button>
+            </div>
+          )}
         </div>
       )}
 
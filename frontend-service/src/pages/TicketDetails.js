@@ -46,7 +46,7 @@ export default function TicketDetails() {
     setProcessing(true);
     setError(null);
     try {
-      const amount = 50; // Default parking fee
+      const amount = Math.round(ticket.fee ?? 0); // the fee the ticket closed with
       const res = await createPayment(id, amount);
       if (res.data?.status === 'SUCCESS') {
         setMessage('Payment processed successfully! Payment ID: ' + (res.data.paymentId || res.data.orderId));
@@ -55,7 +55,7 @@ export default function TicketDetails() {
       }
       fetchTicket();
     } catch (err) {
-      setError('Payment failed: ' + (err.response?.data?.message || err.message));
+      setError('Payment failed: ' + (err.response?.data?.error || err.response?.data?.message || err.message));
     } finally {
       setProcessing(false);
     }
@@ -1,6 +1,6 @@
-import React, { useState, useEffect } from 'react';
+import React, { useState, useEffect, useCallback } from 'react';
 import { Link } from 'react-router-dom';
-import { getAllVehicles, deleteVehicle } from '../../api/vehicleService';
+import { getVehiclesPage, searchVehicles, deleteVehicle } from '../../api/vehicleService';
 
 export default function VehiclesPage() {
   const [vehicles, setVehicles] = useState([]);
@@ -8,27 +8,51 @@ export default function VehiclesPage() {
   const [error, setError] = useState(null);
   const [message, setMessage] = useState(null);
   const [searchTerm, setSearchTerm] = useState('');
+  const [searchMode, setSearchMode] = useState('prefix');
+  const [nextCursor, setNextCursor] = useState(null);
+  const [loadingMore, setLoadingMore] = useState(false);
 
-  const fetchVehicles = () => {
+  const fetchPage = useCallback((cursor) => {
+    const term = searchTerm.trim();
+    return term
+      ? searchVehicles(term, searchMode, cursor)
+      : getVehiclesPage(cursor);
+  }, [searchTerm, searchMode]);
+
+  const fetchVehicles = useCallback(() => {
     setLoading(true);
-    getAllVehicles()
+    fetchPage()
       .then((res) => {
-        setVehicles(res.data || []);
+        setVehicles(res.data?.items || []);
+        setNextCursor(res.data?.hasMore ? res.data.nextCursor : null);
         setError(null);
       })
       .catch((err) => {
-        if (err.response?.status === 204) {
-          setVehicles([]);
-        } else {
-          setError(err.response?.data?.message || err.message);
-        }
+        setError(err.response?.data?.error || err.response?.data?.message || err.message);
       })
       .finally(() => setLoading(false));
+  }, [fetchPage]);
+
+  const loadMoreVehicles = async () => {
+    if (!nextCursor) return;
+
+    setLoadingMore(true);
+    try {
+      const res = await fetchPage(nextCursor);
+      setVehicles(prev => [...prev, ...(res.data?.items || [])]);
+      setNextCursor(res.data?.hasMore ? res.data.nextCursor : null);
+    } catch (err) {
+      setError(err.response?.data?.error || err.message);
+    } finally {
+      setLoadingMore(false);
+    }
   };
 
+  // debounce searches while typing
   useEffect(() => {
-    fetchVehicles();
-  }, []);
+    const timer = setTimeout(fetchVehicles, 300);
+    return () => clearTimeout(timer);
+  }, [fetchVehicles]);
 
   const handleDelete = async (id) => {
     if (!window.confirm('Are you sure you want to delete this vehicle?')) return;
@@ -42,15 +66,6 @@ export default function VehiclesPage() {
     }
   };
 
-  const filteredVehicles = vehicles.filter(v => {
-    const searchLower = searchTerm.toLowerCase();
-    return (
-      (v.licensePlate && v.licensePlate.toLowerCase().includes(searchLower)) ||
-      (v.type && v.type.toLowerCase().includes(searchLower)) ||
-      (v.ownerName && v.ownerName.toLowerCase().includes(searchLower))
-    );
-  });
-
   return (
     <div className="container mt-4">
       <div className="d-flex justify-content-between align-items-center mb-4">
@@ -79,18 +94,28 @@ export default function VehiclesPage() {
       <div className="card mb-4">
         <div className="card-body">
           <div className="row align-items-center">
-            <div className="col-md-6">
+            <div className="col-md-5">
               <input
                 type="text"
                 className="form-control"
-                placeholder="Search by license plate, type, or owner..."
+                placeholder="Search by license plate..."
                 value={searchTerm}
                 onChange={(e) => setSearchTerm(e.target.value)}
               />
             </div>
-            <div className="col-md-6 text-end">
+            <div className="col-md-3">
+              <select
+                className="form-select"
+                value={searchMode}
+                onChange={(e) => setSearchMode(e.target.value)}
+              >
+                <option value="prefix">Starts with</option>
+                <option value="contains">Contains</option>
+              </select>
+            </div>
+            <div className="col-md-4 text-end">
               <span className="text-muted">
-                Showing {filteredVehicles.length} of {vehicles.length} vehicles
+                Showing {vehicles.length} vehicles{nextCursor ? ' (more available)' : ''}
               </span>
             </div>
           </div>
@@ -105,19 +130,19 @@ export default function VehiclesPage() {
         </div>
       )}
 
-      {!loading && vehicles.length === 0 && (
+      {!loading && vehicles.length === 0 && !searchTerm.trim() && (
         <div className="alert alert-info">
           No vehicles registered yet. <Link to="/vehicle/register">Register one now</Link>.
         </div>
       )}
 
-      {!loading && vehicles.length > 0 && filteredVehicles.length === 0 && (
+      {!loading && vehicles.length === 0 && searchTerm.trim() && (
         <div className="alert alert-warning">
           No vehicles match your search criteria.
         </div>
       )}
 
-      {!loading && filteredVehicles.length > 0 && (
+      {!loading && vehicles.length > 0 && (
         <div className="table-responsive">
           <table className="table table-hover">
             <thead className="table-dark">
@@ -130,7 +155,7 @@ export default function VehiclesPage() {
               </tr>
             </thead>
             <tbody>
-              {filteredVehicles.map((vehicle) => (
+              {vehicles.map((vehicle) => (
                 <tr key={vehicle.id}>
                   <td>{vehicle.id}</td>
                   <td>
@@ -156,6 +181,14 @@ export default function VehiclesPage() {
           </table>
         </div>
       )}
+
+      {!loading && nextCursor && (
+        <div className="text-center mb-4">
+          <button className="btn btn-outline-primary" onClick={loadMoreVehicles} disabled={loadingMore}>
+            {loadingMore ? 'Loading...' : 'Load More'}
+          </button>
+        </div>
+      )}
     </div>
   );
 }